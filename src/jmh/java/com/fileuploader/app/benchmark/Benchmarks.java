@@ -0,0 +1,77 @@
+package com.fileuploader.app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fileuploader.app.config.JacksonConfiguration;
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Content;
+import com.fileuploader.app.domain.Document;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Fixtures shared by the benchmarks.
+ */
+final class Benchmarks {
+
+  private Benchmarks() {}
+
+  /**
+   * @return an object mapper configured like the one of the application,
+   *     with the modules of {@link JacksonConfiguration} registered on Spring
+   *     Boot's defaults.
+   */
+  static ObjectMapper objectMapper() {
+    JacksonConfiguration configuration = new JacksonConfiguration();
+    return Jackson2ObjectMapperBuilder.json()
+        .modules(configuration.javaTimeModule(),
+                 configuration.jdk8TimeModule(),
+                 configuration.hibernate5Module())
+        .build();
+  }
+
+  /**
+   * @param count the number of documents.
+   * @return documents with ids, each with the metadata of its content and
+   *     belonging to one of a few cars, as listed by the API.
+   */
+  static List<Document> documents(int count) {
+    List<Car> cars = cars(Math.max(1, count / 10));
+    List<Document> documents = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Content content = new Content()
+                            .id((long)i)
+                            .dataContentType("application/pdf")
+                            .storageKey(sha256(i))
+                            .dataSize(1_048_576L + i)
+                            .sha256(sha256(i));
+      documents.add(new Document()
+                        .id((long)i)
+                        .title("Registration certificate " + i + ".pdf")
+                        .size(content.getDataSize())
+                        .mimeType(content.getDataContentType())
+                        .content(content)
+                        .car(cars.get(i % cars.size())));
+    }
+    return documents;
+  }
+
+  /**
+   * @param count the number of cars.
+   * @return cars with ids and without documents.
+   */
+  static List<Car> cars(int count) {
+    List<Car> cars = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      cars.add(new Car().id((long)i).model("Model " + i));
+    }
+    return cars;
+  }
+
+  /**
+   * @return a distinct hexadecimal SHA-256-like key.
+   */
+  static String sha256(long i) {
+    return String.format("%064x", i);
+  }
+}
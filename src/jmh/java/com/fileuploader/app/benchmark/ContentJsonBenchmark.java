@@ -0,0 +1,59 @@
+package com.fileuploader.app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fileuploader.app.domain.Content;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of a {@link Content} carrying its bytes, which JSON encodes
+ * in base64, as in the payloads of {@code POST /api/contents}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentJsonBenchmark {
+
+  @Param({"1024", "65536", "1048576"}) int size;
+
+  private ObjectMapper objectMapper;
+
+  private Content content;
+
+  private byte[] json;
+
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = Benchmarks.objectMapper();
+    byte[] data = new byte[size];
+    new Random(42).nextBytes(data);
+    content = new Content().id(1L).data(data).dataContentType(
+        "application/octet-stream");
+    json = objectMapper.writeValueAsBytes(content);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return objectMapper.writeValueAsBytes(content);
+  }
+
+  @Benchmark
+  public Content deserialize() throws IOException {
+    return objectMapper.readValue(json, Content.class);
+  }
+}
@@ -0,0 +1,111 @@
+package com.fileuploader.app.benchmark;
+
+import com.fileuploader.app.domain.Content;
+import com.fileuploader.app.repository.ContentRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Round trips of {@link ContentRepository} to an in-memory H2 database, as
+ * done when a content is stored and when its metadata is read back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentRepositoryBenchmark {
+
+  private static final int SAVED_CONTENTS = 1000;
+
+  /**
+   * Only the JPA infrastructure and {@link ContentRepository}, without the
+   * services, caches or web layer of the application.
+   */
+  @SpringBootConfiguration
+  @ImportAutoConfiguration({DataSourceAutoConfiguration.class,
+                            HibernateJpaAutoConfiguration.class,
+                            TransactionAutoConfiguration.class})
+  @EntityScan(basePackageClasses = Content.class)
+  @EnableJpaRepositories(
+      basePackageClasses = ContentRepository.class,
+      includeFilters = @ComponentScan.Filter(
+          type = FilterType.ASSIGNABLE_TYPE, classes = ContentRepository.class))
+  static class RepositoryConfiguration {}
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private ConfigurableApplicationContext context;
+
+  private ContentRepository contentRepository;
+
+  private List<Long> ids;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(RepositoryConfiguration.class)
+                  .web(WebApplicationType.NONE)
+                  .properties("spring.config.name=benchmark")
+                  .run();
+    contentRepository = context.getBean(ContentRepository.class);
+    List<Content> contents = new ArrayList<>(SAVED_CONTENTS);
+    for (int i = 0; i < SAVED_CONTENTS; i++) {
+      contents.add(newContent());
+    }
+    ids = contentRepository.saveAll(contents)
+              .stream()
+              .map(Content::getId)
+              .toList();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Content save() {
+    return contentRepository.save(newContent());
+  }
+
+  @Benchmark
+  public Content findById() {
+    Long id = ids.get((int)(sequence.incrementAndGet() % ids.size()));
+    return contentRepository.findById(id).orElseThrow();
+  }
+
+  private Content newContent() {
+    long i = sequence.incrementAndGet();
+    return new Content()
+        .dataContentType("application/pdf")
+        .storageKey(Benchmarks.sha256(i))
+        .dataSize(1_048_576L)
+        .sha256(Benchmarks.sha256(i));
+  }
+}
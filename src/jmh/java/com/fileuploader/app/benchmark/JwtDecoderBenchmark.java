@@ -0,0 +1,74 @@
+package com.fileuploader.app.benchmark;
+
+import static com.fileuploader.app.security.SecurityUtils.AUTHORITIES_KEY;
+import static com.fileuploader.app.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.fileuploader.app.config.SecurityJwtConfiguration;
+import com.fileuploader.app.management.SecurityMetersService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The decoding of the bearer token done on every authenticated request, by
+ * the decoder of {@link SecurityJwtConfiguration#jwtDecoder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+  /** The secret of the test configuration. */
+  private static final String SECRET =
+      "MjIwODM0NmE2MTU2OGJmYzUzODZlNjA2MDQ5MjM3ZTdlOWY4NDFkYTZiNzMwNjg2ZmU1OD"
+      + "cyOWFmZDE0M2NkYmVmOGE4ZWJkNmIyNjQ2OGYxYmFmZjAxMzZkNzdlYmRmZDEyY2Q3MG"
+      + "MzMDMzOWE3MjMwZmU1ZmVmYzU3ZDAxZmU=";
+
+  private JwtDecoder jwtDecoder;
+
+  private String token;
+
+  @Setup
+  public void setUp() {
+    SecurityJwtConfiguration configuration = new SecurityJwtConfiguration();
+    ReflectionTestUtils.setField(configuration, "jwtKey", SECRET);
+    jwtDecoder = configuration.jwtDecoder(
+        new SecurityMetersService(new SimpleMeterRegistry()));
+    Instant now = Instant.now();
+    JwtClaimsSet claims = JwtClaimsSet.builder()
+                              .issuedAt(now)
+                              .expiresAt(now.plus(1, ChronoUnit.DAYS))
+                              .subject("user")
+                              .claim(AUTHORITIES_KEY, "ROLE_USER")
+                              .build();
+    token = configuration.jwtEncoder()
+                .encode(JwtEncoderParameters.from(
+                    JwsHeader.with(JWT_ALGORITHM).build(), claims))
+                .getTokenValue();
+  }
+
+  @Benchmark
+  public Jwt decode() {
+    return jwtDecoder.decode(token);
+  }
+}
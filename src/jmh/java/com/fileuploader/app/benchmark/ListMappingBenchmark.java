@@ -0,0 +1,77 @@
+package com.fileuploader.app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Document;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * The mapping of a page of entities to a response by {@code GET /api/cars}
+ * and {@code GET /api/documents}: the pagination headers and the JSON body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListMappingBenchmark {
+
+  private static final long TOTAL = 100_000;
+
+  @Param({"20", "100"}) int pageSize;
+
+  private ObjectMapper objectMapper;
+
+  private Page<Car> cars;
+
+  private Page<Document> documents;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Benchmarks.objectMapper();
+    PageRequest pageable = PageRequest.of(3, pageSize);
+    cars = new PageImpl<>(Benchmarks.cars(pageSize), pageable, TOTAL);
+    documents = new PageImpl<>(Benchmarks.documents(pageSize), pageable, TOTAL);
+  }
+
+  @Benchmark
+  public byte[] listCars() throws IOException {
+    return map(cars, "/api/cars");
+  }
+
+  @Benchmark
+  public byte[] listDocuments() throws IOException {
+    return map(documents, "/api/documents");
+  }
+
+  private byte[] map(Page<?> page, String path) throws IOException {
+    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+        UriComponentsBuilder.fromHttpUrl("http://localhost:8080" + path)
+            .queryParam("page", page.getNumber())
+            .queryParam("size", page.getSize()),
+        page);
+    byte[] body = objectMapper.writeValueAsBytes(page.getContent());
+    // keep the headers from being optimized away
+    return headers.isEmpty() ? null : body;
+  }
+}
@@ -0,0 +1,5 @@
+/**
+ * JMH benchmarks of the hot paths of uploads, downloads and listings, run by
+ * the {@code benchmarks} Maven profile.
+ */
+package com.fileuploader.app.benchmark;
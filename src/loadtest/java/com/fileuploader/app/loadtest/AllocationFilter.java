@@ -0,0 +1,62 @@
+package com.fileuploader.app.loadtest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the bytes the application allocates to serve the requests of each
+ * endpoint, from the allocation counter of the thread serving the request.
+ * <p>
+ * Registered ahead of every other filter, so that the authentication of the
+ * request is counted too.
+ */
+final class AllocationFilter extends OncePerRequestFilter {
+
+  private final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+  private final Map<String, LongAdder> allocatedBytes =
+      new ConcurrentHashMap<>();
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain)
+      throws ServletException, IOException {
+    long before = threads.getCurrentThreadAllocatedBytes();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      allocatedBytes.computeIfAbsent(endpoint(request), e -> new LongAdder())
+          .add(threads.getCurrentThreadAllocatedBytes() - before);
+    }
+  }
+
+  /** Forgets the allocations counted so far, at the end of the warmup. */
+  void reset() { allocatedBytes.clear(); }
+
+  /**
+   * @param endpoint the method and path pattern of the endpoint.
+   * @return the bytes allocated to serve the endpoint since the last reset.
+   */
+  long allocatedBytes(String endpoint) {
+    LongAdder bytes = allocatedBytes.get(endpoint);
+    return bytes == null ? 0 : bytes.sum();
+  }
+
+  private static String endpoint(HttpServletRequest request) {
+    Object pattern =
+        request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return request.getMethod() + " " +
+        (pattern != null ? pattern : request.getRequestURI());
+  }
+}
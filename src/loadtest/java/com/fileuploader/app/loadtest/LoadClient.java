@@ -0,0 +1,154 @@
+package com.fileuploader.app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A client of the load test, sending the operations drawn from its workload
+ * one after the other.
+ */
+final class LoadClient {
+
+  private static final int PAGE_SIZE = 20;
+
+  private final HttpClient http;
+
+  private final URI baseUri;
+
+  private final String authorization;
+
+  private final long carId;
+
+  private final List<Long> documentIds;
+
+  private final Workload workload;
+
+  private final ObjectMapper objectMapper;
+
+  private final Random random;
+
+  private final byte[] file;
+
+  private long uploads;
+
+  /**
+   * @param index the index of the client, which seeds its random generator.
+   * @param documentIds the ids of the documents to download and update,
+   *     shared by all the clients, to which uploaded documents are added.
+   */
+  LoadClient(int index, HttpClient http, URI baseUri, String token,
+             long carId, List<Long> documentIds, Workload workload,
+             ObjectMapper objectMapper) {
+    this.http = http;
+    this.baseUri = baseUri;
+    this.authorization = "Bearer " + token;
+    this.carId = carId;
+    this.documentIds = documentIds;
+    this.workload = workload;
+    this.objectMapper = objectMapper;
+    this.random = new Random(workload.seed() + index);
+    this.file = new byte[workload.fileSize()];
+    random.nextBytes(file);
+  }
+
+  /**
+   * Sends requests drawn from the workload.
+   *
+   * @param requests the number of requests.
+   * @return the latencies of the requests of each operation.
+   * @throws InterruptedException if interrupted while waiting for a response.
+   */
+  Map<Operation, Samples> run(int requests) throws InterruptedException {
+    Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+    for (int i = 0; i < requests; i++) {
+      Operation operation = workload.next(random);
+      Samples operationSamples =
+          samples.computeIfAbsent(operation, o -> new Samples());
+      long start = System.nanoTime();
+      try {
+        if (execute(operation)) {
+          operationSamples.record(System.nanoTime() - start);
+        } else {
+          operationSamples.error();
+        }
+      } catch (IOException e) {
+        operationSamples.error();
+      }
+    }
+    return samples;
+  }
+
+  /**
+   * Uploads a new document, distinct from all the others of the client so
+   * that it is stored in a blob of its own.
+   *
+   * @return whether the document was uploaded.
+   * @throws IOException if the request fails.
+   * @throws InterruptedException if interrupted while waiting for the
+   *     response.
+   */
+  boolean upload() throws IOException, InterruptedException {
+    ByteBuffer.wrap(file).putLong(0, uploads++);
+    HttpResponse<byte[]> response = http.send(
+        request("/api/documents/upload?carId=" + carId + "&title=load-test-" +
+                random.nextInt(Integer.MAX_VALUE))
+            .header("Content-Type", "application/octet-stream")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(file))
+            .build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() != 201) {
+      return false;
+    }
+    documentIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+    return true;
+  }
+
+  private boolean execute(Operation operation)
+      throws IOException, InterruptedException {
+    return switch (operation) {
+      case UPLOAD -> upload();
+      case DOWNLOAD -> succeeded(http.send(
+          request("/api/documents/" + anyDocumentId() + "/data").build(),
+          HttpResponse.BodyHandlers.discarding()));
+      case LIST -> succeeded(http.send(
+          request("/api/documents?page=" + random.nextInt(5) +
+                  "&size=" + PAGE_SIZE)
+              .build(),
+          HttpResponse.BodyHandlers.discarding()));
+      case PATCH -> {
+        long id = anyDocumentId();
+        String patch = "{\"id\":" + id + ",\"title\":\"load-test-" +
+                       random.nextInt(Integer.MAX_VALUE) + "\"}";
+        yield succeeded(http.send(
+            request("/api/documents/" + id)
+                .header("Content-Type", "application/merge-patch+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(patch))
+                .build(),
+            HttpResponse.BodyHandlers.discarding()));
+      }
+    };
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path))
+        .header("Authorization", authorization);
+  }
+
+  private long anyDocumentId() {
+    // ids are only ever added, so the drawn index stays valid
+    return documentIds.get(random.nextInt(documentIds.size()));
+  }
+
+  private static boolean succeeded(HttpResponse<?> response) {
+    return response.statusCode() < 400;
+  }
+}
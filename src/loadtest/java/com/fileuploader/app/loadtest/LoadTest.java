@@ -0,0 +1,239 @@
+package com.fileuploader.app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fileuploader.app.FileUploaderApp;
+import com.fileuploader.app.config.MysqlTestContainer;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+
+/**
+ * End-to-end load test of the application.
+ * <p>
+ * Boots the application with the {@code prod} profile on the MySQL container
+ * of the integration tests, authenticates as the admin, uploads the documents
+ * of a car and then has concurrent clients send a mix of uploads, downloads,
+ * listings and updates of documents, as configured by {@link Workload}. Rate
+ * limits and transfer admission are disabled, so that the application rather
+ * than its quotas is measured.
+ * <p>
+ * Reports the throughput, the p50, p95 and p99 latencies and the allocation
+ * rate of each endpoint, on the console and as JSON in the file of the
+ * {@code loadtest.result} system property.
+ */
+public final class LoadTest {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private static final double BYTES_PER_MIB = 1024.0 * 1024.0;
+
+  /**
+   * The beans added to the application for the load test, a configuration
+   * class only when passed as a source so that component scanning never
+   * picks it.
+   */
+  static class Instrumentation {
+
+    @Bean
+    AllocationFilter allocationFilter() {
+      return new AllocationFilter();
+    }
+
+    @Bean
+    FilterRegistrationBean<AllocationFilter>
+    allocationFilterRegistration(AllocationFilter allocationFilter) {
+      FilterRegistrationBean<AllocationFilter> registration =
+          new FilterRegistrationBean<>(allocationFilter);
+      registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+      return registration;
+    }
+  }
+
+  private LoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    Workload workload = Workload.fromSystemProperties();
+    MysqlTestContainer database = new MysqlTestContainer();
+    database.afterPropertiesSet();
+    try (ConfigurableApplicationContext context = start(database, workload)) {
+      int port =
+          ((WebServerApplicationContext)context).getWebServer().getPort();
+      Map<String, Object> report =
+          run(workload, URI.create("http://localhost:" + port),
+              context.getBean(AllocationFilter.class));
+      File result = new File(System.getProperty("loadtest.result",
+                                                "target/loadtest-result.json"));
+      new ObjectMapper()
+          .enable(SerializationFeature.INDENT_OUTPUT)
+          .writeValue(result, report);
+      System.out.println("Results written to " + result);
+    } finally {
+      database.destroy();
+    }
+  }
+
+  private static ConfigurableApplicationContext
+  start(MysqlTestContainer database, Workload workload) {
+    JdbcDatabaseContainer<?> container = database.getTestContainer();
+    return new SpringApplicationBuilder(FileUploaderApp.class,
+                                        Instrumentation.class)
+        .profiles("prod")
+        .run("--server.port=0",
+             "--spring.datasource.url=" + container.getJdbcUrl() +
+                 "?useSSL=false&serverTimezone=UTC" +
+                 "&rewriteBatchedStatements=true",
+             "--spring.datasource.username=" + container.getUsername(),
+             "--spring.datasource.password=" + container.getPassword(),
+             "--spring.datasource.hikari.maximum-pool-size=" +
+                 Math.max(10, workload.clients()),
+             "--application.storage.root=target/loadtest-storage",
+             // every client is the admin, whose rate limits and transfer
+             // quota would reject most of the workload
+             "--application.rate-limit.enabled=false",
+             "--application.transfer.enabled=false");
+  }
+
+  private static Map<String, Object> run(Workload workload, URI baseUri,
+                                         AllocationFilter allocationFilter)
+      throws IOException, InterruptedException, ExecutionException {
+    ObjectMapper objectMapper = new ObjectMapper();
+    HttpClient http =
+        HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    String token = authenticate(http, baseUri, objectMapper);
+    long carId = createCar(http, baseUri, token, objectMapper);
+    List<Long> documentIds = Collections.synchronizedList(new ArrayList<>());
+    LoadClient seeder = new LoadClient(-1, http, baseUri, token, carId,
+                                       documentIds, workload, objectMapper);
+    for (int i = 0; i < workload.documents(); i++) {
+      if (!seeder.upload()) {
+        throw new IllegalStateException("Could not upload the documents");
+      }
+    }
+
+    List<LoadClient> clients = new ArrayList<>();
+    for (int i = 0; i < workload.clients(); i++) {
+      clients.add(new LoadClient(i, http, baseUri, token, carId, documentIds,
+                                 workload, objectMapper));
+    }
+    // one thread per client, each waiting on its own responses
+    ExecutorService executor = Executors.newFixedThreadPool(workload.clients());
+    try {
+      runAll(executor, clients, workload.warmupRequests());
+      allocationFilter.reset();
+      long start = System.nanoTime();
+      Map<Operation, Samples> samples =
+          runAll(executor, clients, workload.requests());
+      double seconds = (System.nanoTime() - start) / 1e9;
+      return report(workload, samples, seconds, allocationFilter);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Map<Operation, Samples>
+  runAll(ExecutorService executor, List<LoadClient> clients, int requests)
+      throws InterruptedException, ExecutionException {
+    List<Future<Map<Operation, Samples>>> runs = new ArrayList<>();
+    for (LoadClient client : clients) {
+      runs.add(executor.submit(() -> client.run(requests)));
+    }
+    Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+    for (Future<Map<Operation, Samples>> run : runs) {
+      run.get().forEach(
+          (operation, clientSamples)
+              -> samples.computeIfAbsent(operation, o -> new Samples())
+                     .addAll(clientSamples));
+    }
+    return samples;
+  }
+
+  private static Map<String, Object>
+  report(Workload workload, Map<Operation, Samples> samples, double seconds,
+         AllocationFilter allocationFilter) {
+    System.out.printf("%-30s %8s %7s %9s %8s %8s %8s %10s %10s%n", "Endpoint",
+                      "Requests", "Errors", "Req/s", "p50 ms", "p95 ms",
+                      "p99 ms", "KiB/req", "MiB/s");
+    Map<String, Object> endpoints = new LinkedHashMap<>();
+    samples.forEach((operation, operationSamples) -> {
+      int requests = operationSamples.count() + operationSamples.errors();
+      long allocated = allocationFilter.allocatedBytes(operation.endpoint());
+      Map<String, Object> endpoint = new LinkedHashMap<>();
+      endpoint.put("requests", requests);
+      endpoint.put("errors", operationSamples.errors());
+      endpoint.put("throughput", requests / seconds);
+      endpoint.put("p50", operationSamples.percentile(50) / NANOS_PER_MILLI);
+      endpoint.put("p95", operationSamples.percentile(95) / NANOS_PER_MILLI);
+      endpoint.put("p99", operationSamples.percentile(99) / NANOS_PER_MILLI);
+      endpoint.put("allocatedBytesPerRequest", (double)allocated / requests);
+      endpoint.put("allocationRate", allocated / seconds);
+      endpoints.put(operation.endpoint(), endpoint);
+      System.out.printf(
+          "%-30s %8d %7d %9.1f %8.2f %8.2f %8.2f %10.1f %10.1f%n",
+          operation.endpoint(), requests, operationSamples.errors(),
+          requests / seconds, endpoint.get("p50"), endpoint.get("p95"),
+          endpoint.get("p99"), allocated / 1024.0 / requests,
+          allocated / BYTES_PER_MIB / seconds);
+    });
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("workload", workload);
+    report.put("seconds", seconds);
+    report.put("endpoints", endpoints);
+    return report;
+  }
+
+  private static String authenticate(HttpClient http, URI baseUri,
+                                     ObjectMapper objectMapper)
+      throws IOException, InterruptedException {
+    HttpResponse<byte[]> response = http.send(
+        HttpRequest.newBuilder(baseUri.resolve("/api/authenticate"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"username\":\"admin\",\"password\":\"admin\"}"))
+            .build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Could not authenticate: " +
+                                      response.statusCode());
+    }
+    return objectMapper.readTree(response.body()).get("id_token").asText();
+  }
+
+  private static long createCar(HttpClient http, URI baseUri, String token,
+                                ObjectMapper objectMapper)
+      throws IOException, InterruptedException {
+    HttpResponse<byte[]> response = http.send(
+        HttpRequest.newBuilder(baseUri.resolve("/api/cars"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "{\"model\":\"load-test\"}"))
+            .build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() != 201) {
+      throw new IllegalStateException("Could not create the car: " +
+                                      response.statusCode());
+    }
+    return objectMapper.readTree(response.body()).get("id").asLong();
+  }
+}
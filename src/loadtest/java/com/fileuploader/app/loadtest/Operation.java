@@ -0,0 +1,25 @@
+package com.fileuploader.app.loadtest;
+
+/**
+ * The requests a client of the load test sends, each to one endpoint.
+ */
+enum Operation {
+  /** Uploads a new document of the car under test. */
+  UPLOAD("POST /api/documents/upload"),
+  /** Downloads the bytes of a document. */
+  DOWNLOAD("GET /api/documents/{id}/data"),
+  /** Lists a page of documents. */
+  LIST("GET /api/documents"),
+  /** Renames a document. */
+  PATCH("PATCH /api/documents/{id}");
+
+  private final String endpoint;
+
+  Operation(String endpoint) { this.endpoint = endpoint; }
+
+  /**
+   * @return the method and path pattern of the endpoint, as matched by the
+   *     application.
+   */
+  String endpoint() { return endpoint; }
+}
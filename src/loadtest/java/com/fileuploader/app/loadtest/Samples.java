@@ -0,0 +1,55 @@
+package com.fileuploader.app.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The latencies of the requests of one operation, kept in full so that the
+ * percentiles are exact.
+ */
+final class Samples {
+
+  private long[] latencies = new long[1024];
+
+  private int count;
+
+  private int errors;
+
+  /**
+   * @param nanos the latency of a successful request, in nanoseconds.
+   */
+  void record(long nanos) {
+    if (count == latencies.length) {
+      latencies = Arrays.copyOf(latencies, count * 2);
+    }
+    latencies[count++] = nanos;
+  }
+
+  /** Counts a failed request. */
+  void error() { errors++; }
+
+  void addAll(Samples other) {
+    for (int i = 0; i < other.count; i++) {
+      record(other.latencies[i]);
+    }
+    errors += other.errors;
+  }
+
+  int count() { return count; }
+
+  int errors() { return errors; }
+
+  /**
+   * @param percentile the percentile, between 0 and 100.
+   * @return the latency below which the given percentage of the successful
+   *     requests fall, in nanoseconds, or 0 if there was none.
+   */
+  long percentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long[] sorted = Arrays.copyOf(latencies, count);
+    Arrays.sort(sorted);
+    int rank = (int)Math.ceil(percentile / 100 * count);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+}
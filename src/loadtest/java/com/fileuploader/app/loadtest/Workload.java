@@ -0,0 +1,87 @@
+package com.fileuploader.app.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The workload of a load test, read from the {@code loadtest.*} system
+ * properties.
+ * <p>
+ * Each client draws its operations from a random generator seeded from
+ * {@link #seed()} and its index, so two runs of the same workload send the
+ * same sequence of operations.
+ *
+ * @param clients the number of concurrent clients, each sending its next
+ *     request once the previous one is answered.
+ * @param warmupRequests the number of requests of each client before the
+ *     measurements start.
+ * @param requests the number of measured requests of each client.
+ * @param mix the relative weight of each operation.
+ * @param fileSize the size in bytes of the uploaded files.
+ * @param documents the number of documents uploaded before the warmup, for
+ *     the clients to download and update.
+ * @param seed the seed of the random generators of the clients.
+ */
+record Workload(int clients, int warmupRequests, int requests,
+                Map<Operation, Integer> mix, int fileSize, int documents,
+                long seed) {
+
+  private static final String PREFIX = "loadtest.";
+
+  private static final String DEFAULT_MIX =
+      "upload=10,download=50,list=30,patch=10";
+
+  Workload {
+    if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+      throw new IllegalArgumentException("The mix has no operation");
+    }
+  }
+
+  static Workload fromSystemProperties() {
+    return new Workload(
+        Integer.getInteger(PREFIX + "clients", 16),
+        Integer.getInteger(PREFIX + "warmup-requests", 50),
+        Integer.getInteger(PREFIX + "requests", 500),
+        parseMix(System.getProperty(PREFIX + "mix", DEFAULT_MIX)),
+        Integer.getInteger(PREFIX + "file-size", 64 * 1024),
+        Integer.getInteger(PREFIX + "documents", 100),
+        Long.getLong(PREFIX + "seed", 42L));
+  }
+
+  /**
+   * Draws the next operation of a client.
+   *
+   * @param random the random generator of the client.
+   * @return the operation.
+   */
+  Operation next(Random random) {
+    int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+    int drawn = random.nextInt(total);
+    for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+      drawn -= entry.getValue();
+      if (drawn < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("Drawn past the mix");
+  }
+
+  /**
+   * Parses a mix such as {@code upload=10,download=50}, the operations left
+   * out having no weight.
+   */
+  private static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String weight : mix.split(",")) {
+      String[] parts = weight.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid mix: " + mix);
+      }
+      weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                  Integer.parseInt(parts[1].trim()));
+    }
+    return weights;
+  }
+}
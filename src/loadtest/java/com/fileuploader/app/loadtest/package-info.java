@@ -0,0 +1,5 @@
+/**
+ * End-to-end load test of the application on a MySQL container, run by the
+ * {@code load-tests} Maven profile.
+ */
+package com.fileuploader.app.loadtest;
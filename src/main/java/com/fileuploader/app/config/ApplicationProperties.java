@@ -1,5 +1,10 @@
 package com.fileuploader.app.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +15,700 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Storage storage = new Storage();
+
+    private final Cache cache = new Cache();
+
+    private final Threads threads = new Threads();
+
+    private final Transfer transfer = new Transfer();
+
+    private final RateLimit rateLimit = new RateLimit();
+
     // jhipster-needle-application-properties-property
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Threads getThreads() {
+        return threads;
+    }
+
+    public Transfer getTransfer() {
+        return transfer;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Storage {
+
+        /**
+         * Blob store implementation, only {@code filesystem} is available.
+         */
+        private String type = "filesystem";
+
+        /**
+         * Root directory of the filesystem blob store.
+         */
+        private String root = "storage";
+
+        /**
+         * Size in bytes of the buffer used when streaming blobs in and out of storage.
+         */
+        private int chunkSize = 64 * 1024;
+
+        private final Migration migration = new Migration();
+
+        private final Gc gc = new Gc();
+
+        private final Upload upload = new Upload();
+
+        private final Preview preview = new Preview();
+
+        private final Compression compression = new Compression();
+
+        private final Cache cache = new Cache();
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getRoot() {
+            return root;
+        }
+
+        public void setRoot(String root) {
+            this.root = root;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Migration getMigration() {
+            return migration;
+        }
+
+        public Gc getGc() {
+            return gc;
+        }
+
+        public Upload getUpload() {
+            return upload;
+        }
+
+        public Preview getPreview() {
+            return preview;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        /**
+         * Background migration of blobs still held in the database to the blob store.
+         */
+        public static class Migration {
+
+            private boolean enabled = true;
+
+            /**
+             * Maximum number of blobs migrated per run.
+             */
+            private int batchSize = 100;
+
+            /**
+             * Delay in milliseconds between two runs.
+             */
+            private long delay = 60_000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public long getDelay() {
+                return delay;
+            }
+
+            public void setDelay(long delay) {
+                this.delay = delay;
+            }
+        }
+
+        /**
+         * Garbage collection of the blobs no longer referenced by any content.
+         */
+        public static class Gc {
+
+            private boolean enabled = true;
+
+            /**
+             * Maximum number of unreferenced blobs deleted per run.
+             */
+            private int batchSize = 1000;
+
+            /**
+             * Delay in milliseconds between two runs.
+             */
+            private long delay = 3_600_000;
+
+            /**
+             * Time a blob is kept after losing its last reference or, for a blob never
+             * referenced, after being written.
+             */
+            private Duration gracePeriod = Duration.ofHours(1);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public long getDelay() {
+                return delay;
+            }
+
+            public void setDelay(long delay) {
+                this.delay = delay;
+            }
+
+            public Duration getGracePeriod() {
+                return gracePeriod;
+            }
+
+            public void setGracePeriod(Duration gracePeriod) {
+                this.gracePeriod = gracePeriod;
+            }
+        }
+
+        /**
+         * Resumable uploads, whose chunks are staged under the root directory until they are assembled.
+         */
+        public static class Upload {
+
+            /**
+             * Size in bytes of the chunks of an upload session when the client does not choose one.
+             */
+            private int defaultChunkSize = 8 * 1024 * 1024;
+
+            /**
+             * Maximum size in bytes of the chunks of an upload session.
+             */
+            private int maxChunkSize = 64 * 1024 * 1024;
+
+            /**
+             * Maximum size in bytes of the document of an upload session.
+             */
+            private long maxSize = 10L * 1024 * 1024 * 1024;
+
+            /**
+             * Time an upload session can be completed in, after which its chunks are deleted.
+             */
+            private Duration expiry = Duration.ofHours(24);
+
+            public int getDefaultChunkSize() {
+                return defaultChunkSize;
+            }
+
+            public void setDefaultChunkSize(int defaultChunkSize) {
+                this.defaultChunkSize = defaultChunkSize;
+            }
+
+            public int getMaxChunkSize() {
+                return maxChunkSize;
+            }
+
+            public void setMaxChunkSize(int maxChunkSize) {
+                this.maxChunkSize = maxChunkSize;
+            }
+
+            public long getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(long maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public Duration getExpiry() {
+                return expiry;
+            }
+
+            public void setExpiry(Duration expiry) {
+                this.expiry = expiry;
+            }
+        }
+
+        /**
+         * Thumbnails of the images and first pages of the PDFs, generated in the background once uploaded.
+         */
+        public static class Preview {
+
+            private boolean enabled = true;
+
+            /**
+             * Maximum width and height in pixels of the previews.
+             */
+            private int size = 256;
+
+            /**
+             * Maximum size in bytes of the files previews are generated for.
+             */
+            private long maxSourceSize = 64 * 1024 * 1024;
+
+            /**
+             * Number of threads generating previews.
+             */
+            private int threads = 2;
+
+            /**
+             * Maximum number of previews waiting to be generated, beyond which new ones are only generated
+             * when first requested.
+             */
+            private int queueCapacity = 100;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getSize() {
+                return size;
+            }
+
+            public void setSize(int size) {
+                this.size = size;
+            }
+
+            public long getMaxSourceSize() {
+                return maxSourceSize;
+            }
+
+            public void setMaxSourceSize(long maxSourceSize) {
+                this.maxSourceSize = maxSourceSize;
+            }
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+
+        /**
+         * Compression at rest of the blobs whose MIME type usually compresses well, such as text or uncompressed
+         * images.
+         */
+        public static class Compression {
+
+            private boolean enabled = true;
+
+            /**
+             * MIME types of the blobs to compress, with wildcards such as {@code text/*} or
+             * {@code application/*+xml}.
+             */
+            private List<String> mimeTypes = new ArrayList<>(
+                List.of(
+                    "text/*",
+                    "application/json",
+                    "application/*+json",
+                    "application/xml",
+                    "application/*+xml",
+                    "application/javascript",
+                    "application/rtf",
+                    "application/postscript",
+                    "image/svg+xml",
+                    "image/tiff",
+                    "image/bmp"
+                )
+            );
+
+            /**
+             * Maximum ratio of the compressed size to the original size for a blob to be kept compressed; the
+             * first bytes of a blob are probed first so that incompressible blobs are not compressed in full.
+             */
+            private double maxRatio = 0.9;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getMimeTypes() {
+                return mimeTypes;
+            }
+
+            public void setMimeTypes(List<String> mimeTypes) {
+                this.mimeTypes = mimeTypes;
+            }
+
+            public double getMaxRatio() {
+                return maxRatio;
+            }
+
+            public void setMaxRatio(double maxRatio) {
+                this.maxRatio = maxRatio;
+            }
+        }
+
+        /**
+         * Off-heap cache of the bytes of the most read blobs, sized in bytes rather than in entries.
+         */
+        public static class Cache {
+
+            private boolean enabled = true;
+
+            /**
+             * Maximum number of bytes held by the cache, allocated off-heap: the JVM must be given at least as
+             * much direct memory with {@code -XX:MaxDirectMemorySize}.
+             */
+            private long size = 256L * 1024 * 1024;
+
+            /**
+             * Maximum size in bytes of the blobs admitted in the cache, larger ones are always streamed from the
+             * blob store.
+             */
+            private long maxEntrySize = 4 * 1024 * 1024;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getSize() {
+                return size;
+            }
+
+            public void setSize(long size) {
+                this.size = size;
+            }
+
+            public long getMaxEntrySize() {
+                return maxEntrySize;
+            }
+
+            public void setMaxEntrySize(long maxEntrySize) {
+                this.maxEntrySize = maxEntrySize;
+            }
+        }
+    }
+
+    /**
+     * Sizing of the regions of the Hibernate second-level cache and of the Spring caches.
+     */
+    public static class Cache {
+
+        /**
+         * Regions by name, those not listed falling back to {@code jhipster.cache.ehcache}.
+         */
+        private Map<String, Region> regions = new LinkedHashMap<>();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        /**
+         * Sizing of a cache region, the unset values falling back to {@code jhipster.cache.ehcache}.
+         */
+        public static class Region {
+
+            /**
+             * Maximum number of entries held on heap.
+             */
+            private Long maxEntries;
+
+            /**
+             * Maximum number of bytes held off-heap behind the heap tier, none if unset. Off-heap entries are
+             * serialized, so their size is known without walking the object graphs. Needs as much direct memory
+             * ({@code -XX:MaxDirectMemorySize}).
+             */
+            private Long offHeapSize;
+
+            /**
+             * How long an entry is kept.
+             */
+            private Duration timeToLive;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Long getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(Long offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+        }
+    }
+
+    /**
+     * Threads serving the requests and running the {@code @Async} tasks.
+     */
+    public static class Threads {
+
+        /**
+         * Whether to run each request and {@code @Async} task on a virtual thread of its own instead of the
+         * Undertow and task pools, which needs Java 21 or later. No thread pool then bounds the requests in
+         * flight: those needing the database wait for a Hikari connection and fail once its connection timeout
+         * elapses.
+         */
+        private boolean virtual = false;
+
+        /**
+         * Minimum duration of the pinnings of a virtual thread to its carrier thread counted in the
+         * {@code jvm.threads.virtual.pinned} timer.
+         */
+        private Duration pinnedThreshold = Duration.ofMillis(20);
+
+        public boolean isVirtual() {
+            return virtual;
+        }
+
+        public void setVirtual(boolean virtual) {
+            this.virtual = virtual;
+        }
+
+        public Duration getPinnedThreshold() {
+            return pinnedThreshold;
+        }
+
+        public void setPinnedThreshold(Duration pinnedThreshold) {
+            this.pinnedThreshold = pinnedThreshold;
+        }
+    }
+
+    /**
+     * Admission control of the uploads and downloads of bytes, bounding the bytes in flight so that bulk
+     * transfers leave threads and connections to the other requests.
+     */
+    public static class Transfer {
+
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of bytes transferred at once by all the users.
+         */
+        private long maxBytes = 512L * 1024 * 1024;
+
+        /**
+         * Maximum number of bytes transferred at once by a single user.
+         */
+        private long maxBytesPerUser = 128L * 1024 * 1024;
+
+        /**
+         * Maximum number of transfers waiting for their bytes to be admitted, further ones are rejected at once.
+         */
+        private int maxQueued = 100;
+
+        /**
+         * How long a transfer waits for its bytes to be admitted before being rejected.
+         */
+        private Duration queueTimeout = Duration.ofSeconds(2);
+
+        /**
+         * How long a rejected client is asked to wait before trying again, in the {@code Retry-After} header.
+         */
+        private Duration retryAfter = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public long getMaxBytesPerUser() {
+            return maxBytesPerUser;
+        }
+
+        public void setMaxBytesPerUser(long maxBytesPerUser) {
+            this.maxBytesPerUser = maxBytesPerUser;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public void setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * Rate limiting of the requests of each user, or of each client address for anonymous requests, by groups of
+     * endpoints.
+     */
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        /**
+         * Groups of endpoints by name, a request counting against the first group one of whose patterns matches
+         * its path; requests matching no group are not limited.
+         */
+        private Map<String, Group> groups = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Map<String, Group> getGroups() {
+            return groups;
+        }
+
+        public void setGroups(Map<String, Group> groups) {
+            this.groups = groups;
+        }
+
+        /**
+         * The limit of a group of endpoints: bursts of up to {@code capacity} requests, refilled at
+         * {@code capacity} requests per {@code period}.
+         */
+        public static class Group {
+
+            /**
+             * Path patterns of the endpoints, such as {@code /api/upload-sessions/**}.
+             */
+            private List<String> patterns = new ArrayList<>();
+
+            private long capacity;
+
+            private Duration period = Duration.ofMinutes(1);
+
+            public List<String> getPatterns() {
+                return patterns;
+            }
+
+            public void setPatterns(List<String> patterns) {
+                this.patterns = patterns;
+            }
+
+            public long getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(long capacity) {
+                this.capacity = capacity;
+            }
+
+            public Duration getPeriod() {
+                return period;
+            }
+
+            public void setPeriod(Duration period) {
+                this.period = period;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
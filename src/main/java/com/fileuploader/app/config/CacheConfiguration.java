@@ -1,7 +1,20 @@
 package com.fileuploader.app.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.ehcache.config.ResourcePools;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,27 +28,35 @@ import org.springframework.context.annotation.*;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
+/**
+ * Configures the Ehcache regions of the Hibernate second-level cache and of
+ * the Spring caches.
+ * <p>
+ * Each region is sized by {@code application.cache.regions.<region>}, in
+ * entries on heap, optionally backed by an off-heap tier sized in bytes; the
+ * regions not configured there share the {@code jhipster.cache.ehcache}
+ * sizing. Heap tiers are never sized in bytes, which Ehcache measures by
+ * walking the cached object graphs, slowly and unreliably on recent JDKs.
+ * Statistics are enabled on every region, and their hit ratio is reported in
+ * the {@value #HIT_RATIO_METER_NAME} gauge.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
 
+  public static final String HIT_RATIO_METER_NAME = "cache.hit.ratio";
+
   private GitProperties gitProperties;
   private BuildProperties buildProperties;
-  private final javax.cache.configuration
-      .Configuration<Object, Object> jcacheConfiguration;
-
-  public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-    JHipsterProperties.Cache.Ehcache ehcache =
-        jHipsterProperties.getCache().getEhcache();
+  private final JHipsterProperties.Cache.Ehcache ehcache;
+  private final Map<String, ApplicationProperties.Cache.Region> regions;
+  /** The cache names created, by region. */
+  private final Map<String, String> cacheNames = new LinkedHashMap<>();
 
-    jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-        CacheConfigurationBuilder
-            .newCacheConfigurationBuilder(
-                Object.class, Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(
-                Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-            .build());
+  public CacheConfiguration(JHipsterProperties jHipsterProperties,
+                            ApplicationProperties applicationProperties) {
+    this.ehcache = jHipsterProperties.getCache().getEhcache();
+    this.regions = applicationProperties.getCache().getRegions();
   }
 
   @Bean
@@ -49,30 +70,117 @@ public class CacheConfiguration {
   public JCacheManagerCustomizer cacheManagerCustomizer() {
     return cm -> {
       createCache(
-          cm,
+          cm, "users-by-login",
           com.fileuploader.app.repository.UserRepository.USERS_BY_LOGIN_CACHE);
       createCache(
-          cm,
+          cm, "users-by-email",
           com.fileuploader.app.repository.UserRepository.USERS_BY_EMAIL_CACHE);
-      createCache(cm, com.fileuploader.app.domain.User.class.getName());
-      createCache(cm, com.fileuploader.app.domain.Authority.class.getName());
-      createCache(cm, com.fileuploader.app.domain.User.class.getName() +
-                          ".authorities");
-      createCache(cm, com.fileuploader.app.domain.Document.class.getName());
-      createCache(cm, com.fileuploader.app.domain.Car.class.getName());
-      createCache(cm, com.fileuploader.app.domain.Car.class.getName() +
-                          ".documents");
-      createCache(cm, com.fileuploader.app.domain.Content.class.getName());
+      createCache(cm, "user",
+                  com.fileuploader.app.domain.User.class.getName());
+      createCache(cm, "authority",
+                  com.fileuploader.app.domain.Authority.class.getName());
+      createCache(cm, "user-authorities",
+                  com.fileuploader.app.domain.User.class.getName() +
+                      ".authorities");
+      createCache(cm, "document",
+                  com.fileuploader.app.domain.Document.class.getName());
+      createCache(cm, "car", com.fileuploader.app.domain.Car.class.getName());
+      createCache(cm, "car-documents",
+                  com.fileuploader.app.domain.Car.class.getName() +
+                      ".documents");
+      createCache(cm, "content",
+                  com.fileuploader.app.domain.Content.class.getName());
       // jhipster-needle-ehcache-add-entry
     };
   }
 
-  private void createCache(javax.cache.CacheManager cm, String cacheName) {
+  /**
+   * Reports the hit ratio of each region, read from the JCache statistics
+   * MBeans; the hits, misses, puts and evictions are reported by Spring
+   * Boot's {@code cache.*} meters.
+   *
+   * @param cacheManager the cache manager, injected so that the regions are
+   *     created first.
+   */
+  @Bean
+  public MeterBinder cacheRegionMetrics(javax.cache.CacheManager cacheManager) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    return registry -> cacheNames.forEach(
+               (region, cacheName)
+                   -> Gauge
+                          .builder(HIT_RATIO_METER_NAME, server,
+                                   s -> hitRatio(s, cacheName))
+                          .description("The ratio of the reads of the "
+                                       + "region found in the cache")
+                          .tag("cache", cacheName)
+                          .tag("region", region)
+                          .register(registry));
+  }
+
+  private void createCache(javax.cache.CacheManager cm, String region,
+                           String cacheName) {
     javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
     if (cache != null) {
       cache.clear();
     } else {
-      cm.createCache(cacheName, jcacheConfiguration);
+      cm.createCache(cacheName, configuration(regions.get(region)));
+    }
+    cm.enableStatistics(cacheName, true);
+    cacheNames.put(region, cacheName);
+  }
+
+  private javax.cache.configuration.Configuration<Object, Object>
+  configuration(ApplicationProperties.Cache.Region region) {
+    Duration timeToLive =
+        region != null && region.getTimeToLive() != null
+            ? region.getTimeToLive()
+            : Duration.ofSeconds(ehcache.getTimeToLiveSeconds());
+    ResourcePools resourcePools = resourcePools(region);
+    // entries moved off-heap are serialized: Hibernate cache entries and
+    // the cached entities all are
+    Class<?> type = region != null && region.getOffHeapSize() != null
+                        ? Serializable.class
+                        : Object.class;
+    @SuppressWarnings("unchecked")
+    Class<Object> entryType = (Class<Object>)type;
+    return Eh107Configuration.fromEhcacheCacheConfiguration(
+        CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(entryType, entryType, resourcePools)
+            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
+            .build());
+  }
+
+  private ResourcePools
+  resourcePools(ApplicationProperties.Cache.Region region) {
+    ResourcePoolsBuilder builder =
+        ResourcePoolsBuilder.newResourcePoolsBuilder();
+    if (region == null) {
+      return builder.heap(ehcache.getMaxEntries(), EntryUnit.ENTRIES).build();
+    }
+    builder = builder.heap(region.getMaxEntries() != null
+                               ? region.getMaxEntries()
+                               : ehcache.getMaxEntries(),
+                           EntryUnit.ENTRIES);
+    if (region.getOffHeapSize() != null) {
+      builder = builder.offheap(region.getOffHeapSize(), MemoryUnit.B);
+    }
+    return builder.build();
+  }
+
+  private static double hitRatio(MBeanServer server, String cacheName) {
+    try {
+      Set<ObjectName> names = server.queryNames(
+          new ObjectName("javax.cache:type=CacheStatistics,Cache=" +
+                         cacheName + ",*"),
+          null);
+      if (names.isEmpty()) {
+        return Double.NaN;
+      }
+      Number percentage = (Number)server.getAttribute(
+          names.iterator().next(), "CacheHitPercentage");
+      return percentage.doubleValue() / 100;
+    } catch (JMException e) {
+      return Double.NaN;
     }
   }
 
@@ -1,7 +1,12 @@
 package com.fileuploader.app.config;
 
 import com.fileuploader.app.security.*;
+import com.fileuploader.app.service.TransferAdmissionService;
+import com.fileuploader.app.web.filter.MultipartAdmissionFilter;
+import com.fileuploader.app.web.filter.RateLimitFilter;
+import com.fileuploader.app.web.filter.RateLimiter;
 import com.fileuploader.app.web.filter.SpaWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,6 +18,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
 import org.springframework.security.oauth2.server.resource.web.access.BearerTokenAccessDeniedHandler;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
@@ -25,8 +31,26 @@ public class SecurityConfiguration {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public SecurityConfiguration(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    private final RateLimiter rateLimiter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final TransferAdmissionService transferAdmissionService;
+
+    public SecurityConfiguration(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        RateLimiter rateLimiter,
+        MeterRegistry meterRegistry,
+        TransferAdmissionService transferAdmissionService
+    ) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.transferAdmissionService = transferAdmissionService;
     }
 
     @Bean
@@ -39,6 +63,10 @@ public class SecurityConfiguration {
         http
             .csrf(csrf -> csrf.disable())
             .addFilterAfter(new SpaWebFilter(), BasicAuthenticationFilter.class)
+            // after the bearer token is authenticated, so that requests are counted against its subject
+            .addFilterAfter(new RateLimitFilter(applicationProperties, rateLimiter, meterRegistry), BearerTokenAuthenticationFilter.class)
+            // after the rate limits, and before the dispatcher servlet spools the parts of multipart uploads to disk
+            .addFilterAfter(new MultipartAdmissionFilter(transferAdmissionService), BearerTokenAuthenticationFilter.class)
             .headers(headers ->
                 headers
                     .contentSecurityPolicy(csp -> csp.policyDirectives(jHipsterProperties.getSecurity().getContentSecurityPolicy()))
@@ -0,0 +1,123 @@
+package com.fileuploader.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.undertow.UndertowDeploymentInfoCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs each request and {@code @Async} task on a virtual thread of its own,
+ * when {@code application.threads.virtual} is set.
+ * <p>
+ * Blocking on a blob read or write then no longer holds one of the few
+ * Undertow workers, so a burst of uploads cannot exhaust them. No thread pool
+ * then bounds the requests in flight either: those needing the database
+ * queue for a Hikari connection, and fail once its connection timeout
+ * elapses.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} block, as the
+ * MySQL driver does, pins its carrier thread. These pinnings are recorded by
+ * JFR and timed in the {@value #PINNED_METER_NAME} timer.
+ * <p>
+ * Virtual threads need Java 21 or later: the application, built for Java 17,
+ * fails to start in this mode on an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.threads", name = "virtual",
+                       havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+  public static final String EXECUTOR_BEAN_NAME = "virtualThreadExecutor";
+
+  public static final String PINNED_METER_NAME = "jvm.threads.virtual.pinned";
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private final Logger log =
+      LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+  @Bean(name = EXECUTOR_BEAN_NAME, destroyMethod = "shutdown")
+  public ExecutorService virtualThreadExecutor() {
+    log.debug("Creating virtual thread executor");
+    try {
+      // looked up at runtime, as the application is built for Java 17
+      return (ExecutorService)MethodHandles.publicLookup()
+          .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                      MethodType.methodType(ExecutorService.class))
+          .invoke();
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(
+          "application.threads.virtual needs Java 21 or later, running on " +
+              Runtime.version(),
+          e);
+    } catch (Throwable e) {
+      throw new IllegalStateException(
+          "Could not create the virtual thread executor", e);
+    }
+  }
+
+  @Bean
+  public UndertowDeploymentInfoCustomizer
+  virtualThreadDeploymentCustomizer(@Qualifier(EXECUTOR_BEAN_NAME)
+                                    ExecutorService virtualThreadExecutor) {
+    // blocking servlet handling is dispatched there instead of the workers
+    return deploymentInfo -> deploymentInfo.setExecutor(virtualThreadExecutor);
+  }
+
+  @Bean(destroyMethod = "close")
+  public PinnedThreadMetrics
+  pinnedThreadMetrics(ApplicationProperties applicationProperties) {
+    return new PinnedThreadMetrics(
+        applicationProperties.getThreads().getPinnedThreshold());
+  }
+
+  /**
+   * Times the pinnings of virtual threads to their carrier thread, from the
+   * {@value #PINNED_EVENT} JFR events.
+   * <p>
+   * The events are streamed by a single recording, started once; each
+   * registry the metrics are bound to gets a timer of its own.
+   */
+  public static class PinnedThreadMetrics implements MeterBinder {
+
+    private final List<Timer> timers = new CopyOnWriteArrayList<>();
+
+    private final RecordingStream recording;
+
+    PinnedThreadMetrics(Duration threshold) {
+      recording = new RecordingStream();
+      recording.enable(PINNED_EVENT).withThreshold(threshold);
+      recording.onEvent(PINNED_EVENT, event -> {
+        for (Timer pinned : timers) {
+          pinned.record(event.getDuration());
+        }
+      });
+      recording.startAsync();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+      timers.add(
+          Timer.builder(PINNED_METER_NAME)
+              .description(
+                  "Time virtual threads blocked while pinned to their carrier")
+              .register(registry));
+    }
+
+    public void close() { recording.close(); }
+  }
+}
@@ -1,6 +1,7 @@
 package com.fileuploader.app.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
@@ -21,10 +22,18 @@ public class Car implements Serializable {
   private static final long serialVersionUID = 1L;
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE,
+                  generator = "sequenceGenerator")
+  @SequenceGenerator(name = "sequenceGenerator",
+                     sequenceName = "sequence_generator", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(name = "version", nullable = false)
+  private Integer version;
+
   @NotNull @Column(name = "model", nullable = false) private String model;
 
   @OneToMany(fetch = FetchType.LAZY, mappedBy = "car")
@@ -43,6 +52,10 @@ public class Car implements Serializable {
 
   public void setId(Long id) { this.id = id; }
 
+  public Integer getVersion() { return this.version; }
+
+  public void setVersion(Integer version) { this.version = version; }
+
   public String getModel() { return this.model; }
 
   public Car model(String model) {
@@ -1,6 +1,7 @@
 package com.fileuploader.app.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
@@ -19,16 +20,41 @@ public class Content implements Serializable {
   private static final long serialVersionUID = 1L;
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE,
+                  generator = "sequenceGenerator")
+  @SequenceGenerator(name = "sequenceGenerator",
+                     sequenceName = "sequence_generator", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
-  @Lob @Column(name = "data", nullable = false) private byte[] data;
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(name = "version", nullable = false)
+  private Integer version;
+
+  /**
+   * The bytes of the content, only carried in API payloads: they are kept in
+   * the blob store under {@link #storageKey}, never in the entity row.
+   */
+  private transient byte[] data;
 
   @NotNull
   @Column(name = "data_content_type", nullable = false)
   private String dataContentType;
 
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(name = "storage_key")
+  private String storageKey;
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(name = "data_size")
+  private Long dataSize;
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Size(max = 64)
+  @Column(name = "sha_256", length = 64)
+  private String sha256;
+
   @JsonIgnoreProperties(value = {"content", "car"}, allowSetters = true)
   @OneToOne(fetch = FetchType.LAZY, mappedBy = "content")
   private Document document;
@@ -44,6 +70,10 @@ public class Content implements Serializable {
 
   public void setId(Long id) { this.id = id; }
 
+  public Integer getVersion() { return this.version; }
+
+  public void setVersion(Integer version) { this.version = version; }
+
   public byte[] getData() { return this.data; }
 
   public Content data(byte[] data) {
@@ -64,6 +94,33 @@ public class Content implements Serializable {
     this.dataContentType = dataContentType;
   }
 
+  public String getStorageKey() { return this.storageKey; }
+
+  public Content storageKey(String storageKey) {
+    this.setStorageKey(storageKey);
+    return this;
+  }
+
+  public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+  public Long getDataSize() { return this.dataSize; }
+
+  public Content dataSize(Long dataSize) {
+    this.setDataSize(dataSize);
+    return this;
+  }
+
+  public void setDataSize(Long dataSize) { this.dataSize = dataSize; }
+
+  public String getSha256() { return this.sha256; }
+
+  public Content sha256(String sha256) {
+    this.setSha256(sha256);
+    return this;
+  }
+
+  public void setSha256(String sha256) { this.sha256 = sha256; }
+
   public Document getDocument() { return this.document; }
 
   public void setDocument(Document document) {
@@ -108,6 +165,9 @@ public class Content implements Serializable {
     return "Content{"
         + "id=" + getId() + ", data='" + getData() + "'"
         + ", dataContentType='" + getDataContentType() + "'"
+        + ", storageKey='" + getStorageKey() + "'"
+        + ", dataSize=" + getDataSize()
+        + ", sha256='" + getSha256() + "'"
         + "}";
   }
 }
@@ -1,6 +1,7 @@
 package com.fileuploader.app.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
@@ -19,10 +20,18 @@ public class Document implements Serializable {
   private static final long serialVersionUID = 1L;
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE,
+                  generator = "sequenceGenerator")
+  @SequenceGenerator(name = "sequenceGenerator",
+                     sequenceName = "sequence_generator", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  @Column(name = "version", nullable = false)
+  private Integer version;
+
   @NotNull @Column(name = "title", nullable = false) private String title;
 
   @NotNull @Column(name = "size", nullable = false) private Long size;
@@ -50,6 +59,10 @@ public class Document implements Serializable {
 
   public void setId(Long id) { this.id = id; }
 
+  public Integer getVersion() { return this.version; }
+
+  public void setVersion(Integer version) { this.version = version; }
+
   public String getTitle() { return this.title; }
 
   public Document title(String title) {
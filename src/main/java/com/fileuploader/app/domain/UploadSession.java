@@ -0,0 +1,182 @@
+package com.fileuploader.app.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A resumable upload of a document, whose chunks are staged until the upload
+ * is completed or expires.
+ */
+@Entity
+@Table(name = "upload_session")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class UploadSession implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  @Id
+  @Size(max = 36)
+  @Column(name = "id", length = 36)
+  private String id;
+
+  @ManyToOne(optional = false) @NotNull private Car car;
+
+  @NotNull @Column(name = "title", nullable = false) private String title;
+
+  @Column(name = "mime_type") private String mimeType;
+
+  @NotNull
+  @Min(value = 0L)
+  @Column(name = "size", nullable = false)
+  private Long size;
+
+  @NotNull
+  @Min(value = 1)
+  @Column(name = "chunk_size", nullable = false)
+  private Integer chunkSize;
+
+  @NotNull
+  @Column(name = "created_date", nullable = false)
+  private Instant createdDate;
+
+  @NotNull
+  @Column(name = "expires_date", nullable = false)
+  private Instant expiresDate;
+
+  public String getId() { return this.id; }
+
+  public UploadSession id(String id) {
+    this.setId(id);
+    return this;
+  }
+
+  public void setId(String id) { this.id = id; }
+
+  public Car getCar() { return this.car; }
+
+  public UploadSession car(Car car) {
+    this.setCar(car);
+    return this;
+  }
+
+  public void setCar(Car car) { this.car = car; }
+
+  public String getTitle() { return this.title; }
+
+  public UploadSession title(String title) {
+    this.setTitle(title);
+    return this;
+  }
+
+  public void setTitle(String title) { this.title = title; }
+
+  public String getMimeType() { return this.mimeType; }
+
+  public UploadSession mimeType(String mimeType) {
+    this.setMimeType(mimeType);
+    return this;
+  }
+
+  public void setMimeType(String mimeType) { this.mimeType = mimeType; }
+
+  public Long getSize() { return this.size; }
+
+  public UploadSession size(Long size) {
+    this.setSize(size);
+    return this;
+  }
+
+  public void setSize(Long size) { this.size = size; }
+
+  public Integer getChunkSize() { return this.chunkSize; }
+
+  public UploadSession chunkSize(Integer chunkSize) {
+    this.setChunkSize(chunkSize);
+    return this;
+  }
+
+  public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+
+  public Instant getCreatedDate() { return this.createdDate; }
+
+  public UploadSession createdDate(Instant createdDate) {
+    this.setCreatedDate(createdDate);
+    return this;
+  }
+
+  public void setCreatedDate(Instant createdDate) {
+    this.createdDate = createdDate;
+  }
+
+  public Instant getExpiresDate() { return this.expiresDate; }
+
+  public UploadSession expiresDate(Instant expiresDate) {
+    this.setExpiresDate(expiresDate);
+    return this;
+  }
+
+  public void setExpiresDate(Instant expiresDate) {
+    this.expiresDate = expiresDate;
+  }
+
+  /**
+   * @return the number of chunks the upload is split into.
+   * @throws ArithmeticException if it does not fit an {@code int}, which the
+   *     sizes accepted on creation rule out.
+   */
+  public int getChunkCount() {
+    return Math.toIntExact(chunkCount(size, chunkSize));
+  }
+
+  /**
+   * @param size the size in bytes of an upload.
+   * @param chunkSize the size in bytes of its chunks.
+   * @return the number of chunks the upload is split into.
+   */
+  public static long chunkCount(long size, int chunkSize) {
+    // rounds up without overflowing near Long.MAX_VALUE
+    return size / chunkSize + (size % chunkSize == 0 ? 0 : 1);
+  }
+
+  /**
+   * @param index the zero-based index of a chunk.
+   * @return the number of bytes of the chunk, only the last chunk being
+   *     possibly shorter than the chunk size.
+   */
+  public long getChunkLength(int index) {
+    return Math.min(chunkSize, size - (long)index * chunkSize);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof UploadSession)) {
+      return false;
+    }
+    return id != null && id.equals(((UploadSession)o).id);
+  }
+
+  @Override
+  public int hashCode() {
+    // see
+    // https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+    return getClass().hashCode();
+  }
+
+  // prettier-ignore
+  @Override
+  public String toString() {
+    return "UploadSession{"
+        + "id='" + getId() + "'"
+        + ", title='" + getTitle() + "'"
+        + ", mimeType='" + getMimeType() + "'"
+        + ", size=" + getSize() + ", chunkSize=" + getChunkSize()
+        + ", createdDate='" + getCreatedDate() + "'"
+        + ", expiresDate='" + getExpiresDate() + "'"
+        + "}";
+  }
+}
@@ -1,6 +1,8 @@
 package com.fileuploader.app.repository;
 
 import com.fileuploader.app.domain.Car;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,10 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {}
+public interface CarRepository extends JpaRepository<Car, Long> {
+  Slice<Car> findAllBy(Pageable pageable);
+
+  Slice<Car> findAllByIdGreaterThan(Long id, Pageable pageable);
+
+  Slice<Car> findAllByIdLessThan(Long id, Pageable pageable);
+}
@@ -0,0 +1,180 @@
+package com.fileuploader.app.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository counting the {@link com.fileuploader.app.domain.Content} rows
+ * that share each blob of the blob store, in the {@code content_blob} table.
+ * <p>
+ * Counters are updated in place with single statements, so concurrent
+ * uploads of the same bytes never lose an increment.
+ */
+@Repository
+public class ContentBlobRepository {
+
+  private static final String RELEASE =
+      // unreferenced_date comes first as MySQL assigns from left to right
+      "update content_blob set unreferenced_date = case when ref_count = 1 "
+      + "then ? else null end, ref_count = ref_count - 1 "
+      + "where storage_key = ? and ref_count > 0";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ContentBlobRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Adds a reference to a blob, registering the blob on its first reference.
+   *
+   * @param storageKey the key of the blob.
+   * @param dataSize the size of the blob in bytes.
+   * @return the number of references to the blob, including this one.
+   */
+  public int reference(String storageKey, long dataSize) {
+    if (increment(storageKey) == 0) {
+      try {
+        jdbcTemplate.update(
+            "insert into content_blob "
+                + "(storage_key, data_size, ref_count, created_date) "
+                + "values (?, ?, 1, ?)",
+            storageKey, dataSize, Timestamp.from(Instant.now()));
+        return 1;
+      } catch (DuplicateKeyException e) {
+        // registered concurrently by an upload of the same bytes
+        increment(storageKey);
+      }
+    }
+    return findRefCount(storageKey);
+  }
+
+  /**
+   * Removes a reference to a blob. A blob losing its last reference is left
+   * for the garbage collection to delete.
+   *
+   * @param storageKey the key of the blob.
+   */
+  public void release(String storageKey) {
+    jdbcTemplate.update(RELEASE, Timestamp.from(Instant.now()), storageKey);
+  }
+
+  /**
+   * Removes a reference to each of the given blobs in a JDBC batch, a key
+   * listed twice losing two references.
+   *
+   * @param storageKeys the keys of the blobs.
+   */
+  public void releaseAll(List<String> storageKeys) {
+    Timestamp now = Timestamp.from(Instant.now());
+    jdbcTemplate.batchUpdate(
+        RELEASE,
+        storageKeys.stream().map(key -> new Object[] {now, key}).toList());
+  }
+
+  /**
+   * @param storageKey the key of the blob.
+   * @return the number of references to the blob, {@code 0} if it is not
+   *     registered.
+   */
+  public int findRefCount(String storageKey) {
+    List<Integer> counts = jdbcTemplate.queryForList(
+        "select ref_count from content_blob where storage_key = ?",
+        Integer.class, storageKey);
+    return counts.isEmpty() ? 0 : counts.get(0);
+  }
+
+  /**
+   * @param storageKeys the keys of the blobs.
+   * @return the keys among {@code storageKeys} of the registered blobs,
+   *     referenced or not.
+   */
+  public Set<String> findExistingKeys(Collection<String> storageKeys) {
+    if (storageKeys.isEmpty()) {
+      return Set.of();
+    }
+    String placeholders =
+        String.join(", ", Collections.nCopies(storageKeys.size(), "?"));
+    return new HashSet<>(jdbcTemplate.queryForList(
+        "select storage_key from content_blob where storage_key in ("
+            + placeholders + ")",
+        String.class, storageKeys.toArray()));
+  }
+
+  /**
+   * @param before the instant the blobs must have lost their last reference
+   *     before.
+   * @param limit the maximum number of keys to return.
+   * @return the keys of the blobs without references since before
+   *     {@code before}.
+   */
+  public List<String> findUnreferencedKeys(Instant before, int limit) {
+    return jdbcTemplate.queryForList(
+        "select storage_key from content_blob where ref_count = 0 "
+            + "and unreferenced_date < ? order by unreferenced_date limit ?",
+        String.class, Timestamp.from(before), limit);
+  }
+
+  /**
+   * Locks the row of a blob until the end of the current transaction,
+   * provided it still has no references.
+   *
+   * @param storageKey the key of the blob.
+   * @return whether the blob is registered and unreferenced.
+   */
+  public boolean lockUnreferenced(String storageKey) {
+    return !jdbcTemplate
+                .queryForList("select storage_key from content_blob "
+                                  + "where storage_key = ? and ref_count = 0 "
+                                  + "for update",
+                              String.class, storageKey)
+                .isEmpty();
+  }
+
+  /**
+   * Registers an unreferenced placeholder for a blob, which locks it until
+   * the end of the current transaction: a concurrent reference waits for the
+   * transaction to end.
+   *
+   * @param storageKey the key of the blob.
+   * @return whether the placeholder was registered, {@code false} if the blob
+   *     is already registered.
+   */
+  public boolean lockUnregistered(String storageKey) {
+    Timestamp now = Timestamp.from(Instant.now());
+    try {
+      jdbcTemplate.update(
+          "insert into content_blob (storage_key, data_size, ref_count, "
+              + "created_date, unreferenced_date) values (?, 0, 0, ?, ?)",
+          storageKey, now, now);
+      return true;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Unregisters a blob.
+   *
+   * @param storageKey the key of the blob.
+   */
+  public void delete(String storageKey) {
+    jdbcTemplate.update("delete from content_blob where storage_key = ?",
+                        storageKey);
+  }
+
+  private int increment(String storageKey) {
+    return jdbcTemplate.update(
+        "update content_blob set ref_count = ref_count + 1, "
+            + "unreferenced_date = null where storage_key = ?",
+        storageKey);
+  }
+}
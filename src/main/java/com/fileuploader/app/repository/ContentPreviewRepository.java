@@ -0,0 +1,139 @@
+package com.fileuploader.app.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for the thumbnails of the blobs of the blob store, in the
+ * {@code content_preview} table.
+ * <p>
+ * A preview is keyed by the blob it was rendered from, so the contents
+ * sharing a blob share its preview, and it is deleted along with the blob.
+ * Previews are rendered in the background, outside of any transaction, so
+ * saving one commits on its own.
+ */
+@Repository
+public class ContentPreviewRepository {
+
+  /**
+   * The outcome of the rendering of a preview.
+   */
+  public enum Status {
+    /** The preview was rendered. */
+    READY,
+    /** The blob could not be rendered, and is not tried again. */
+    FAILED
+  }
+
+  /**
+   * The preview of the content of a document.
+   *
+   * @param storageKey the key of the blob of the content, {@code null} if
+   *     its bytes are still held in the database.
+   * @param sourceType the MIME type of the content.
+   * @param sourceSize the size in bytes of the content.
+   * @param status the status of the preview, {@code null} if it was never
+   *     rendered.
+   * @param contentType the MIME type of the preview.
+   * @param data the bytes of the preview.
+   * @param createdDate when the preview was rendered.
+   */
+  public record DocumentPreview(String storageKey, String sourceType,
+                                long sourceSize, Status status,
+                                String contentType, byte[] data,
+                                Instant createdDate) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ContentPreviewRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * @param storageKey the key of the blob.
+   * @return whether the blob was rendered, successfully or not.
+   */
+  public boolean exists(String storageKey) {
+    return !jdbcTemplate
+                .queryForList(
+                    "select 1 from content_preview where storage_key = ?",
+                    Integer.class, storageKey)
+                .isEmpty();
+  }
+
+  /**
+   * Saves the preview of a blob.
+   *
+   * @param storageKey the key of the blob.
+   * @param contentType the MIME type of the preview.
+   * @param data the bytes of the preview.
+   * @return whether the preview was saved, {@code false} if the blob already
+   *     has one or was collected in the meantime.
+   */
+  @Transactional
+  public boolean saveReady(String storageKey, String contentType,
+                           byte[] data) {
+    return insert(storageKey, Status.READY, contentType, data);
+  }
+
+  /**
+   * Records that a blob cannot be rendered.
+   *
+   * @param storageKey the key of the blob.
+   * @return whether the failure was saved, {@code false} if the blob already
+   *     has a preview or was collected in the meantime.
+   */
+  @Transactional
+  public boolean saveFailed(String storageKey) {
+    return insert(storageKey, Status.FAILED, null, null);
+  }
+
+  /**
+   * @param documentId the id of the document.
+   * @return the preview of the content of the document, or empty if the
+   *     document does not exist or has no content.
+   */
+  public Optional<DocumentPreview> findByDocumentId(Long documentId) {
+    return jdbcTemplate.query(
+        "select c.storage_key, coalesce(c.data_content_type, d.mime_type), "
+            + "coalesce(c.data_size, 0), p.status, p.content_type, p.data, "
+            + "p.created_date "
+            + "from document d join content c on c.id = d.content_id "
+            + "left join content_preview p on p.storage_key = c.storage_key "
+            + "where d.id = ?",
+        rs -> {
+          if (!rs.next()) {
+            return Optional.empty();
+          }
+          String status = rs.getString(4);
+          Timestamp createdDate = rs.getTimestamp(7);
+          return Optional.of(new DocumentPreview(
+              rs.getString(1), rs.getString(2), rs.getLong(3),
+              status == null ? null : Status.valueOf(status), rs.getString(5),
+              rs.getBytes(6),
+              createdDate == null ? null : createdDate.toInstant()));
+        },
+        documentId);
+  }
+
+  private boolean insert(String storageKey, Status status, String contentType,
+                         byte[] data) {
+    try {
+      jdbcTemplate.update(
+          "insert into content_preview "
+              + "(storage_key, status, content_type, data, created_date) "
+              + "values (?, ?, ?, ?, ?)",
+          storageKey, status.name(), contentType, data,
+          Timestamp.from(Instant.now()));
+      return true;
+    } catch (DataIntegrityViolationException e) {
+      // rendered concurrently, or the blob is gone
+      return false;
+    }
+  }
+}
@@ -1,7 +1,11 @@
 package com.fileuploader.app.repository;
 
 import com.fileuploader.app.domain.Content;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,57 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ContentRepository extends JpaRepository<Content, Long> {}
+public interface ContentRepository extends JpaRepository<Content, Long> {
+  @Query(value = "select content from Content content "
+                 + "left join fetch content.document",
+         countQuery = "select count(content) from Content content")
+  Page<Content>
+  findAllWithDocument(Pageable pageable);
+
+  // anti-join served by the ux_document__content_id index; the document is
+  // fetched so the inverse one-to-one is not loaded once per content
+  @Query(value = "select content from Content content "
+                 + "left join fetch content.document document "
+                 + "where document.id is null",
+         countQuery = "select count(content) from Content content "
+                      + "left join content.document document "
+                      + "where document.id is null")
+  Page<Content>
+  findAllWhereDocumentIsNull(Pageable pageable);
+
+  @Query("select content from Content content "
+         + "left join fetch content.document")
+  Slice<Content>
+  findSliceWithDocument(Pageable pageable);
+
+  @Query("select content from Content content "
+         + "left join fetch content.document where content.id > :id")
+  Slice<Content>
+  findSliceWithDocumentByIdGreaterThan(@Param("id") Long id,
+                                       Pageable pageable);
+
+  @Query("select content from Content content "
+         + "left join fetch content.document where content.id < :id")
+  Slice<Content>
+  findSliceWithDocumentByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+  @Query("select content from Content content "
+         + "left join fetch content.document document "
+         + "where document.id is null")
+  Slice<Content>
+  findSliceWhereDocumentIsNull(Pageable pageable);
+
+  @Query("select content from Content content "
+         + "left join fetch content.document document "
+         + "where document.id is null and content.id > :id")
+  Slice<Content>
+  findSliceWhereDocumentIsNullByIdGreaterThan(@Param("id") Long id,
+                                              Pageable pageable);
+
+  @Query("select content from Content content "
+         + "left join fetch content.document document "
+         + "where document.id is null and content.id < :id")
+  Slice<Content>
+  findSliceWhereDocumentIsNullByIdLessThan(@Param("id") Long id,
+                                           Pageable pageable);
+}
@@ -1,7 +1,12 @@
 package com.fileuploader.app.repository;
 
 import com.fileuploader.app.domain.Document;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +14,17 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface DocumentRepository extends JpaRepository<Document, Long> {}
+public interface DocumentRepository extends JpaRepository<Document, Long> {
+  Slice<Document> findAllBy(Pageable pageable);
+
+  Slice<Document> findAllByIdGreaterThan(Long id, Pageable pageable);
+
+  Slice<Document> findAllByIdLessThan(Long id, Pageable pageable);
+
+  boolean existsByContentId(Long contentId);
+
+  @Query("select distinct document.car.id from Document document "
+         + "where document.car.id in :carIds")
+  List<Long>
+  findCarIdsWithDocuments(@Param("carIds") Collection<Long> carIds);
+}
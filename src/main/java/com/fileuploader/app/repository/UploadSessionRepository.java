@@ -0,0 +1,16 @@
+package com.fileuploader.app.repository;
+
+import com.fileuploader.app.domain.UploadSession;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link UploadSession} entity.
+ */
+@Repository
+public interface UploadSessionRepository
+    extends JpaRepository<UploadSession, String> {
+  List<UploadSession> findAllByExpiresDateBefore(Instant expiresDate);
+}
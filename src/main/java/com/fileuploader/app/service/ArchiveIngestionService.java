@@ -0,0 +1,160 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Content;
+import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.service.dto.ArchiveEntryResultDTO;
+import com.fileuploader.app.service.storage.ArchiveReader;
+import com.fileuploader.app.service.storage.BlobStore;
+import com.fileuploader.app.service.storage.StoredBlob;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class creating one {@link Document} of a {@link Car} per file of an
+ * uploaded archive.
+ * <p>
+ * The entries are streamed to the {@link BlobStore} one at a time as the
+ * archive is read, without extracting it to disk. Their documents are then
+ * inserted in JDBC batches, each batch in its own transaction, so that no
+ * transaction nor connection is held while the client sends the archive.
+ */
+@Service
+public class ArchiveIngestionService {
+
+  private static final int MAX_TITLE_LENGTH = 255;
+
+  private final Logger log =
+      LoggerFactory.getLogger(ArchiveIngestionService.class);
+
+  private final ContentStorageService contentStorageService;
+
+  private final BlobStore blobStore;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final ApplicationProperties applicationProperties;
+
+  private final int batchSize;
+
+  public ArchiveIngestionService(
+      ContentStorageService contentStorageService, BlobStore blobStore,
+      EntityManagerFactory entityManagerFactory,
+      ApplicationProperties applicationProperties,
+      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}")
+      int batchSize) {
+    this.contentStorageService = contentStorageService;
+    this.blobStore = blobStore;
+    this.entityManagerFactory = entityManagerFactory;
+    this.applicationProperties = applicationProperties;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Creates a document of {@code car} per regular file of {@code archive},
+   * titled after the path of the file.
+   * <p>
+   * A batch failing to be stored is reported as failed and the next entries
+   * are still processed. An archive failing to be read stops the ingestion,
+   * the documents of the entries read so far being kept.
+   *
+   * @param car the car the new documents belong to.
+   * @param archive the archive to read.
+   * @return the result of each entry, in the order of the archive.
+   */
+  public List<ArchiveEntryResultDTO> ingest(Car car, ArchiveReader archive) {
+    List<ArchiveEntryResultDTO> results = new ArrayList<>();
+    List<Document> batch = new ArrayList<>(batchSize);
+    String name = null;
+    try {
+      for (ArchiveReader.Entry entry = archive.nextEntry(); entry != null;
+           entry = archive.nextEntry()) {
+        name = entry.name();
+        if (!entry.file()) {
+          results.add(ArchiveEntryResultDTO.skipped(name));
+          continue;
+        }
+        String mimeType = MediaTypeFactory.getMediaType(name)
+                              .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                              .toString();
+        StoredBlob blob = blobStore.put(
+            new BufferedInputStream(
+                archive.entryStream(),
+                applicationProperties.getStorage().getChunkSize()),
+            mimeType);
+        batch.add(newDocument(car, name, mimeType, blob));
+        name = null;
+        if (batch.size() == batchSize) {
+          flush(batch, results);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not read the archive for Car {}: {}", car.getId(),
+               e.getMessage());
+      flush(batch, results);
+      results.add(ArchiveEntryResultDTO.failed(
+          name, "Could not read the archive: " + e.getMessage()));
+      return results;
+    } finally {
+      // inserting the documents leaves the cached inverse collection stale
+      entityManagerFactory.unwrap(SessionFactory.class)
+          .getCache()
+          .evictCollectionData(Car.class.getName() + ".documents",
+                               car.getId());
+    }
+    flush(batch, results);
+    return results;
+  }
+
+  private void flush(List<Document> batch,
+                     List<ArchiveEntryResultDTO> results) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      contentStorageService.storeAll(batch);
+      for (Document document : batch) {
+        results.add(ArchiveEntryResultDTO.created(
+            document.getTitle(), document.getId(), document.getSize(),
+            document.getContent().getSha256()));
+      }
+    } catch (RuntimeException e) {
+      // the unreferenced blobs are left to the garbage collection
+      log.warn("Could not store a batch of {} Documents: {}", batch.size(),
+               e.getMessage());
+      for (Document document : batch) {
+        results.add(ArchiveEntryResultDTO.failed(document.getTitle(),
+                                                 e.getMessage()));
+      }
+    }
+    batch.clear();
+  }
+
+  private static Document newDocument(Car car, String name, String mimeType,
+                                      StoredBlob blob) {
+    Content content = new Content()
+                          .dataContentType(mimeType)
+                          .storageKey(blob.key())
+                          .dataSize(blob.size())
+                          .sha256(blob.sha256());
+    return new Document()
+        .title(name.length() > MAX_TITLE_LENGTH
+                   ? name.substring(name.length() - MAX_TITLE_LENGTH)
+                   : name)
+        .size(blob.size())
+        .mimeType(mimeType)
+        .content(content)
+        .car(car);
+  }
+}
@@ -0,0 +1,340 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Content;
+import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.repository.DocumentRepository;
+import com.fileuploader.app.service.dto.BatchItemResultDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class applying batches of changes to {@link Car}s and
+ * {@link Document}s in one transaction.
+ * <p>
+ * The items of a batch are validated together and the rows they refer to are
+ * loaded with one {@code IN} query per entity, so that the changes are
+ * flushed in JDBC batches. An item that cannot be applied is reported and
+ * left out without failing the others.
+ * <p>
+ * The content of a document is only ever linked by an upload: a batch item
+ * omitting it keeps the current one, and one naming another is invalid.
+ */
+@Service
+@Transactional
+public class BatchService {
+
+  /** The maximum number of items of a batch. */
+  public static final int MAX_BATCH_SIZE = 1000;
+
+  private static final String NEW_WITH_ID = "A new entity cannot have an ID";
+
+  private static final String DUPLICATE_ID = "Duplicate id in the batch";
+
+  private static final String CAR_NOT_FOUND = "Car not found";
+
+  private static final String CONTENT_NOT_BATCHED =
+      "The content of a document cannot be changed in a batch";
+
+  private final Logger log = LoggerFactory.getLogger(BatchService.class);
+
+  private final CarRepository carRepository;
+
+  private final DocumentRepository documentRepository;
+
+  private final ContentStorageService contentStorageService;
+
+  private final Validator validator;
+
+  public BatchService(CarRepository carRepository,
+                      DocumentRepository documentRepository,
+                      ContentStorageService contentStorageService,
+                      Validator validator) {
+    this.carRepository = carRepository;
+    this.documentRepository = documentRepository;
+    this.contentStorageService = contentStorageService;
+    this.validator = validator;
+  }
+
+  /**
+   * Creates cars.
+   *
+   * @param cars the cars to create, without ids.
+   * @return the result of each car, in the order of {@code cars}.
+   */
+  public List<BatchItemResultDTO> createCars(List<Car> cars) {
+    log.debug("Request to create {} Cars", cars.size());
+    List<BatchItemResultDTO> results = new ArrayList<>(cars.size());
+    List<Car> created = new ArrayList<>();
+    for (int i = 0; i < cars.size(); i++) {
+      Car car = cars.get(i);
+      String error = car.getId() != null ? NEW_WITH_ID : violations(car);
+      if (error != null) {
+        results.add(BatchItemResultDTO.invalid(i, car.getId(), error));
+      } else {
+        created.add(car);
+        results.add(null);
+      }
+    }
+    carRepository.saveAll(created);
+    carRepository.flush();
+    return withCreated(results, cars, Car::getId);
+  }
+
+  /**
+   * Updates existing cars.
+   *
+   * @param cars the cars to update.
+   * @param partial whether to only update the fields that are not
+   *     {@code null}.
+   * @return the result of each car, in the order of {@code cars}.
+   */
+  public List<BatchItemResultDTO> updateCars(List<Car> cars, boolean partial) {
+    log.debug("Request to update {} Cars", cars.size());
+    Map<Long, Car> existing =
+        byId(carRepository.findAllById(ids(cars, Car::getId)), Car::getId);
+    Set<Long> seen = new HashSet<>();
+    List<BatchItemResultDTO> results = new ArrayList<>(cars.size());
+    for (int i = 0; i < cars.size(); i++) {
+      Car car = cars.get(i);
+      BatchItemResultDTO rejected = reject(i, car.getId(), seen, existing);
+      String error = rejected == null && !partial ? violations(car) : null;
+      if (rejected != null) {
+        results.add(rejected);
+      } else if (error != null) {
+        results.add(BatchItemResultDTO.invalid(i, car.getId(), error));
+      } else {
+        CarService.copy(car, existing.get(car.getId()), partial);
+        results.add(BatchItemResultDTO.updated(i, car.getId()));
+      }
+    }
+    carRepository.flush();
+    return results;
+  }
+
+  /**
+   * Deletes cars. A car still having documents is left as is.
+   *
+   * @param ids the ids of the cars to delete.
+   * @return the result of each id, in the order of {@code ids}.
+   */
+  public List<BatchItemResultDTO> deleteCars(List<Long> ids) {
+    log.debug("Request to delete {} Cars", ids.size());
+    Map<Long, Car> existing =
+        byId(carRepository.findAllById(ids(ids, Function.identity())),
+             Car::getId);
+    Set<Long> withDocuments = new HashSet<>();
+    if (!existing.isEmpty()) {
+      withDocuments.addAll(
+          documentRepository.findCarIdsWithDocuments(existing.keySet()));
+    }
+    Set<Long> seen = new HashSet<>();
+    List<BatchItemResultDTO> results = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Long id = ids.get(i);
+      BatchItemResultDTO rejected = reject(i, id, seen, existing);
+      if (rejected != null) {
+        results.add(rejected);
+      } else if (withDocuments.contains(id)) {
+        results.add(
+            BatchItemResultDTO.conflict(i, id, "The car still has documents"));
+      } else {
+        carRepository.delete(existing.get(id));
+        results.add(BatchItemResultDTO.deleted(i, id));
+      }
+    }
+    carRepository.flush();
+    return results;
+  }
+
+  /**
+   * Creates documents without content.
+   *
+   * @param documents the documents to create, without ids.
+   * @return the result of each document, in the order of {@code documents}.
+   */
+  public List<BatchItemResultDTO> createDocuments(List<Document> documents) {
+    log.debug("Request to create {} Documents", documents.size());
+    Map<Long, Car> cars = findCars(documents);
+    List<BatchItemResultDTO> results = new ArrayList<>(documents.size());
+    List<Document> created = new ArrayList<>();
+    for (int i = 0; i < documents.size(); i++) {
+      Document document = documents.get(i);
+      String error = document.getId() != null
+                         ? NEW_WITH_ID
+                         : check(document, null, cars, false);
+      if (error != null) {
+        results.add(BatchItemResultDTO.invalid(i, document.getId(), error));
+      } else {
+        document.setCar(cars.get(document.getCar().getId()));
+        created.add(document);
+        results.add(null);
+      }
+    }
+    documentRepository.saveAll(created);
+    documentRepository.flush();
+    return withCreated(results, documents, Document::getId);
+  }
+
+  /**
+   * Updates the metadata and car of existing documents.
+   *
+   * @param documents the documents to update.
+   * @param partial whether to only update the fields that are not
+   *     {@code null}.
+   * @return the result of each document, in the order of {@code documents}.
+   */
+  public List<BatchItemResultDTO> updateDocuments(List<Document> documents,
+                                                  boolean partial) {
+    log.debug("Request to update {} Documents", documents.size());
+    Map<Long, Document> existing =
+        byId(documentRepository.findAllById(ids(documents, Document::getId)),
+             Document::getId);
+    Map<Long, Car> cars = findCars(documents);
+    Set<Long> seen = new HashSet<>();
+    List<BatchItemResultDTO> results = new ArrayList<>(documents.size());
+    for (int i = 0; i < documents.size(); i++) {
+      Document document = documents.get(i);
+      Long id = document.getId();
+      BatchItemResultDTO rejected = reject(i, id, seen, existing);
+      String error = rejected == null
+                         ? check(document, existing.get(id), cars, partial)
+                         : null;
+      if (rejected != null) {
+        results.add(rejected);
+      } else if (error != null) {
+        results.add(BatchItemResultDTO.invalid(i, id, error));
+      } else {
+        Document existingDocument = existing.get(id);
+        Car car = document.getCar() == null
+                      ? existingDocument.getCar()
+                      : cars.get(document.getCar().getId());
+        DocumentService.copy(document, existingDocument, car, partial);
+        results.add(BatchItemResultDTO.updated(i, id));
+      }
+    }
+    documentRepository.flush();
+    return results;
+  }
+
+  /**
+   * Deletes documents along with their contents.
+   *
+   * @param ids the ids of the documents to delete.
+   * @return the result of each id, in the order of {@code ids}.
+   */
+  public List<BatchItemResultDTO> deleteDocuments(List<Long> ids) {
+    log.debug("Request to delete {} Documents", ids.size());
+    Set<Long> deleted =
+        contentStorageService.deleteDocuments(ids(ids, Function.identity()));
+    Set<Long> seen = new HashSet<>();
+    List<BatchItemResultDTO> results = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Long id = ids.get(i);
+      if (id == null) {
+        results.add(BatchItemResultDTO.invalid(i, null, "Invalid id"));
+      } else if (!seen.add(id)) {
+        results.add(BatchItemResultDTO.invalid(i, id, DUPLICATE_ID));
+      } else if (deleted.contains(id)) {
+        results.add(BatchItemResultDTO.deleted(i, id));
+      } else {
+        results.add(BatchItemResultDTO.notFound(i, id));
+      }
+    }
+    return results;
+  }
+
+  private String check(Document document, Document existing,
+                       Map<Long, Car> cars, boolean partial) {
+    String error = partial ? null : violations(document);
+    if (error != null) {
+      return error;
+    }
+    if (document.getCar() != null &&
+        !cars.containsKey(document.getCar().getId())) {
+      return CAR_NOT_FOUND;
+    }
+    Content content = document.getContent();
+    Content existingContent = existing == null ? null : existing.getContent();
+    if (content != null &&
+        (existingContent == null ||
+         !Objects.equals(content.getId(), existingContent.getId()))) {
+      return CONTENT_NOT_BATCHED;
+    }
+    return null;
+  }
+
+  private Map<Long, Car> findCars(List<Document> documents) {
+    List<Long> carIds =
+        ids(documents,
+            document -> document.getCar() == null ? null
+                                                  : document.getCar().getId());
+    return byId(carRepository.findAllById(carIds), Car::getId);
+  }
+
+  private String violations(Object entity) {
+    Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .map(violation
+             -> violation.getPropertyPath() + " " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private static BatchItemResultDTO reject(int index, Long id, Set<Long> seen,
+                                           Map<Long, ?> existing) {
+    if (id == null) {
+      return BatchItemResultDTO.invalid(index, null, "Invalid id");
+    }
+    if (!seen.add(id)) {
+      return BatchItemResultDTO.invalid(index, id, DUPLICATE_ID);
+    }
+    if (!existing.containsKey(id)) {
+      return BatchItemResultDTO.notFound(index, id);
+    }
+    return null;
+  }
+
+  private static <T> List<BatchItemResultDTO>
+  withCreated(List<BatchItemResultDTO> results, List<T> entities,
+              Function<T, Long> idExtractor) {
+    for (int i = 0; i < results.size(); i++) {
+      if (results.get(i) == null) {
+        results.set(i, BatchItemResultDTO.created(
+                           i, idExtractor.apply(entities.get(i))));
+      }
+    }
+    return results;
+  }
+
+  private static <T> List<Long> ids(List<T> items,
+                                    Function<T, Long> idExtractor) {
+    return items.stream()
+        .map(idExtractor)
+        .filter(Objects::nonNull)
+        .distinct()
+        .toList();
+  }
+
+  private static <T> Map<Long, T> byId(List<T> entities,
+                                       Function<T, Long> idExtractor) {
+    return entities.stream().collect(
+        Collectors.toMap(idExtractor, Function.identity()));
+  }
+}
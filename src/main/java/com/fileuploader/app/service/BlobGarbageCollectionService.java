@@ -0,0 +1,130 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.repository.ContentBlobRepository;
+import com.fileuploader.app.service.storage.BlobStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class deleting the blobs that no content references anymore.
+ * <p>
+ * Blobs are only collected once they have had no references for the grace
+ * period, which leaves time to an upload of the same bytes to reference the
+ * blob again.
+ */
+@Service
+public class BlobGarbageCollectionService {
+
+  private final Logger log =
+      LoggerFactory.getLogger(BlobGarbageCollectionService.class);
+
+  private final ContentBlobRepository contentBlobRepository;
+
+  private final ContentStorageService contentStorageService;
+
+  private final BlobStore blobStore;
+
+  private final ApplicationProperties applicationProperties;
+
+  public BlobGarbageCollectionService(
+      ContentBlobRepository contentBlobRepository,
+      ContentStorageService contentStorageService, BlobStore blobStore,
+      ApplicationProperties applicationProperties) {
+    this.contentBlobRepository = contentBlobRepository;
+    this.contentStorageService = contentStorageService;
+    this.blobStore = blobStore;
+    this.applicationProperties = applicationProperties;
+  }
+
+  /**
+   * Deletes a batch of unreferenced blobs, then the blobs written but never
+   * referenced, one transaction per blob. The blobs deleted more than the
+   * grace period ago are then purged, and can no longer be restored by an
+   * upload that raced their deletion.
+   * <p>
+   * This is scheduled to run every hour by default.
+   */
+  @Scheduled(initialDelayString = "${application.storage.gc.delay:3600000}",
+             fixedDelayString = "${application.storage.gc.delay:3600000}")
+  public void collectUnreferencedBlobs() {
+    ApplicationProperties.Storage.Gc gc =
+        applicationProperties.getStorage().getGc();
+    if (!gc.isEnabled()) {
+      return;
+    }
+    Instant before = Instant.now().minus(gc.getGracePeriod());
+    int collected = 0;
+    List<String> keys =
+        contentBlobRepository.findUnreferencedKeys(before, gc.getBatchSize());
+    for (String key : keys) {
+      try {
+        if (contentStorageService.collectBlob(key)) {
+          collected++;
+        }
+      } catch (RuntimeException e) {
+        log.warn("Could not collect blob {}", key, e);
+      }
+    }
+
+    int orphans = 0;
+    try (Stream<String> stored = blobStore.keys(before)) {
+      List<String> batch = new ArrayList<>(gc.getBatchSize());
+      for (String key : (Iterable<String>)stored::iterator) {
+        batch.add(key);
+        if (batch.size() == gc.getBatchSize()) {
+          orphans += collectOrphanBlobs(batch, before);
+          batch.clear();
+        }
+      }
+      orphans += collectOrphanBlobs(batch, before);
+    } catch (IOException | UncheckedIOException e) {
+      log.warn("Could not collect orphan blobs", e);
+    }
+    if (collected > 0 || orphans > 0) {
+      log.info("Collected {} unreferenced and {} orphan blobs", collected,
+               orphans);
+    }
+
+    try {
+      int purged = blobStore.purge(before);
+      if (purged > 0) {
+        log.info("Purged {} blob files collected before {}", purged,
+                 before);
+      }
+    } catch (IOException e) {
+      log.warn("Could not purge collected blobs", e);
+    }
+  }
+
+  /**
+   * Deletes the blobs of a batch that are not registered, looking them up
+   * with a single query.
+   */
+  private int collectOrphanBlobs(List<String> keys, Instant before) {
+    Set<String> registered = contentBlobRepository.findExistingKeys(keys);
+    int orphans = 0;
+    for (String key : keys) {
+      if (registered.contains(key)) {
+        continue;
+      }
+      try {
+        if (contentStorageService.collectOrphanBlob(key, before)) {
+          orphans++;
+        }
+      } catch (RuntimeException e) {
+        log.warn("Could not collect orphan blob {}", key, e);
+      }
+    }
+    return orphans;
+  }
+}
@@ -0,0 +1,99 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.repository.CarRepository;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for updating {@link Car}s.
+ * <p>
+ * An update loads the car once and copies the new values onto the managed
+ * entity, instead of checking that it exists and then merging the payload,
+ * which costs a second select. Writes can be made conditional on the version
+ * of the car, as sent in an {@code If-Match} header.
+ */
+@Service
+@Transactional
+public class CarService {
+
+  private final Logger log = LoggerFactory.getLogger(CarService.class);
+
+  private final CarRepository carRepository;
+
+  public CarService(CarRepository carRepository) {
+    this.carRepository = carRepository;
+  }
+
+  /**
+   * Updates an existing car.
+   *
+   * @param car the new values of the car, with its id.
+   * @param expectedVersions the versions the car may be at, {@code null}
+   *     for any.
+   * @return the updated car, at its new version, or empty if it does not
+   *     exist.
+   * @throws PreconditionFailedException if the car is at another version.
+   */
+  public Optional<Car> update(Car car, Set<Integer> expectedVersions) {
+    log.debug("Request to update Car : {}", car);
+    return find(car.getId(), expectedVersions)
+        .map(existingCar -> flush(copy(car, existingCar, false)));
+  }
+
+  /**
+   * Updates the fields of an existing car that are not {@code null} in
+   * {@code car}.
+   *
+   * @param car the new values of the car, with its id.
+   * @param expectedVersions the versions the car may be at, {@code null}
+   *     for any.
+   * @return the updated car, at its new version, or empty if it does not
+   *     exist.
+   * @throws PreconditionFailedException if the car is at another version.
+   */
+  public Optional<Car> partialUpdate(Car car, Set<Integer> expectedVersions) {
+    log.debug("Request to partially update Car : {}", car);
+    return find(car.getId(), expectedVersions)
+        .map(existingCar -> flush(copy(car, existingCar, true)));
+  }
+
+  /**
+   * Deletes a car.
+   *
+   * @param id the id of the car to delete.
+   * @param expectedVersions the versions the car may be at, {@code null}
+   *     for any.
+   * @throws PreconditionFailedException if the car is at another version.
+   */
+  public void delete(Long id, Set<Integer> expectedVersions) {
+    log.debug("Request to delete Car : {}", id);
+    find(id, expectedVersions).ifPresent(carRepository::delete);
+  }
+
+  private Optional<Car> find(Long id, Set<Integer> expectedVersions) {
+    Optional<Car> car = carRepository.findById(id);
+    if (expectedVersions != null && car.isPresent() &&
+        !expectedVersions.contains(car.get().getVersion())) {
+      throw new PreconditionFailedException("car", id, car.get().getVersion());
+    }
+    return car;
+  }
+
+  private Car flush(Car car) {
+    // bump the version before it is sent as the ETag of the response
+    carRepository.flush();
+    return car;
+  }
+
+  static Car copy(Car source, Car target, boolean partial) {
+    if (!partial || source.getModel() != null) {
+      target.setModel(source.getModel());
+    }
+    return target;
+  }
+}
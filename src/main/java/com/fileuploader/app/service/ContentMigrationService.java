@@ -0,0 +1,68 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class moving the blobs still stored in the {@code content} table to
+ * the blob store, so that the table shrinks to metadata only.
+ */
+@Service
+public class ContentMigrationService {
+
+  private final Logger log =
+      LoggerFactory.getLogger(ContentMigrationService.class);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ContentStorageService contentStorageService;
+
+  private final ApplicationProperties applicationProperties;
+
+  public ContentMigrationService(JdbcTemplate jdbcTemplate,
+                                 ContentStorageService contentStorageService,
+                                 ApplicationProperties applicationProperties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.contentStorageService = contentStorageService;
+    this.applicationProperties = applicationProperties;
+  }
+
+  /**
+   * Migrates a batch of database blobs, one transaction per blob, so that a
+   * failing row neither blocks nor rolls back the others.
+   * <p>
+   * This is scheduled to run every minute by default.
+   */
+  @Scheduled(initialDelayString = "${application.storage.migration.delay:60000}",
+             fixedDelayString = "${application.storage.migration.delay:60000}")
+  public void migrateDatabaseBlobs() {
+    ApplicationProperties.Storage.Migration migration =
+        applicationProperties.getStorage().getMigration();
+    if (!migration.isEnabled()) {
+      return;
+    }
+    List<Long> ids = jdbcTemplate.queryForList(
+        "select id from content where storage_key is null and data is not null "
+            + "order by id limit ?",
+        Long.class, migration.getBatchSize());
+    int migrated = 0;
+    for (Long id : ids) {
+      try {
+        if (contentStorageService.migrateToBlobStore(id)) {
+          migrated++;
+        }
+      } catch (RuntimeException e) {
+        log.warn("Could not migrate Content {} to the blob store", id, e);
+      }
+    }
+    if (migrated > 0) {
+      log.info("Migrated {} contents from the database to the blob store",
+               migrated);
+    }
+  }
+}
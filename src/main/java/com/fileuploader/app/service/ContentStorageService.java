@@ -0,0 +1,719 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Content;
+import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.repository.ContentBlobRepository;
+import com.fileuploader.app.repository.ContentRepository;
+import com.fileuploader.app.repository.DocumentRepository;
+import com.fileuploader.app.service.dto.ContentMetadataDTO;
+import com.fileuploader.app.service.dto.StoredContentDTO;
+import com.fileuploader.app.service.storage.BlobCache;
+import com.fileuploader.app.service.storage.BlobStore;
+import com.fileuploader.app.service.storage.DatabaseBlobInputStream;
+import com.fileuploader.app.service.storage.StoredBlob;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for streaming the bytes of a {@link Content} in and out of
+ * the {@link BlobStore} without materializing them on the heap.
+ * <p>
+ * Contents created before the blob store was introduced keep their bytes in
+ * the {@code content.data} column until {@link ContentMigrationService} moves
+ * them; they are read from there in the meantime.
+ * <p>
+ * Identical bytes are stored once: contents holding the same bytes share the
+ * same blob, whose references are counted by {@link ContentBlobRepository}.
+ * A blob losing its last reference is deleted by
+ * {@link BlobGarbageCollectionService} after a grace period. Referencing a
+ * blob requests its preview from {@link PreviewService}.
+ * <p>
+ * Small blobs are read through the {@link BlobCache}, larger ones are always
+ * streamed from the blob store.
+ */
+@Service
+@Transactional
+public class ContentStorageService {
+
+  private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+  private final Logger log =
+      LoggerFactory.getLogger(ContentStorageService.class);
+
+  private final ContentRepository contentRepository;
+
+  private final ContentBlobRepository contentBlobRepository;
+
+  private final DocumentRepository documentRepository;
+
+  private final BlobStore blobStore;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ApplicationProperties applicationProperties;
+
+  private final PreviewService previewService;
+
+  private final BlobCache blobCache;
+
+  public ContentStorageService(ContentRepository contentRepository,
+                               ContentBlobRepository contentBlobRepository,
+                               DocumentRepository documentRepository,
+                               BlobStore blobStore, JdbcTemplate jdbcTemplate,
+                               ApplicationProperties applicationProperties,
+                               PreviewService previewService,
+                               BlobCache blobCache) {
+    this.contentRepository = contentRepository;
+    this.contentBlobRepository = contentBlobRepository;
+    this.documentRepository = documentRepository;
+    this.blobStore = blobStore;
+    this.jdbcTemplate = jdbcTemplate;
+    this.applicationProperties = applicationProperties;
+    this.previewService = previewService;
+    this.blobCache = blobCache;
+  }
+
+  /**
+   * Streams {@code data} to the {@link BlobStore}, outside of any transaction
+   * so that no database connection is held while it is received. The blob is
+   * then referenced by {@link #store(Car, String, String, StoredBlob)}, or
+   * left to the garbage collection.
+   * <p>
+   * The size and SHA-256 of the payload are computed while it is read, so the
+   * heap used by an upload is bounded by the storage chunk size rather than by
+   * the size of the file. It must be called through the Spring proxy, before
+   * and outside of the transaction that stores the document.
+   *
+   * @param mimeType the MIME type of the payload, may be {@code null}.
+   * @param data the payload, read until exhausted but not closed.
+   * @return the written blob.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public StoredBlob writeBlob(String mimeType, InputStream data) {
+    try {
+      return blobStore.put(new BufferedInputStream(data, chunkSize()),
+                           Objects.requireNonNullElse(mimeType,
+                                                      DEFAULT_MIME_TYPE));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Creates a new {@link Content} pointing at a blob already written by
+   * {@link #writeBlob(String, InputStream)}, and the {@link Document} of
+   * {@code car} that points at it.
+   *
+   * @param car the car the new document belongs to.
+   * @param title the title of the new document.
+   * @param mimeType the MIME type of the blob, may be {@code null}.
+   * @param blob the written blob.
+   * @return the persisted document.
+   */
+  public Document store(Car car, String title, String mimeType,
+                        StoredBlob blob) {
+    String contentType =
+        Objects.requireNonNullElse(mimeType, DEFAULT_MIME_TYPE);
+    Content content = new Content()
+                          .dataContentType(contentType)
+                          .storageKey(blob.key())
+                          .dataSize(blob.size())
+                          .sha256(blob.sha256());
+    try {
+      referenceBlob(content);
+    } catch (NoSuchFileException e) {
+      throw new UncheckedIOException(e);
+    }
+    contentRepository.save(content);
+    log.debug("Stored {} bytes with SHA-256 {} as Content {}",
+              content.getDataSize(), content.getSha256(), content.getId());
+
+    Document document = new Document()
+                            .title(title)
+                            .size(content.getDataSize())
+                            .mimeType(contentType)
+                            .content(content)
+                            .car(car);
+    return documentRepository.save(document);
+  }
+
+  /**
+   * Creates documents whose contents point at blobs already written to the
+   * {@link BlobStore}, inserting them in JDBC batches.
+   * <p>
+   * The ids are allocated in pools by the sequence generator rather than by
+   * the database on each insert, which lets Hibernate batch the inserts.
+   *
+   * @param documents the new documents, with their car and a content holding
+   *     the key, size and SHA-256 of its blob.
+   */
+  public void storeAll(List<Document> documents) {
+    List<Content> contents =
+        documents.stream().map(Document::getContent).toList();
+    try {
+      for (Content content : contents) {
+        referenceBlob(content);
+      }
+    } catch (NoSuchFileException e) {
+      throw new UncheckedIOException(e);
+    }
+    contentRepository.saveAll(contents);
+    documentRepository.saveAll(documents);
+    documentRepository.flush();
+    log.debug("Stored {} Documents in a batch", documents.size());
+  }
+
+  /**
+   * Saves a content received in an API payload. Its bytes, if any, replace
+   * the stored ones; otherwise the stored ones are kept.
+   *
+   * @param content the content to save.
+   * @return the persisted content, without its bytes.
+   */
+  public Content save(Content content) {
+    byte[] data = content.getData();
+    if (data != null) {
+      String previousKey =
+          content.getId() == null ? null : findStorageKey(content.getId());
+      putBlob(content, new ByteArrayInputStream(data));
+      if (previousKey != null) {
+        contentBlobRepository.release(previousKey);
+      }
+    } else if (content.getId() != null) {
+      contentRepository.findById(content.getId())
+          .ifPresent(existing
+                     -> content.storageKey(existing.getStorageKey())
+                            .dataSize(existing.getDataSize())
+                            .sha256(existing.getSha256()));
+    }
+    return contentRepository.save(content).data(null);
+  }
+
+  /**
+   * Updates an existing content from an API payload, loading it once. Its
+   * bytes, if any, replace the stored ones; otherwise the stored ones are
+   * kept.
+   *
+   * @param content the new values of the content, with its id.
+   * @param partial whether to only update the fields that are not
+   *     {@code null}.
+   * @param expectedVersions the versions the content may be at,
+   *     {@code null} for any.
+   * @return the updated content, at its new version and without its bytes,
+   *     or empty if it does not exist.
+   * @throws PreconditionFailedException if the content is at another version.
+   */
+  public Optional<Content> update(Content content, boolean partial,
+                                  Set<Integer> expectedVersions) {
+    Optional<Content> result =
+        loadContent(content.getId(), expectedVersions).map(existing -> {
+          // the MIME type of the new bytes tells how to store them
+          if (!partial || content.getDataContentType() != null) {
+            existing.setDataContentType(content.getDataContentType());
+          }
+          if (content.getData() != null) {
+            String previousKey = existing.getStorageKey();
+            putBlob(existing, new ByteArrayInputStream(content.getData()));
+            if (previousKey != null) {
+              contentBlobRepository.release(previousKey);
+            }
+          }
+          return existing.data(null);
+        });
+    // bump the version before it is sent as the ETag of the response
+    contentRepository.flush();
+    return result;
+  }
+
+  /**
+   * Deletes a content, releasing its blob.
+   *
+   * @param contentId the id of the content to delete.
+   */
+  public void delete(Long contentId) { delete(contentId, null); }
+
+  /**
+   * Deletes a content, releasing its blob.
+   *
+   * @param contentId the id of the content to delete.
+   * @param expectedVersions the versions the content may be at,
+   *     {@code null} for any.
+   * @throws PreconditionFailedException if the content is at another version.
+   */
+  public void delete(Long contentId, Set<Integer> expectedVersions) {
+    loadContent(contentId, expectedVersions).ifPresent(content -> {
+      contentRepository.delete(content);
+      if (content.getStorageKey() != null) {
+        contentBlobRepository.release(content.getStorageKey());
+      }
+    });
+  }
+
+  /**
+   * Deletes a document along with its content, releasing the blob of the
+   * content.
+   *
+   * @param documentId the id of the document to delete.
+   */
+  public void deleteDocument(Long documentId) {
+    deleteDocument(documentId, null);
+  }
+
+  /**
+   * Deletes a document along with its content, releasing the blob of the
+   * content.
+   *
+   * @param documentId the id of the document to delete.
+   * @param expectedVersions the versions the document may be at,
+   *     {@code null} for any.
+   * @throws PreconditionFailedException if the document is at another
+   *     version.
+   */
+  public void deleteDocument(Long documentId, Set<Integer> expectedVersions) {
+    documentRepository.findById(documentId).ifPresent(document -> {
+      if (expectedVersions != null &&
+          !expectedVersions.contains(document.getVersion())) {
+        throw new PreconditionFailedException("document", documentId,
+                                              document.getVersion());
+      }
+      Content content = document.getContent();
+      documentRepository.delete(document);
+      if (content != null) {
+        delete(content.getId());
+      }
+    });
+  }
+
+  /**
+   * Deletes documents along with their contents, releasing the blobs of the
+   * contents. The documents and contents are loaded with one query each and
+   * deleted in JDBC batches.
+   *
+   * @param documentIds the ids of the documents to delete.
+   * @return the ids of the documents that existed and were deleted.
+   */
+  public Set<Long> deleteDocuments(Collection<Long> documentIds) {
+    List<Document> documents = documentRepository.findAllById(documentIds);
+    List<Long> contentIds = documents.stream()
+                                .map(Document::getContent)
+                                .filter(Objects::nonNull)
+                                .map(Content::getId)
+                                .toList();
+    List<Content> contents = contentRepository.findAllById(contentIds);
+    documentRepository.deleteAll(documents);
+    contentRepository.deleteAll(contents);
+    contentBlobRepository.releaseAll(contents.stream()
+                                         .map(Content::getStorageKey)
+                                         .filter(Objects::nonNull)
+                                         .toList());
+    return documents.stream().map(Document::getId).collect(Collectors.toSet());
+  }
+
+  /**
+   * Reads all the stored bytes of a content into its {@code data} property.
+   * The whole content ends up on the heap: prefer {@link #copy} for anything
+   * but small contents.
+   *
+   * @param content the content to load.
+   * @return {@code content}.
+   */
+  @Transactional(readOnly = true)
+  public Content loadData(Content content) {
+    try (InputStream in =
+             openStream(content.getId(), content.getStorageKey(), 0)) {
+      content.setData(in.readAllBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return content;
+  }
+
+  /**
+   * Lists the contents without loading their bytes.
+   *
+   * @param pageable the pagination information.
+   * @param withoutDocument whether to only list the contents of no document.
+   * @return the page of contents.
+   */
+  @Transactional(readOnly = true)
+  public Page<ContentMetadataDTO> findAllMetadata(Pageable pageable,
+                                                  boolean withoutDocument) {
+    Page<Content> page =
+        withoutDocument ? contentRepository.findAllWhereDocumentIsNull(pageable)
+                        : contentRepository.findAllWithDocument(pageable);
+    return page.map(ContentMetadataDTO::new);
+  }
+
+  /**
+   * Lists the contents without loading their bytes nor counting them.
+   *
+   * @param pageable the pagination information.
+   * @param withoutDocument whether to only list the contents of no document.
+   * @return the slice of contents.
+   */
+  @Transactional(readOnly = true)
+  public Slice<ContentMetadataDTO> findMetadataSlice(Pageable pageable,
+                                                     boolean withoutDocument) {
+    Slice<Content> slice =
+        withoutDocument
+            ? contentRepository.findSliceWhereDocumentIsNull(pageable)
+            : contentRepository.findSliceWithDocument(pageable);
+    return slice.map(ContentMetadataDTO::new);
+  }
+
+  /**
+   * Lists the contents following a given id in the order of {@code pageable},
+   * without loading their bytes nor counting them.
+   *
+   * @param afterId the id of the last content of the previous slice.
+   * @param pageable the pagination information, only sorted by id.
+   * @param withoutDocument whether to only list the contents of no document.
+   * @return the slice of contents.
+   */
+  @Transactional(readOnly = true)
+  public Slice<ContentMetadataDTO> findMetadataAfter(Long afterId,
+                                                     Pageable pageable,
+                                                     boolean withoutDocument) {
+    Sort.Order order = pageable.getSort().getOrderFor("id");
+    boolean descending = order != null && order.isDescending();
+    Slice<Content> slice;
+    if (withoutDocument) {
+      slice = descending
+                  ? contentRepository.findSliceWhereDocumentIsNullByIdLessThan(
+                        afterId, pageable)
+                  : contentRepository
+                        .findSliceWhereDocumentIsNullByIdGreaterThan(afterId,
+                                                                     pageable);
+    } else {
+      slice =
+          descending
+              ? contentRepository.findSliceWithDocumentByIdLessThan(afterId,
+                                                                    pageable)
+              : contentRepository.findSliceWithDocumentByIdGreaterThan(
+                    afterId, pageable);
+    }
+    return slice.map(ContentMetadataDTO::new);
+  }
+
+  /**
+   * Describes the stored bytes of a content.
+   *
+   * @param contentId the id of the content.
+   * @return the stored content, or empty if the content does not exist.
+   */
+  @Transactional(readOnly = true)
+  public Optional<StoredContentDTO> findContent(Long contentId) {
+    return findStoredContent("c.id = ?", contentId);
+  }
+
+  /**
+   * Describes the stored bytes of the content of a document.
+   *
+   * @param documentId the id of the document.
+   * @return the stored content, or empty if the document does not exist or
+   *     has no content.
+   */
+  @Transactional(readOnly = true)
+  public Optional<StoredContentDTO> findDocumentContent(Long documentId) {
+    return findStoredContent("d.id = ?", documentId);
+  }
+
+  /**
+   * Writes {@code length} bytes of a stored content starting at
+   * {@code offset} to {@code out}, one chunk at a time.
+   * <p>
+   * Runs outside of any transaction: bytes read from the blob store hold no
+   * database connection, only those still in the {@code content.data} column
+   * hold one until the copy ends.
+   *
+   * @param content the stored content to read.
+   * @param offset the zero-based position of the first byte to write.
+   * @param length the number of bytes to write.
+   * @param compressed whether to write the bytes as stored gzip-compressed
+   *     rather than the original ones, for a content whose
+   *     {@link StoredContentDTO#getCompressedLength() compressed length} is
+   *     known.
+   * @param out the stream to write to, not closed.
+   * @throws IOException if the stored content is shorter than requested or
+   *     if {@code out} cannot be written.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void copy(StoredContentDTO content, long offset, long length,
+                   boolean compressed, OutputStream out) throws IOException {
+    byte[] cached = readCached(content, compressed);
+    if (cached != null) {
+      if (offset + length > cached.length) {
+        throw new EOFException("Content " + content.getContentId() +
+                               " ended " + (offset + length - cached.length) +
+                               " bytes early");
+      }
+      out.write(cached, (int)offset, (int)length);
+      return;
+    }
+    byte[] buffer = new byte[chunkSize()];
+    try (InputStream in = compressed
+                              ? openCompressed(content, offset)
+                              : openStream(content.getContentId(),
+                                           content.getStorageKey(), offset)) {
+      long remaining = length;
+      while (remaining > 0) {
+        int n = in.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+        if (n == -1) {
+          throw new EOFException("Content " + content.getContentId() +
+                                 " ended " + remaining + " bytes early");
+        }
+        out.write(buffer, 0, n);
+        remaining -= n;
+      }
+    }
+  }
+
+  /**
+   * Moves the bytes of a content still held in the {@code content.data}
+   * column to the blob store, then empties the column.
+   *
+   * @param contentId the id of the content to migrate.
+   * @return whether the content was migrated, {@code false} if it did not
+   *     need to be.
+   */
+  public boolean migrateToBlobStore(Long contentId) {
+    // lock the row so that concurrent runs do not migrate it twice
+    boolean pending =
+        !jdbcTemplate
+             .queryForList("select id from content where id = ? and "
+                               + "storage_key is null and data is not null "
+                               + "for update",
+                           Long.class, contentId)
+             .isEmpty();
+    if (!pending) {
+      return false;
+    }
+    Content content = contentRepository.findById(contentId).orElseThrow();
+    try (InputStream in = new DatabaseBlobInputStream(jdbcTemplate, contentId,
+                                                      0, chunkSize())) {
+      putBlob(content, in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    contentRepository.saveAndFlush(content);
+    jdbcTemplate.update("update content set data = null where id = ?",
+                        contentId);
+    log.debug("Migrated Content {} to blob {}", contentId,
+              content.getStorageKey());
+    return true;
+  }
+
+  /**
+   * Deletes a blob which has had no references for the grace period.
+   *
+   * @param storageKey the key of the blob.
+   * @return whether the blob was deleted, {@code false} if it was referenced
+   *     again in the meantime.
+   */
+  public boolean collectBlob(String storageKey) {
+    // the lock makes a concurrent reference wait until the blob is gone
+    if (!contentBlobRepository.lockUnreferenced(storageKey)) {
+      return false;
+    }
+    deleteBlob(storageKey);
+    contentBlobRepository.delete(storageKey);
+    return true;
+  }
+
+  /**
+   * Deletes a blob which was written but never referenced, such as the blob
+   * of an upload whose transaction rolled back.
+   *
+   * @param storageKey the key of the blob.
+   * @param modifiedBefore the instant the blob must be last written before.
+   * @return whether the blob was deleted, {@code false} if it is registered
+   *     or was written again since {@code modifiedBefore}.
+   */
+  public boolean collectOrphanBlob(String storageKey, Instant modifiedBefore) {
+    // the placeholder makes a concurrent reference wait until the blob is gone
+    if (!contentBlobRepository.lockUnregistered(storageKey)) {
+      return false;
+    }
+    // the same bytes may have been written again since the blob was listed
+    boolean stale = blobStore.lastModified(storageKey)
+                        .map(modified -> modified.isBefore(modifiedBefore))
+                        .orElse(false);
+    if (stale) {
+      deleteBlob(storageKey);
+    }
+    contentBlobRepository.delete(storageKey);
+    return stale;
+  }
+
+  private Optional<StoredContentDTO> findStoredContent(String condition,
+                                                       Long id) {
+    return jdbcTemplate.query(
+        "select c.id, c.storage_key, coalesce(c.data_size, length(c.data)), "
+            + "c.data_content_type, c.sha_256, d.mime_type, d.title, "
+            + "b.created_date "
+            + "from content c left join document d on d.content_id = c.id "
+            + "left join content_blob b on b.storage_key = c.storage_key "
+            + "where " + condition,
+        rs -> {
+          if (!rs.next()) {
+            return Optional.empty();
+          }
+          String storageKey = rs.getString(2);
+          return Optional.of(new StoredContentDTO(
+              rs.getLong(1), storageKey, rs.getLong(3),
+              Objects.requireNonNullElse(rs.getString(4), rs.getString(6)),
+              rs.getString(5), rs.getString(7), toInstant(rs.getTimestamp(8)),
+              findCompressedLength(storageKey)));
+        },
+        id);
+  }
+
+  private Long findCompressedLength(String storageKey) {
+    if (storageKey == null) {
+      return null;
+    }
+    OptionalLong compressedSize = blobStore.compressedSize(storageKey);
+    return compressedSize.isPresent() ? compressedSize.getAsLong() : null;
+  }
+
+  private void putBlob(Content content, InputStream in) {
+    try {
+      StoredBlob blob = blobStore.put(in, content.getDataContentType());
+      content.storageKey(blob.key())
+          .dataSize(blob.size())
+          .sha256(blob.sha256());
+      referenceBlob(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void referenceBlob(Content content) throws NoSuchFileException {
+    String storageKey = content.getStorageKey();
+    int references =
+        contentBlobRepository.reference(storageKey, content.getDataSize());
+    if (!blobStore.exists(storageKey) && !restoreBlob(storageKey)) {
+      throw new NoSuchFileException(storageKey, null,
+                                    "blob was collected while stored");
+    }
+    if (references > 1) {
+      log.debug("Deduplicated {} bytes to blob {}, now referenced {} times",
+                content.getDataSize(), storageKey, references);
+    }
+    previewService.schedule(storageKey, content.getDataContentType(),
+                            content.getDataSize());
+  }
+
+  /**
+   * Restores a blob garbage collected between its write and its reference,
+   * the reference now keeping it from being collected again.
+   */
+  private boolean restoreBlob(String storageKey) {
+    try {
+      boolean restored = blobStore.restore(storageKey);
+      if (restored) {
+        log.debug("Restored blob {}, collected while stored", storageKey);
+      }
+      return restored;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void deleteBlob(String storageKey) {
+    blobCache.evict(storageKey);
+    try {
+      blobStore.delete(storageKey);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Optional<Content> loadContent(Long contentId,
+                                        Set<Integer> expectedVersions) {
+    Optional<Content> content = contentRepository.findById(contentId);
+    if (expectedVersions != null && content.isPresent() &&
+        !expectedVersions.contains(content.get().getVersion())) {
+      throw new PreconditionFailedException("content", contentId,
+                                            content.get().getVersion());
+    }
+    return content;
+  }
+
+  private String findStorageKey(Long contentId) {
+    List<String> keys = jdbcTemplate.queryForList(
+        "select storage_key from content where id = ?", String.class,
+        contentId);
+    return keys.isEmpty() ? null : keys.get(0);
+  }
+
+  private InputStream openStream(Long contentId, String storageKey,
+                                 long offset) throws IOException {
+    if (storageKey != null) {
+      return blobStore.open(storageKey, offset);
+    }
+    return new DatabaseBlobInputStream(jdbcTemplate, contentId, offset,
+                                       chunkSize());
+  }
+
+  private byte[] readCached(StoredContentDTO content, boolean compressed)
+      throws IOException {
+    if (content.getStorageKey() == null) {
+      return null;
+    }
+    return blobCache.read(content.getStorageKey(), compressed,
+                          compressed ? content.getCompressedLength()
+                                     : content.getLength());
+  }
+
+  private InputStream openCompressed(StoredContentDTO content, long offset)
+      throws IOException {
+    if (content.getStorageKey() == null) {
+      throw new IllegalArgumentException("Content " + content.getContentId() +
+                                         " is not stored compressed");
+    }
+    InputStream in = blobStore.openCompressed(content.getStorageKey());
+    try {
+      in.skipNBytes(offset);
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+    return in;
+  }
+
+  private static Instant toInstant(Timestamp timestamp) {
+    return timestamp != null ? timestamp.toInstant() : null;
+  }
+
+  private int chunkSize() {
+    return applicationProperties.getStorage().getChunkSize();
+  }
+}
@@ -0,0 +1,243 @@
+package com.fileuploader.app.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fileuploader.app.service.storage.BlobStore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class exporting the documents of a
+ * {@link com.fileuploader.app.domain.Car} as a JSON array or a ZIP archive.
+ * <p>
+ * Rows are streamed from a forward-only cursor and each document is written
+ * as soon as it is read, so memory stays flat whatever the number of
+ * documents of the car. Bytes are streamed from the {@link BlobStore} one
+ * blob at a time.
+ * <p>
+ * While the cursor is open no other statement can run on the connection, so
+ * the bytes of contents not yet migrated to the blob store are selected with
+ * their row rather than read in chunks.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DocumentExportService {
+
+  private static final String SELECT_DOCUMENTS =
+      "select d.id, d.title, d.size, d.mime_type, c.id, c.data_content_type, "
+      + "c.data_size, c.sha_256, c.storage_key%s "
+      + "from document d left join content c on c.id = d.content_id "
+      + "where d.car_id = ? order by d.id";
+
+  private static final String LEGACY_DATA_COLUMN =
+      ", case when c.storage_key is null then c.data end";
+
+  private static final Set<String> COMPRESSED_TYPES = Set.of(
+      "image/jpeg", "image/png", "image/gif", "image/webp", "image/avif",
+      "image/heic", "application/pdf", "application/zip", "application/gzip",
+      "application/x-gzip", "application/x-bzip2", "application/x-xz",
+      "application/x-7z-compressed", "application/vnd.rar",
+      "application/x-rar-compressed", "application/java-archive",
+      "application/epub+zip",
+      "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+      "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+      "application/vnd.openxmlformats-officedocument.presentationml"
+          + ".presentation",
+      "application/vnd.oasis.opendocument.text",
+      "application/vnd.oasis.opendocument.spreadsheet");
+
+  private static final Pattern UNSAFE_NAME_CHARACTERS =
+      Pattern.compile("[\\\\/:*?\"<>|\\p{Cntrl}]");
+
+  // streams the rows one by one instead of buffering the whole result set
+  private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+  private final Logger log =
+      LoggerFactory.getLogger(DocumentExportService.class);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final BlobStore blobStore;
+
+  private final ObjectMapper objectMapper;
+
+  public DocumentExportService(JdbcTemplate jdbcTemplate, BlobStore blobStore,
+                               ObjectMapper objectMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.blobStore = blobStore;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Writes the documents of a car to {@code out}, in the JSON representation
+   * of {@link com.fileuploader.app.domain.Document} with its content, the
+   * bytes being inlined in Base64.
+   *
+   * @param carId the id of the car.
+   * @param includeData whether to include the bytes of the contents.
+   * @param out the stream to write to, left open.
+   * @throws IOException if the export cannot be written.
+   */
+  public void exportCarDocuments(Long carId, boolean includeData,
+                                 OutputStream out) throws IOException {
+    log.debug("Exporting the documents of Car {}", carId);
+    String sql = String.format(
+        SELECT_DOCUMENTS, includeData ? LEGACY_DATA_COLUMN : "");
+    try (JsonGenerator generator = objectMapper.getFactory()
+                                       .createGenerator(out, JsonEncoding.UTF8)
+                                       .disable(
+                                           JsonGenerator.Feature
+                                               .AUTO_CLOSE_TARGET)) {
+      generator.writeStartArray();
+      streamDocuments(sql, carId,
+                      rs -> writeDocument(generator, rs, includeData));
+      generator.writeEndArray();
+    }
+  }
+
+  /**
+   * Writes the files of the documents of a car to {@code out} as a ZIP
+   * archive, one entry per document holding bytes.
+   * <p>
+   * Entries of already compressed types are written without compression to
+   * save CPU.
+   *
+   * @param carId the id of the car.
+   * @param out the stream to write to, left open.
+   * @throws IOException if the archive cannot be written.
+   */
+  public void exportCarArchive(Long carId, OutputStream out)
+      throws IOException {
+    log.debug("Archiving the documents of Car {}", carId);
+    String sql = String.format(SELECT_DOCUMENTS, LEGACY_DATA_COLUMN);
+    ZipOutputStream zip = new ZipOutputStream(out);
+    streamDocuments(sql, carId, rs -> writeEntry(zip, rs));
+    zip.finish();
+  }
+
+  @FunctionalInterface
+  private interface DocumentWriter {
+    void write(ResultSet rs) throws IOException, SQLException;
+  }
+
+  private void streamDocuments(String sql, Long carId, DocumentWriter writer)
+      throws IOException {
+    try {
+      jdbcTemplate.query(connection -> {
+        PreparedStatement statement = connection.prepareStatement(
+            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(STREAMING_FETCH_SIZE);
+        statement.setLong(1, carId);
+        return statement;
+      }, (RowCallbackHandler) rs -> {
+        try {
+          writer.write(rs);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void writeDocument(JsonGenerator generator, ResultSet rs,
+                             boolean includeData)
+      throws IOException, SQLException {
+    generator.writeStartObject();
+    generator.writeNumberField("id", rs.getLong(1));
+    generator.writeStringField("title", rs.getString(2));
+    generator.writeNumberField("size", rs.getLong(3));
+    generator.writeStringField("mimeType", rs.getString(4));
+    long contentId = rs.getLong(5);
+    if (rs.wasNull()) {
+      generator.writeNullField("content");
+    } else {
+      generator.writeObjectFieldStart("content");
+      generator.writeNumberField("id", contentId);
+      generator.writeStringField("dataContentType", rs.getString(6));
+      long dataSize = rs.getLong(7);
+      if (rs.wasNull()) {
+        generator.writeNullField("dataSize");
+      } else {
+        generator.writeNumberField("dataSize", dataSize);
+      }
+      generator.writeStringField("sha256", rs.getString(8));
+      if (includeData) {
+        writeData(generator, rs);
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeData(JsonGenerator generator, ResultSet rs)
+      throws IOException, SQLException {
+    try (InputStream in = openData(rs)) {
+      if (in == null) {
+        generator.writeNullField("data");
+      } else {
+        generator.writeFieldName("data");
+        generator.writeBinary(in, -1);
+      }
+    }
+  }
+
+  private void writeEntry(ZipOutputStream zip, ResultSet rs)
+      throws IOException, SQLException {
+    try (InputStream in = openData(rs)) {
+      if (in == null) {
+        return;
+      }
+      String contentType =
+          Objects.requireNonNullElse(rs.getString(6), rs.getString(4));
+      // deflating at level 0 only frames the bytes, its CRC is computed on
+      // the fly unlike with the STORED method
+      zip.setLevel(isCompressed(contentType) ? Deflater.NO_COMPRESSION
+                                             : Deflater.DEFAULT_COMPRESSION);
+      zip.putNextEntry(new ZipEntry(entryName(rs.getLong(1), rs.getString(2))));
+      in.transferTo(zip);
+      zip.closeEntry();
+    }
+  }
+
+  private InputStream openData(ResultSet rs) throws IOException, SQLException {
+    String storageKey = rs.getString(9);
+    return storageKey != null ? blobStore.open(storageKey, 0)
+                              : rs.getBinaryStream(10);
+  }
+
+  private static boolean isCompressed(String contentType) {
+    if (contentType == null) {
+      return false;
+    }
+    String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+    return COMPRESSED_TYPES.contains(type) || type.startsWith("audio/") ||
+        type.startsWith("video/");
+  }
+
+  private static String entryName(long documentId, String title) {
+    // prefixed with the id as titles are neither unique nor valid paths
+    return documentId + "-" +
+        UNSAFE_NAME_CHARACTERS.matcher(title).replaceAll("_");
+  }
+}
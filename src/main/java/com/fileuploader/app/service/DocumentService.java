@@ -0,0 +1,164 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Content;
+import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.repository.ContentRepository;
+import com.fileuploader.app.repository.DocumentRepository;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for updating the metadata of {@link Document}s.
+ * <p>
+ * An update loads the document, with its car, once and copies the new values
+ * onto the managed entity, instead of checking that it exists and then
+ * merging the payload, which costs a second select. A document can be
+ * pointed at another existing content, provided no other document holds it.
+ * Writes can be made conditional on the version of the document, as sent in
+ * an {@code If-Match} header.
+ */
+@Service
+@Transactional
+public class DocumentService {
+
+  private final Logger log = LoggerFactory.getLogger(DocumentService.class);
+
+  private final DocumentRepository documentRepository;
+
+  private final CarRepository carRepository;
+
+  private final ContentRepository contentRepository;
+
+  public DocumentService(DocumentRepository documentRepository,
+                         CarRepository carRepository,
+                         ContentRepository contentRepository) {
+    this.documentRepository = documentRepository;
+    this.carRepository = carRepository;
+    this.contentRepository = contentRepository;
+  }
+
+  /**
+   * Updates an existing document.
+   *
+   * @param document the new values of the document, with its id.
+   * @param expectedVersions the versions the document may be at,
+   *     {@code null} for any.
+   * @return the updated document, at its new version, or empty if it does
+   *     not exist.
+   * @throws PreconditionFailedException if the document is at another
+   *     version.
+   * @throws InvalidDocumentException if the content does not exist or
+   *     belongs to another document.
+   */
+  public Optional<Document> update(Document document,
+                                   Set<Integer> expectedVersions) {
+    log.debug("Request to update Document : {}", document);
+    return find(document.getId(), expectedVersions)
+        .map(existingDocument -> update(document, existingDocument, false));
+  }
+
+  /**
+   * Updates the fields of an existing document that are not {@code null} in
+   * {@code document}.
+   *
+   * @param document the new values of the document, with its id.
+   * @param expectedVersions the versions the document may be at,
+   *     {@code null} for any.
+   * @return the updated document, at its new version, or empty if it does
+   *     not exist.
+   * @throws PreconditionFailedException if the document is at another
+   *     version.
+   * @throws InvalidDocumentException if the content does not exist or
+   *     belongs to another document.
+   */
+  public Optional<Document> partialUpdate(Document document,
+                                          Set<Integer> expectedVersions) {
+    log.debug("Request to partially update Document : {}", document);
+    return find(document.getId(), expectedVersions)
+        .map(existingDocument -> update(document, existingDocument, true));
+  }
+
+  private Optional<Document> find(Long id, Set<Integer> expectedVersions) {
+    Optional<Document> document = documentRepository.findById(id);
+    if (expectedVersions != null && document.isPresent() &&
+        !expectedVersions.contains(document.get().getVersion())) {
+      throw new PreconditionFailedException("document", id,
+                                            document.get().getVersion());
+    }
+    return document;
+  }
+
+  private Document update(Document document, Document existingDocument,
+                          boolean partial) {
+    Content content = findContent(document, existingDocument, partial);
+    copy(document, existingDocument, findCar(document, existingDocument),
+         partial);
+    existingDocument.setContent(content);
+    return flush(existingDocument);
+  }
+
+  private Document flush(Document document) {
+    // bump the version before it is sent as the ETag of the response
+    documentRepository.flush();
+    return document;
+  }
+
+  private Car findCar(Document document, Document existingDocument) {
+    Car car = document.getCar();
+    if (car == null ||
+        Objects.equals(car.getId(), existingDocument.getCar().getId())) {
+      return existingDocument.getCar();
+    }
+    return carRepository.findById(car.getId()).orElseThrow(
+        () -> new EntityNotFoundException("Car not found: " + car.getId()));
+  }
+
+  private Content findContent(Document document, Document existingDocument,
+                              boolean partial) {
+    Content content = document.getContent();
+    Content existingContent = existingDocument.getContent();
+    if (content == null) {
+      return partial ? existingContent : null;
+    }
+    if (existingContent != null &&
+        Objects.equals(content.getId(), existingContent.getId())) {
+      return existingContent;
+    }
+    Content found =
+        Optional.ofNullable(content.getId())
+            .flatMap(contentRepository::findById)
+            .orElseThrow(()
+                             -> new InvalidDocumentException(
+                                 "Content not found: " + content.getId(),
+                                 "contentnotfound"));
+    if (documentRepository.existsByContentId(found.getId())) {
+      throw new InvalidDocumentException(
+          "Content " + found.getId() + " belongs to another document",
+          "contenttaken");
+    }
+    return found;
+  }
+
+  static Document copy(Document source, Document target, Car car,
+                       boolean partial) {
+    if (!partial || source.getTitle() != null) {
+      target.setTitle(source.getTitle());
+    }
+    if (!partial || source.getSize() != null) {
+      target.setSize(source.getSize());
+    }
+    if (!partial || source.getMimeType() != null) {
+      target.setMimeType(source.getMimeType());
+    }
+    target.setCar(car);
+    return target;
+  }
+}
@@ -0,0 +1,18 @@
+package com.fileuploader.app.service;
+
+/**
+ * Thrown when a document update points at a content it cannot hold.
+ */
+public class InvalidDocumentException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String errorKey;
+
+  public InvalidDocumentException(String message, String errorKey) {
+    super(message);
+    this.errorKey = errorKey;
+  }
+
+  public String getErrorKey() { return errorKey; }
+}
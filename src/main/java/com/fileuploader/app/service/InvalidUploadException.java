@@ -0,0 +1,18 @@
+package com.fileuploader.app.service;
+
+/**
+ * Thrown when a resumable upload request does not match its upload session.
+ */
+public class InvalidUploadException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String errorKey;
+
+  public InvalidUploadException(String message, String errorKey) {
+    super(message);
+    this.errorKey = errorKey;
+  }
+
+  public String getErrorKey() { return errorKey; }
+}
@@ -0,0 +1,15 @@
+package com.fileuploader.app.service;
+
+/**
+ * Thrown when a conditional write finds the entity at another version than
+ * the one the client expects.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public PreconditionFailedException(String entityName, Long id,
+                                     Integer version) {
+    super("The " + entityName + " " + id + " is at version " + version);
+  }
+}
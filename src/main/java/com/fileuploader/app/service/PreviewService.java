@@ -0,0 +1,170 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.repository.ContentPreviewRepository;
+import com.fileuploader.app.repository.ContentPreviewRepository.DocumentPreview;
+import com.fileuploader.app.service.dto.PreviewDTO;
+import com.fileuploader.app.service.storage.BlobStore;
+import com.fileuploader.app.service.storage.PreviewRenderer;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service class rendering the thumbnails of the images and PDFs of the blob
+ * store, in the background.
+ * <p>
+ * Rendering is requested when a blob is referenced and starts once the
+ * transaction commits. It runs on a small pool of its own with a bounded
+ * queue, so it never takes a request thread nor piles up in memory: a request
+ * finding the queue full is dropped, and the preview is rendered when it is
+ * first asked for instead.
+ */
+@Service
+public class PreviewService {
+
+  private final Logger log = LoggerFactory.getLogger(PreviewService.class);
+
+  private final ContentPreviewRepository contentPreviewRepository;
+
+  private final BlobStore blobStore;
+
+  private final ApplicationProperties applicationProperties;
+
+  private final ThreadPoolTaskExecutor executor;
+
+  public PreviewService(ContentPreviewRepository contentPreviewRepository,
+                        BlobStore blobStore,
+                        ApplicationProperties applicationProperties) {
+    this.contentPreviewRepository = contentPreviewRepository;
+    this.blobStore = blobStore;
+    this.applicationProperties = applicationProperties;
+    ApplicationProperties.Storage.Preview preview =
+        applicationProperties.getStorage().getPreview();
+    // not a bean, so that it is never picked for @Async methods
+    this.executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(preview.getThreads());
+    executor.setMaxPoolSize(preview.getThreads());
+    executor.setQueueCapacity(preview.getQueueCapacity());
+    executor.setThreadNamePrefix("preview-");
+    executor.initialize();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Requests the preview of a blob, to be rendered once the current
+   * transaction, if any, commits.
+   *
+   * @param storageKey the key of the blob.
+   * @param mimeType the MIME type of the blob.
+   * @param size the size in bytes of the blob.
+   */
+  public void schedule(String storageKey, String mimeType, long size) {
+    if (!isRenderable(storageKey, mimeType, size)) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      submit(storageKey, mimeType);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            submit(storageKey, mimeType);
+          }
+        });
+  }
+
+  /**
+   * Renders and saves the preview of a blob, unless it already has one.
+   *
+   * @param storageKey the key of the blob.
+   * @param mimeType the MIME type of the blob.
+   * @return whether a preview was saved.
+   */
+  public boolean render(String storageKey, String mimeType) {
+    if (contentPreviewRepository.exists(storageKey)) {
+      return false;
+    }
+    ApplicationProperties.Storage storage = applicationProperties.getStorage();
+    byte[] data;
+    try (InputStream in = new BufferedInputStream(
+             blobStore.open(storageKey, 0), storage.getChunkSize())) {
+      data = PreviewRenderer.render(in, mimeType,
+                                    storage.getPreview().getSize());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not render the preview of blob {}: {}", storageKey,
+               e.getMessage());
+      contentPreviewRepository.saveFailed(storageKey);
+      return false;
+    }
+    log.debug("Rendered a preview of {} bytes for blob {}", data.length,
+              storageKey);
+    return contentPreviewRepository.saveReady(
+        storageKey, PreviewRenderer.CONTENT_TYPE, data);
+  }
+
+  /**
+   * Finds the preview of the content of a document, requesting it if it was
+   * never rendered.
+   *
+   * @param documentId the id of the document.
+   * @return the preview, or empty if the document does not exist, cannot be
+   *     previewed or its preview is not rendered yet.
+   */
+  public Optional<PreviewDTO> findDocumentPreview(Long documentId) {
+    Optional<DocumentPreview> preview =
+        contentPreviewRepository.findByDocumentId(documentId);
+    if (preview.isEmpty()) {
+      return Optional.empty();
+    }
+    DocumentPreview found = preview.get();
+    if (found.status() == null) {
+      schedule(found.storageKey(), found.sourceType(), found.sourceSize());
+      return Optional.empty();
+    }
+    if (found.status() != ContentPreviewRepository.Status.READY) {
+      return Optional.empty();
+    }
+    return Optional.of(new PreviewDTO(found.storageKey(), found.contentType(),
+                                      found.data(), found.createdDate()));
+  }
+
+  private boolean isRenderable(String storageKey, String mimeType,
+                               long size) {
+    ApplicationProperties.Storage.Preview preview =
+        applicationProperties.getStorage().getPreview();
+    return preview.isEnabled() && storageKey != null &&
+        size <= preview.getMaxSourceSize() &&
+        PreviewRenderer.supports(mimeType);
+  }
+
+  private void submit(String storageKey, String mimeType) {
+    try {
+      executor.execute(() -> {
+        try {
+          render(storageKey, mimeType);
+        } catch (RuntimeException e) {
+          log.warn("Could not save the preview of blob {}", storageKey, e);
+        }
+      });
+    } catch (TaskRejectedException e) {
+      log.debug("Preview queue full, blob {} is rendered on demand",
+                storageKey);
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.security.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class admitting the uploads and downloads of bytes, so that a few
+ * users transferring many large files cannot hold all the request threads
+ * and database connections and starve the other requests.
+ * <p>
+ * A transfer is admitted while the bytes in flight, in total and for its
+ * user, stay within their limits. Otherwise it waits in a bounded queue for
+ * other transfers to end, and is rejected once the queue is full or its wait
+ * times out. A transfer larger than a limit is admitted alone, and one of
+ * unknown size counts as the per-user limit.
+ * <p>
+ * The transfers queued and the bytes in flight are reported in the
+ * {@value #METER_PREFIX}* gauges, along with the time spent waiting and the
+ * transfers rejected.
+ */
+@Service
+public class TransferAdmissionService {
+
+  public static final String METER_PREFIX = "transfer.admission.";
+
+  private static final String ANONYMOUS = "";
+
+  private final Logger log =
+      LoggerFactory.getLogger(TransferAdmissionService.class);
+
+  private final ApplicationProperties.Transfer properties;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition released = lock.newCondition();
+
+  private final Map<String, Long> bytesByUser = new HashMap<>();
+
+  private long bytes;
+
+  private int queued;
+
+  private final Timer waits;
+
+  private final Counter queueFullRejections;
+
+  private final Counter timeoutRejections;
+
+  public TransferAdmissionService(ApplicationProperties applicationProperties,
+                                  MeterRegistry registry) {
+    this.properties = applicationProperties.getTransfer();
+    Gauge.builder(METER_PREFIX + "queued", this, s -> s.queued)
+        .description("Transfers waiting to be admitted")
+        .register(registry);
+    Gauge.builder(METER_PREFIX + "bytes", this, s -> s.bytes)
+        .description("Bytes of the transfers in flight")
+        .baseUnit("bytes")
+        .register(registry);
+    this.waits = Timer.builder(METER_PREFIX + "wait")
+                     .description("Time transfers waited to be admitted")
+                     .register(registry);
+    this.queueFullRejections = rejections("queue-full").register(registry);
+    this.timeoutRejections = rejections("timeout").register(registry);
+  }
+
+  /**
+   * A transfer admitted, to be closed once its bytes are transferred.
+   */
+  public final class Permit implements AutoCloseable {
+
+    private final String user;
+
+    private final long weight;
+
+    private boolean closed;
+
+    private Permit(String user, long weight) {
+      this.user = user;
+      this.weight = weight;
+    }
+
+    @Override
+    public void close() {
+      if (closed || weight == 0) {
+        return;
+      }
+      closed = true;
+      release(user, weight);
+    }
+  }
+
+  /**
+   * Admits a transfer of the current user, waiting for room if too many bytes
+   * are in flight.
+   *
+   * @param size the number of bytes to transfer, negative if unknown.
+   * @return the permit of the transfer, to be closed once it ends.
+   * @throws TransferRejectedException if the transfer cannot be admitted in
+   *     time.
+   */
+  public Permit admit(long size) {
+    String user = SecurityUtils.getCurrentUserLogin().orElse(ANONYMOUS);
+    if (!properties.isEnabled() || size == 0) {
+      return new Permit(user, 0);
+    }
+    long weight = weight(size);
+    long start = System.nanoTime();
+    lock.lock();
+    try {
+      if (!fits(user, weight)) {
+        await(user, weight);
+      }
+      bytes += weight;
+      bytesByUser.merge(user, weight, Long::sum);
+    } finally {
+      lock.unlock();
+    }
+    waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    return new Permit(user, weight);
+  }
+
+  private void await(String user, long weight) {
+    if (queued >= properties.getMaxQueued()) {
+      queueFullRejections.increment();
+      throw rejected(user, "queue full");
+    }
+    queued++;
+    try {
+      long remaining = properties.getQueueTimeout().toNanos();
+      while (!fits(user, weight)) {
+        if (remaining <= 0) {
+          timeoutRejections.increment();
+          throw rejected(user, "timed out");
+        }
+        remaining = released.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw rejected(user, "interrupted");
+    } finally {
+      queued--;
+    }
+  }
+
+  private void release(String user, long weight) {
+    lock.lock();
+    try {
+      bytes -= weight;
+      bytesByUser.computeIfPresent(
+          user, (u, userBytes) -> userBytes == weight ? null
+                                                      : userBytes - weight);
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the bytes a transfer counts for, at most the smallest limit so
+   *     that it can always be admitted alone.
+   */
+  private long weight(long size) {
+    long limit = Math.min(properties.getMaxBytes(),
+                          properties.getMaxBytesPerUser());
+    return size < 0 ? limit : Math.min(size, limit);
+  }
+
+  private boolean fits(String user, long weight) {
+    long userBytes = bytesByUser.getOrDefault(user, 0L);
+    return bytes + weight <= properties.getMaxBytes() &&
+        userBytes + weight <= properties.getMaxBytesPerUser();
+  }
+
+  private TransferRejectedException rejected(String user, String reason) {
+    log.debug("Rejected a transfer of user '{}': {}", user, reason);
+    return new TransferRejectedException(
+        "Too many bytes in flight, " + reason, properties.getRetryAfter());
+  }
+
+  private static Counter.Builder rejections(String reason) {
+    return Counter.builder(METER_PREFIX + "rejections")
+        .description("Transfers rejected")
+        .tag("reason", reason);
+  }
+}
@@ -0,0 +1,24 @@
+package com.fileuploader.app.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a transfer of bytes is not admitted, too many bytes being in
+ * flight already.
+ */
+public class TransferRejectedException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Duration retryAfter;
+
+  public TransferRejectedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * @return how long the client should wait before trying again.
+   */
+  public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,305 @@
+package com.fileuploader.app.service;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.domain.UploadSession;
+import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.repository.UploadSessionRepository;
+import com.fileuploader.app.service.dto.UploadSessionDTO;
+import com.fileuploader.app.service.storage.StoredBlob;
+import com.fileuploader.app.service.storage.UploadStagingArea;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service class for resumable uploads: a client opens an
+ * {@link UploadSession}, uploads its chunks in any order and possibly in
+ * parallel, queries the chunks received so far to resume after a failure,
+ * then completes the session to create the document.
+ */
+@Service
+@Transactional
+public class UploadSessionService {
+
+  private final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+
+  private final UploadSessionRepository uploadSessionRepository;
+
+  private final CarRepository carRepository;
+
+  private final UploadStagingArea uploadStagingArea;
+
+  private final ContentStorageService contentStorageService;
+
+  private final ApplicationProperties applicationProperties;
+
+  private final TransactionTemplate transactionTemplate;
+
+  public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+                              CarRepository carRepository,
+                              UploadStagingArea uploadStagingArea,
+                              ContentStorageService contentStorageService,
+                              ApplicationProperties applicationProperties,
+                              TransactionTemplate transactionTemplate) {
+    this.uploadSessionRepository = uploadSessionRepository;
+    this.carRepository = carRepository;
+    this.uploadStagingArea = uploadStagingArea;
+    this.contentStorageService = contentStorageService;
+    this.applicationProperties = applicationProperties;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  /**
+   * Opens an upload session.
+   *
+   * @param uploadSessionDTO the car, title, MIME type and size of the document
+   *     to upload, and optionally the size of its chunks.
+   * @return the new upload session.
+   * @throws InvalidUploadException if the car does not exist, the document
+   *     is too large or the chunk size is too large or too small for it.
+   */
+  public UploadSessionDTO create(UploadSessionDTO uploadSessionDTO) {
+    ApplicationProperties.Storage.Upload upload =
+        applicationProperties.getStorage().getUpload();
+    Car car = carRepository.findById(uploadSessionDTO.getCarId())
+                  .orElseThrow(()
+                                   -> new InvalidUploadException(
+                                       "Car not found", "carnotfound"));
+    int chunkSize = Objects.requireNonNullElse(uploadSessionDTO.getChunkSize(),
+                                               upload.getDefaultChunkSize());
+    if (chunkSize > upload.getMaxChunkSize()) {
+      throw new InvalidUploadException("Chunk size exceeds " +
+                                           upload.getMaxChunkSize(),
+                                       "chunksizeinvalid");
+    }
+    long size = uploadSessionDTO.getSize();
+    if (size > upload.getMaxSize()) {
+      throw new InvalidUploadException("Size exceeds " + upload.getMaxSize(),
+                                       "sizeinvalid");
+    }
+    if (UploadSession.chunkCount(size, chunkSize) > Integer.MAX_VALUE) {
+      throw new InvalidUploadException("Chunk size is too small for the size",
+                                       "chunksizeinvalid");
+    }
+    Instant now = Instant.now();
+    UploadSession uploadSession =
+        new UploadSession()
+            .id(UUID.randomUUID().toString())
+            .car(car)
+            .title(uploadSessionDTO.getTitle())
+            .mimeType(uploadSessionDTO.getMimeType())
+            .size(size)
+            .chunkSize(chunkSize)
+            .createdDate(now)
+            .expiresDate(now.plus(upload.getExpiry()));
+    uploadSessionRepository.save(uploadSession);
+    log.debug("Created Upload Session: {}", uploadSession);
+    return toDto(uploadSession, new TreeSet<>());
+  }
+
+  /**
+   * @param id the id of the upload session.
+   * @return the upload session with the chunks received so far, or empty if
+   *     it does not exist or has expired.
+   * @throws IOException if the received chunks cannot be listed.
+   */
+  @Transactional(readOnly = true)
+  public Optional<UploadSessionDTO> findOne(String id) throws IOException {
+    Optional<UploadSession> uploadSession = findActive(id);
+    if (uploadSession.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(toDto(uploadSession.get(),
+                             uploadStagingArea.listChunks(id)));
+  }
+
+  /**
+   * Receives a chunk of an upload session, replacing any previous upload of
+   * the same chunk.
+   *
+   * @param id the id of the upload session.
+   * @param index the zero-based index of the chunk.
+   * @param data the bytes of the chunk, not closed.
+   * @param sha256 the expected hexadecimal SHA-256 of the chunk, may be
+   *     {@code null}.
+   * @return the upload session with the chunks received so far, or empty if
+   *     it does not exist or has expired.
+   * @throws InvalidUploadException if the index, the length or the checksum
+   *     of the chunk is wrong, in which case the chunk is discarded.
+   * @throws IOException if the chunk cannot be read or staged.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public Optional<UploadSessionDTO> putChunk(String id, int index,
+                                             InputStream data, String sha256)
+      throws IOException {
+    // the session is read in its own transaction, no connection being held
+    // while the chunk is received
+    Optional<UploadSession> found = findActive(id);
+    if (found.isEmpty()) {
+      return Optional.empty();
+    }
+    UploadSession uploadSession = found.get();
+    if (index < 0 || index >= uploadSession.getChunkCount()) {
+      throw new InvalidUploadException("Chunk index out of range",
+                                       "chunkindexinvalid");
+    }
+    long length = uploadSession.getChunkLength(index);
+    StoredBlob chunk =
+        uploadStagingArea.putChunk(id, index, data, length, sha256);
+    if (chunk.size() != length) {
+      throw new InvalidUploadException("Chunk " + index + " must be " + length +
+                                           " bytes long",
+                                       "chunksizeinvalid");
+    }
+    if (sha256 != null && !sha256.equalsIgnoreCase(chunk.sha256())) {
+      throw new InvalidUploadException("Chunk " + index +
+                                           " does not match its checksum",
+                                       "checksummismatch");
+    }
+    return Optional.of(toDto(uploadSession, uploadStagingArea.listChunks(id)));
+  }
+
+  /**
+   * Assembles the chunks of an upload session into a new document, streaming
+   * them to storage one after the other, then closes the session.
+   *
+   * @param id the id of the upload session.
+   * @param sha256 the expected hexadecimal SHA-256 of the whole document, may
+   *     be {@code null}.
+   * @return the new document, or empty if the session does not exist or has
+   *     expired.
+   * @throws InvalidUploadException if chunks are missing or the document
+   *     does not match its checksum, in which case the session is kept.
+   * @throws IOException if the chunks cannot be read.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public Optional<Document> complete(String id, String sha256)
+      throws IOException {
+    // the chunks are streamed to storage outside of any transaction, only the
+    // document is then stored in a short one
+    Optional<UploadSession> found = findActive(id);
+    if (found.isEmpty()) {
+      return Optional.empty();
+    }
+    UploadSession uploadSession = found.get();
+    int chunkCount = uploadSession.getChunkCount();
+    SortedSet<Integer> received = uploadStagingArea.listChunks(id);
+    // indexes are checked on upload, so all chunks are there if none is missing
+    if (received.size() != chunkCount) {
+      throw new InvalidUploadException("Chunks are missing", "chunksmissing");
+    }
+    StoredBlob blob;
+    try (InputStream in = uploadStagingArea.openChunks(id, chunkCount)) {
+      blob = contentStorageService.writeBlob(uploadSession.getMimeType(), in);
+    }
+    if (sha256 != null && !sha256.equalsIgnoreCase(blob.sha256())) {
+      // the blob is left to the garbage collection
+      throw new InvalidUploadException("Document does not match its checksum",
+                                       "checksummismatch");
+    }
+    Optional<Document> document = transactionTemplate.execute(
+        status -> findActive(id).map(active -> {
+          Document stored = contentStorageService.store(
+              active.getCar(), active.getTitle(), active.getMimeType(), blob);
+          uploadSessionRepository.delete(active);
+          return stored;
+        }));
+    if (document.isEmpty()) {
+      // aborted or expired while the chunks were assembled
+      return Optional.empty();
+    }
+    uploadStagingArea.delete(id);
+    log.debug("Completed Upload Session {} as Document {}", id,
+              document.get().getId());
+    return document;
+  }
+
+  /**
+   * Aborts an upload session, deleting its chunks.
+   *
+   * @param id the id of the upload session.
+   * @return whether the session existed.
+   * @throws IOException if the chunks cannot be deleted.
+   */
+  public boolean delete(String id) throws IOException {
+    Optional<UploadSession> uploadSession = uploadSessionRepository.findById(id);
+    if (uploadSession.isEmpty()) {
+      return false;
+    }
+    uploadSessionRepository.delete(uploadSession.get());
+    uploadStagingArea.delete(id);
+    return true;
+  }
+
+  /**
+   * Expired upload sessions are deleted along with their chunks, as are the
+   * chunks left without a session.
+   * <p>
+   * This is scheduled to get fired every hour.
+   */
+  @Scheduled(cron = "0 0 * * * ?")
+  public void removeExpiredUploadSessions() {
+    Instant now = Instant.now();
+    uploadSessionRepository.findAllByExpiresDateBefore(now).forEach(
+        uploadSession -> {
+          log.debug("Deleting expired Upload Session {}", uploadSession.getId());
+          uploadSessionRepository.delete(uploadSession);
+          deleteStagedChunks(uploadSession.getId());
+        });
+    try {
+      Instant before =
+          now.minus(applicationProperties.getStorage().getUpload().getExpiry());
+      for (String id : uploadStagingArea.listSessions(before)) {
+        if (!uploadSessionRepository.existsById(id)) {
+          log.debug("Deleting chunks of unknown Upload Session {}", id);
+          deleteStagedChunks(id);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not list staged upload sessions", e);
+    }
+  }
+
+  private void deleteStagedChunks(String id) {
+    try {
+      uploadStagingArea.delete(id);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Optional<UploadSession> findActive(String id) {
+    return uploadSessionRepository.findById(id).filter(
+        uploadSession -> uploadSession.getExpiresDate().isAfter(Instant.now()));
+  }
+
+  private static UploadSessionDTO toDto(UploadSession uploadSession,
+                                        SortedSet<Integer> receivedChunks) {
+    UploadSessionDTO uploadSessionDTO = new UploadSessionDTO();
+    uploadSessionDTO.setId(uploadSession.getId());
+    uploadSessionDTO.setCarId(uploadSession.getCar().getId());
+    uploadSessionDTO.setTitle(uploadSession.getTitle());
+    uploadSessionDTO.setMimeType(uploadSession.getMimeType());
+    uploadSessionDTO.setSize(uploadSession.getSize());
+    uploadSessionDTO.setChunkSize(uploadSession.getChunkSize());
+    uploadSessionDTO.setChunkCount(uploadSession.getChunkCount());
+    uploadSessionDTO.setExpiresDate(uploadSession.getExpiresDate());
+    uploadSessionDTO.setReceivedChunks(receivedChunks);
+    return uploadSessionDTO;
+  }
+}
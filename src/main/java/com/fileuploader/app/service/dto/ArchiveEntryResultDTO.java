@@ -0,0 +1,86 @@
+package com.fileuploader.app.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO reporting what became of one entry of an ingested archive.
+ */
+public class ArchiveEntryResultDTO implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The outcome of an entry.
+   */
+  public enum Status {
+    /** A document was created from the entry. */
+    CREATED,
+    /** The entry is not a regular file. */
+    SKIPPED,
+    /** The entry could not be stored. */
+    FAILED
+  }
+
+  private final String name;
+
+  private final Status status;
+
+  private final Long documentId;
+
+  private final Long size;
+
+  private final String sha256;
+
+  private final String message;
+
+  private ArchiveEntryResultDTO(String name, Status status, Long documentId,
+                                Long size, String sha256, String message) {
+    this.name = name;
+    this.status = status;
+    this.documentId = documentId;
+    this.size = size;
+    this.sha256 = sha256;
+    this.message = message;
+  }
+
+  public static ArchiveEntryResultDTO created(String name, Long documentId,
+                                              Long size, String sha256) {
+    return new ArchiveEntryResultDTO(name, Status.CREATED, documentId, size,
+                                     sha256, null);
+  }
+
+  public static ArchiveEntryResultDTO skipped(String name) {
+    return new ArchiveEntryResultDTO(name, Status.SKIPPED, null, null, null,
+                                     null);
+  }
+
+  public static ArchiveEntryResultDTO failed(String name, String message) {
+    return new ArchiveEntryResultDTO(name, Status.FAILED, null, null, null,
+                                     message);
+  }
+
+  public String getName() { return name; }
+
+  public Status getStatus() { return status; }
+
+  public Long getDocumentId() { return documentId; }
+
+  public Long getSize() { return size; }
+
+  public String getSha256() { return sha256; }
+
+  public String getMessage() { return message; }
+
+  // prettier-ignore
+  @Override
+  public String toString() {
+    return "ArchiveEntryResultDTO{"
+        + "name='" + name + "'"
+        + ", status=" + status
+        + ", documentId=" + documentId
+        + ", size=" + size
+        + ", sha256='" + sha256 + "'"
+        + ", message='" + message + "'"
+        + "}";
+  }
+}
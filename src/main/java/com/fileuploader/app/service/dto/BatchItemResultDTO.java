@@ -0,0 +1,94 @@
+package com.fileuploader.app.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO reporting what became of one item of a batch of changes.
+ */
+public class BatchItemResultDTO implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The outcome of an item.
+   */
+  public enum Status {
+    /** The entity was created. */
+    CREATED,
+    /** The entity was updated. */
+    UPDATED,
+    /** The entity was deleted. */
+    DELETED,
+    /** The item is not valid and was left out. */
+    INVALID,
+    /** The entity does not exist. */
+    NOT_FOUND,
+    /** The entity cannot be changed in its current state. */
+    CONFLICT
+  }
+
+  private final int index;
+
+  private final Long id;
+
+  private final Status status;
+
+  private final String message;
+
+  private BatchItemResultDTO(int index, Long id, Status status,
+                             String message) {
+    this.index = index;
+    this.id = id;
+    this.status = status;
+    this.message = message;
+  }
+
+  public static BatchItemResultDTO created(int index, Long id) {
+    return new BatchItemResultDTO(index, id, Status.CREATED, null);
+  }
+
+  public static BatchItemResultDTO updated(int index, Long id) {
+    return new BatchItemResultDTO(index, id, Status.UPDATED, null);
+  }
+
+  public static BatchItemResultDTO deleted(int index, Long id) {
+    return new BatchItemResultDTO(index, id, Status.DELETED, null);
+  }
+
+  public static BatchItemResultDTO invalid(int index, Long id,
+                                           String message) {
+    return new BatchItemResultDTO(index, id, Status.INVALID, message);
+  }
+
+  public static BatchItemResultDTO notFound(int index, Long id) {
+    return new BatchItemResultDTO(index, id, Status.NOT_FOUND,
+                                  "Entity not found");
+  }
+
+  public static BatchItemResultDTO conflict(int index, Long id,
+                                            String message) {
+    return new BatchItemResultDTO(index, id, Status.CONFLICT, message);
+  }
+
+  /**
+   * @return the position of the item in the batch.
+   */
+  public int getIndex() { return index; }
+
+  public Long getId() { return id; }
+
+  public Status getStatus() { return status; }
+
+  public String getMessage() { return message; }
+
+  // prettier-ignore
+  @Override
+  public String toString() {
+    return "BatchItemResultDTO{"
+        + "index=" + index
+        + ", id=" + id
+        + ", status=" + status
+        + ", message='" + message + "'"
+        + "}";
+  }
+}
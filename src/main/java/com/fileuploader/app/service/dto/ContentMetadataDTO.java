@@ -0,0 +1,52 @@
+package com.fileuploader.app.service.dto;
+
+import com.fileuploader.app.domain.Content;
+import java.io.Serializable;
+
+/**
+ * A DTO listing a {@link Content} without its bytes, which are only served
+ * by the download endpoint.
+ */
+public class ContentMetadataDTO implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Long id;
+
+  private final String dataContentType;
+
+  private final Long dataSize;
+
+  private final String sha256;
+
+  private final Long documentId;
+
+  public ContentMetadataDTO(Content content) {
+    this.id = content.getId();
+    this.dataContentType = content.getDataContentType();
+    this.dataSize = content.getDataSize();
+    this.sha256 = content.getSha256();
+    this.documentId =
+        content.getDocument() == null ? null : content.getDocument().getId();
+  }
+
+  public Long getId() { return id; }
+
+  public String getDataContentType() { return dataContentType; }
+
+  public Long getDataSize() { return dataSize; }
+
+  public String getSha256() { return sha256; }
+
+  public Long getDocumentId() { return documentId; }
+
+  // prettier-ignore
+  @Override
+  public String toString() {
+    return "ContentMetadataDTO{"
+        + "id=" + id + ", dataContentType='" + dataContentType + "'"
+        + ", dataSize=" + dataSize + ", sha256='" + sha256 + "'"
+        + ", documentId=" + documentId
+        + "}";
+  }
+}
@@ -0,0 +1,51 @@
+package com.fileuploader.app.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO holding the thumbnail of the content of a
+ * {@link com.fileuploader.app.domain.Document}.
+ */
+public class PreviewDTO implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String storageKey;
+
+  private final String contentType;
+
+  private final byte[] data;
+
+  private final Instant createdDate;
+
+  public PreviewDTO(String storageKey, String contentType, byte[] data,
+                    Instant createdDate) {
+    this.storageKey = storageKey;
+    this.contentType = contentType;
+    this.data = data;
+    this.createdDate = createdDate;
+  }
+
+  /**
+   * @return the key of the blob the preview was rendered from.
+   */
+  public String getStorageKey() { return storageKey; }
+
+  public String getContentType() { return contentType; }
+
+  public byte[] getData() { return data; }
+
+  public Instant getCreatedDate() { return createdDate; }
+
+  // prettier-ignore
+  @Override
+  public String toString() {
+    return "PreviewDTO{"
+        + "storageKey='" + storageKey + "'"
+        + ", contentType='" + contentType + "'"
+        + ", size=" + data.length
+        + ", createdDate='" + createdDate + "'"
+        + "}";
+  }
+}
@@ -0,0 +1,79 @@
+package com.fileuploader.app.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO describing the stored bytes of a
+ * {@link com.fileuploader.app.domain.Content}, without the bytes themselves.
+ */
+public class StoredContentDTO implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Long contentId;
+
+  private final String storageKey;
+
+  private final long length;
+
+  private final String contentType;
+
+  private final String sha256;
+
+  private final String filename;
+
+  private final Instant lastModified;
+
+  private final Long compressedLength;
+
+  public StoredContentDTO(Long contentId, String storageKey, long length,
+                          String contentType, String sha256, String filename,
+                          Instant lastModified, Long compressedLength) {
+    this.contentId = contentId;
+    this.storageKey = storageKey;
+    this.length = length;
+    this.contentType = contentType;
+    this.sha256 = sha256;
+    this.filename = filename;
+    this.lastModified = lastModified;
+    this.compressedLength = compressedLength;
+  }
+
+  public Long getContentId() { return contentId; }
+
+  public String getStorageKey() { return storageKey; }
+
+  public long getLength() { return length; }
+
+  public String getContentType() { return contentType; }
+
+  public String getSha256() { return sha256; }
+
+  public String getFilename() { return filename; }
+
+  /**
+   * @return when the bytes were first stored, or {@code null} if unknown.
+   */
+  public Instant getLastModified() { return lastModified; }
+
+  /**
+   * @return the size in bytes of the bytes as stored gzip-compressed, or
+   *     {@code null} if they are stored uncompressed.
+   */
+  public Long getCompressedLength() { return compressedLength; }
+
+  // prettier-ignore
+  @Override
+  public String toString() {
+    return "StoredContentDTO{"
+        + "contentId=" + contentId + ", storageKey='" + storageKey + "'"
+        + ", length=" + length
+        + ", contentType='" + contentType + "'"
+        + ", sha256='" + sha256 + "'"
+        + ", filename='" + filename + "'"
+        + ", lastModified='" + lastModified + "'"
+        + ", compressedLength=" + compressedLength
+        + "}";
+  }
+}
@@ -0,0 +1,92 @@
+package com.fileuploader.app.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.SortedSet;
+
+/**
+ * A DTO representing a resumable upload session, with the chunks received so
+ * far.
+ */
+public class UploadSessionDTO implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY) private String id;
+
+  @NotNull private Long carId;
+
+  @NotNull private String title;
+
+  private String mimeType;
+
+  @NotNull @Min(0) private Long size;
+
+  @Min(1) private Integer chunkSize;
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private Integer chunkCount;
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private Instant expiresDate;
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private SortedSet<Integer> receivedChunks;
+
+  public String getId() { return id; }
+
+  public void setId(String id) { this.id = id; }
+
+  public Long getCarId() { return carId; }
+
+  public void setCarId(Long carId) { this.carId = carId; }
+
+  public String getTitle() { return title; }
+
+  public void setTitle(String title) { this.title = title; }
+
+  public String getMimeType() { return mimeType; }
+
+  public void setMimeType(String mimeType) { this.mimeType = mimeType; }
+
+  public Long getSize() { return size; }
+
+  public void setSize(Long size) { this.size = size; }
+
+  public Integer getChunkSize() { return chunkSize; }
+
+  public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
+
+  public Integer getChunkCount() { return chunkCount; }
+
+  public void setChunkCount(Integer chunkCount) {
+    this.chunkCount = chunkCount;
+  }
+
+  public Instant getExpiresDate() { return expiresDate; }
+
+  public void setExpiresDate(Instant expiresDate) {
+    this.expiresDate = expiresDate;
+  }
+
+  public SortedSet<Integer> getReceivedChunks() { return receivedChunks; }
+
+  public void setReceivedChunks(SortedSet<Integer> receivedChunks) {
+    this.receivedChunks = receivedChunks;
+  }
+
+  // prettier-ignore
+  @Override
+  public String toString() {
+    return "UploadSessionDTO{"
+        + "id='" + id + "'"
+        + ", carId=" + carId + ", title='" + title + "'"
+        + ", mimeType='" + mimeType + "'"
+        + ", size=" + size + ", chunkSize=" + chunkSize
+        + ", expiresDate='" + expiresDate + "'"
+        + "}";
+  }
+}
@@ -0,0 +1,33 @@
+package com.fileuploader.app.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A forward-only reader over the entries of an archive read from a stream,
+ * never extracting them to disk.
+ */
+public interface ArchiveReader {
+  /**
+   * An entry of an archive.
+   *
+   * @param name the path of the entry within the archive.
+   * @param file whether the entry is a regular file, as opposed to a
+   *     directory, a link or any other special entry.
+   */
+  record Entry(String name, boolean file) {}
+
+  /**
+   * Moves to the next entry, skipping the unread bytes of the current one.
+   *
+   * @return the next entry, or {@code null} at the end of the archive.
+   * @throws IOException if the archive cannot be read or is malformed.
+   */
+  Entry nextEntry() throws IOException;
+
+  /**
+   * @return a stream over the bytes of the current entry, ending with the
+   *     entry; closing it has no effect.
+   */
+  InputStream entryStream();
+}
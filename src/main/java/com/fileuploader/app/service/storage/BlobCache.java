@@ -0,0 +1,158 @@
+package com.fileuploader.app.service.storage;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheEventListenerConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventType;
+import org.springframework.stereotype.Component;
+
+/**
+ * A cache of the bytes of the most recently read blobs of the
+ * {@link BlobStore}, bounded by their total size in bytes.
+ * <p>
+ * The bytes are held off-heap, so a full cache puts no pressure on the
+ * garbage collector, and only blobs up to a maximum size are admitted, so a
+ * few large downloads never evict all the small hot ones. Blobs are
+ * immutable, so entries never go stale: deleting a blob only frees its entry
+ * early.
+ * <p>
+ * Hits, misses, rejected blobs and evictions are counted in the
+ * {@value #METER_PREFIX}* meters.
+ */
+@Component
+public class BlobCache {
+
+  public static final String METER_PREFIX = "blob.cache.";
+
+  private static final String CACHE_NAME = "blobs";
+
+  private static final String COMPRESSED_SUFFIX = ".gz";
+
+  private final BlobStore blobStore;
+
+  private final long maxEntrySize;
+
+  private final CacheManager cacheManager;
+
+  private final Cache<String, byte[]> cache;
+
+  private final Counter hits;
+
+  private final Counter misses;
+
+  private final Counter rejections;
+
+  private final Counter evictions;
+
+  public BlobCache(BlobStore blobStore,
+                   ApplicationProperties applicationProperties,
+                   MeterRegistry registry) {
+    this.blobStore = blobStore;
+    ApplicationProperties.Storage.Cache properties =
+        applicationProperties.getStorage().getCache();
+    this.maxEntrySize = properties.getMaxEntrySize();
+    this.hits = counter("gets", "hit").register(registry);
+    this.misses = counter("gets", "miss").register(registry);
+    this.rejections = counter("rejections", null).register(registry);
+    this.evictions = counter("evictions", null).register(registry);
+    if (!properties.isEnabled()) {
+      this.cacheManager = null;
+      this.cache = null;
+      return;
+    }
+    CacheEventListener<String, byte[]> evictionListener =
+        event -> evictions.increment();
+    // not part of the JCache manager, so that Hibernate never sees it
+    this.cacheManager =
+        CacheManagerBuilder.newCacheManagerBuilder()
+            .withCache(
+                CACHE_NAME,
+                CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(
+                        String.class, byte[].class,
+                        ResourcePoolsBuilder.newResourcePoolsBuilder().offheap(
+                            properties.getSize(), MemoryUnit.B))
+                    .withService(CacheEventListenerConfigurationBuilder
+                                     .newEventListenerConfiguration(
+                                         evictionListener, EventType.EVICTED)
+                                     .unordered()
+                                     .asynchronous()))
+            .build(true);
+    this.cache = cacheManager.getCache(CACHE_NAME, String.class, byte[].class);
+  }
+
+  @PreDestroy
+  public void close() {
+    if (cacheManager != null) {
+      cacheManager.close();
+    }
+  }
+
+  /**
+   * Reads the stored bytes of a blob from the cache, reading them from the
+   * blob store and caching them on a miss.
+   *
+   * @param key the key of the blob.
+   * @param compressed whether to read the gzip-compressed bytes of the blob
+   *     rather than the original ones.
+   * @param size the size in bytes of the bytes to read.
+   * @return the bytes, or {@code null} if they are too large to be cached and
+   *     are to be streamed from the blob store instead.
+   * @throws IOException if the blob cannot be read.
+   */
+  public byte[] read(String key, boolean compressed, long size)
+      throws IOException {
+    if (cache == null) {
+      return null;
+    }
+    if (size > maxEntrySize) {
+      rejections.increment();
+      return null;
+    }
+    String cacheKey = compressed ? key + COMPRESSED_SUFFIX : key;
+    byte[] bytes = cache.get(cacheKey);
+    if (bytes != null) {
+      hits.increment();
+      return bytes;
+    }
+    misses.increment();
+    try (InputStream in = compressed ? blobStore.openCompressed(key)
+                                     : blobStore.open(key, 0)) {
+      bytes = in.readNBytes((int)size);
+    }
+    if (bytes.length != size) {
+      // shorter than expected, left to the caller to report
+      return null;
+    }
+    cache.put(cacheKey, bytes);
+    return bytes;
+  }
+
+  /**
+   * Frees the entries of a blob.
+   *
+   * @param key the key of the blob.
+   */
+  public void evict(String key) {
+    if (cache != null) {
+      cache.remove(key);
+      cache.remove(key + COMPRESSED_SUFFIX);
+    }
+  }
+
+  private static Counter.Builder counter(String name, String result) {
+    Counter.Builder builder = Counter.builder(METER_PREFIX + name);
+    return result != null ? builder.tag("result", result) : builder;
+  }
+}
@@ -0,0 +1,122 @@
+package com.fileuploader.app.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Storage for the bytes of {@link com.fileuploader.app.domain.Content}
+ * entities, which only keep the key of their blob.
+ * <p>
+ * Blobs are immutable: a key always designates the same bytes, and a blob
+ * only becomes visible under its key once it has been completely written.
+ * <p>
+ * A store may keep a blob gzip-compressed at rest; {@link #open} always reads
+ * the original bytes back, while {@link #openCompressed} reads the stored
+ * ones, to be sent as is to clients accepting gzip.
+ */
+public interface BlobStore {
+  /**
+   * Writes a blob, reading {@code in} until it is exhausted.
+   *
+   * @param in the bytes of the blob, not closed.
+   * @return the key, size and checksum of the written blob.
+   * @throws IOException if the blob cannot be read or written.
+   */
+  default StoredBlob put(InputStream in) throws IOException {
+    return put(in, null);
+  }
+
+  /**
+   * Writes a blob, reading {@code in} until it is exhausted, compressing it
+   * if its MIME type usually compresses well and its bytes actually do.
+   *
+   * @param in the bytes of the blob, not closed.
+   * @param mimeType the MIME type of the blob, may be {@code null}.
+   * @return the key, size and checksum of the written blob.
+   * @throws IOException if the blob cannot be read or written.
+   */
+  StoredBlob put(InputStream in, String mimeType) throws IOException;
+
+  /**
+   * Opens a blob for reading.
+   *
+   * @param key the key of the blob.
+   * @param offset the zero-based position of the first byte to read.
+   * @return a stream over the blob, to be closed by the caller.
+   * @throws IOException if the blob does not exist or cannot be read.
+   */
+  InputStream open(String key, long offset) throws IOException;
+
+  /**
+   * @param key the key of the blob.
+   * @return the size in bytes of the gzip-compressed blob, or empty if the
+   *     blob does not exist or is stored uncompressed.
+   */
+  OptionalLong compressedSize(String key);
+
+  /**
+   * Opens the gzip-compressed bytes of a blob for reading.
+   *
+   * @param key the key of the blob.
+   * @return a stream over the compressed blob, to be closed by the caller.
+   * @throws IOException if the blob does not exist, is stored uncompressed or
+   *     cannot be read.
+   */
+  InputStream openCompressed(String key) throws IOException;
+
+  /**
+   * @param key the key of the blob.
+   * @return whether a blob is stored under {@code key}.
+   */
+  boolean exists(String key);
+
+  /**
+   * @param key the key of the blob.
+   * @return the instant the blob was last written, writing bytes that are
+   *     already stored counting as a write, or empty if it does not exist.
+   */
+  Optional<Instant> lastModified(String key);
+
+  /**
+   * Deletes a blob, if it exists. Its bytes are kept aside until
+   * {@link #purge purged}, so that it can still be restored.
+   *
+   * @param key the key of the blob.
+   * @throws IOException if the blob cannot be deleted.
+   */
+  void delete(String key) throws IOException;
+
+  /**
+   * Restores a blob deleted but not purged yet.
+   *
+   * @param key the key of the blob.
+   * @return whether the blob was restored, {@code false} if it was not
+   *     deleted or already purged.
+   * @throws IOException if the blob cannot be restored.
+   */
+  boolean restore(String key) throws IOException;
+
+  /**
+   * Discards the bytes of the blobs deleted before an instant, which can no
+   * longer be restored.
+   *
+   * @param deletedBefore the instant the blobs must be deleted before.
+   * @return the number of files discarded.
+   * @throws IOException if the deleted blobs cannot be listed.
+   */
+  int purge(Instant deletedBefore) throws IOException;
+
+  /**
+   * Lists the blobs last written before an instant, writing bytes that are
+   * already stored counting as a write.
+   *
+   * @param modifiedBefore the instant the blobs must be last written before.
+   * @return the keys of the blobs, to be closed by the caller.
+   * @throws IOException if the blobs cannot be listed.
+   */
+  Stream<String> keys(Instant modifiedBefore) throws IOException;
+}
@@ -0,0 +1,83 @@
+package com.fileuploader.app.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * An {@link InputStream} over a blob still held in the legacy
+ * {@code content.data} column, fetched one chunk per query so that the whole
+ * blob is never loaded at once.
+ */
+public class DatabaseBlobInputStream extends InputStream {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final Long contentId;
+
+  private final int chunkSize;
+
+  private long position;
+
+  private byte[] chunk = EMPTY;
+
+  private int chunkOffset;
+
+  private boolean eof;
+
+  /**
+   * @param jdbcTemplate the template to query the blob with.
+   * @param contentId the id of the content row holding the blob.
+   * @param offset the zero-based position of the first byte to read.
+   * @param chunkSize the number of bytes fetched per query.
+   */
+  public DatabaseBlobInputStream(JdbcTemplate jdbcTemplate, Long contentId,
+                                 long offset, int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.contentId = contentId;
+    this.position = offset;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    if (len == 0) {
+      return 0;
+    }
+    if (chunkOffset == chunk.length && !fill()) {
+      return -1;
+    }
+    int n = Math.min(len, chunk.length - chunkOffset);
+    System.arraycopy(chunk, chunkOffset, b, off, n);
+    chunkOffset += n;
+    return n;
+  }
+
+  private boolean fill() {
+    if (eof) {
+      return false;
+    }
+    // SQL positions are one-based
+    byte[] next = jdbcTemplate.queryForObject(
+        "select substring(data, ?, ?) from content where id = ?", byte[].class,
+        position + 1, chunkSize, contentId);
+    if (next == null || next.length == 0) {
+      eof = true;
+      return false;
+    }
+    chunk = next;
+    chunkOffset = 0;
+    position += next.length;
+    return true;
+  }
+}
@@ -0,0 +1,395 @@
+package com.fileuploader.app.service.storage;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * A {@link BlobStore} keeping blobs as files on the local filesystem.
+ * <p>
+ * Blobs are content-addressed: the key of a blob is its SHA-256, and the file
+ * is sharded under two levels of directories named after the first four hex
+ * digits of the key, e.g. {@code blobs/ab/cd/abcd...}. A blob is first written
+ * to a temporary file, then synced and atomically renamed into place, so a
+ * reader never sees a partially written blob. Writing bytes that are already
+ * stored only refreshes the modification time of the existing blob.
+ * <p>
+ * A deleted blob is moved to {@code trash/} until purged, so that an upload
+ * referencing it while it was deleted can restore it.
+ * <p>
+ * A blob whose MIME type is configured as compressible is gzipped once
+ * written, and kept as {@code abcd....gz} if it shrinks enough; its first
+ * bytes are deflated first, so that data that does not compress is not
+ * compressed in full. The key remains the SHA-256 of the original bytes, so
+ * compressed and uncompressed copies of the same bytes are deduplicated
+ * alike.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.storage", name = "type",
+                       havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+  private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+  private static final String GZIP_SUFFIX = ".gz";
+
+  /** The number of bytes deflated to tell whether a blob compresses. */
+  private static final int PROBE_SIZE = 64 * 1024;
+
+  private final Logger log = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+  private final Path blobs;
+
+  private final Path tmp;
+
+  private final Path trash;
+
+  private final int chunkSize;
+
+  private final List<MimeType> compressibleTypes;
+
+  private final double maxRatio;
+
+  public FileSystemBlobStore(ApplicationProperties applicationProperties) {
+    ApplicationProperties.Storage storage = applicationProperties.getStorage();
+    Path root = Paths.get(storage.getRoot()).toAbsolutePath();
+    try {
+      this.blobs = Files.createDirectories(root.resolve("blobs"));
+      this.tmp = Files.createDirectories(root.resolve("tmp"));
+      this.trash = Files.createDirectories(root.resolve("trash"));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot create blob store in " + root, e);
+    }
+    this.chunkSize = storage.getChunkSize();
+    ApplicationProperties.Storage.Compression compression =
+        storage.getCompression();
+    this.compressibleTypes = compression.isEnabled()
+                                 ? compression.getMimeTypes()
+                                       .stream()
+                                       .map(MimeTypeUtils::parseMimeType)
+                                       .toList()
+                                 : List.of();
+    this.maxRatio = compression.getMaxRatio();
+    log.info("Storing blobs in {}", root);
+  }
+
+  @Override
+  public StoredBlob put(InputStream in, String mimeType) throws IOException {
+    Path temp = Files.createTempFile(tmp, "blob-", ".tmp");
+    Path compressed = null;
+    try {
+      HashingInputStream hashing = new HashingInputStream(in);
+      String key;
+      Path target;
+      boolean stored;
+      try (FileChannel channel =
+               FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        byte[] buffer = new byte[chunkSize];
+        int n;
+        while ((n = hashing.read(buffer)) != -1) {
+          ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+          while (chunk.hasRemaining()) {
+            channel.write(chunk);
+          }
+        }
+        key = hashing.getSha256();
+        target = find(key);
+        stored = target != null;
+      }
+      // a blob collected in the meantime is stored again from the new copy
+      stored = stored && touch(target);
+      long size = hashing.getCount();
+      if (stored) {
+        boolean uncompressed = target.equals(resolve(key));
+        return new StoredBlob(key, size, key,
+                              uncompressed ? null : Files.size(target));
+      }
+      Long compressedSize = null;
+      if (size > 0 && isCompressible(mimeType) && probe(temp, size)) {
+        compressed = Files.createTempFile(tmp, "blob-", ".gz.tmp");
+        long length = compress(temp, compressed);
+        if (length <= size * maxRatio) {
+          compressedSize = length;
+        }
+      }
+      Path source;
+      if (compressedSize != null) {
+        source = compressed;
+        target = resolveCompressed(key);
+      } else {
+        source = temp;
+        target = resolve(key);
+        try (FileChannel channel =
+                 FileChannel.open(temp, StandardOpenOption.WRITE)) {
+          channel.force(true);
+        }
+      }
+      Files.createDirectories(target.getParent());
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+      return new StoredBlob(key, size, key, compressedSize);
+    } finally {
+      Files.deleteIfExists(temp);
+      if (compressed != null) {
+        Files.deleteIfExists(compressed);
+      }
+    }
+  }
+
+  @Override
+  public InputStream open(String key, long offset) throws IOException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      return openDecompressed(key, offset);
+    }
+    try {
+      channel.position(offset);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return Channels.newInputStream(channel);
+  }
+
+  @Override
+  public OptionalLong compressedSize(String key) {
+    try {
+      return OptionalLong.of(Files.size(resolveCompressed(key)));
+    } catch (IOException e) {
+      return OptionalLong.empty();
+    }
+  }
+
+  @Override
+  public InputStream openCompressed(String key) throws IOException {
+    return Channels.newInputStream(
+        FileChannel.open(resolveCompressed(key), StandardOpenOption.READ));
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return find(key) != null;
+  }
+
+  @Override
+  public Optional<Instant> lastModified(String key) {
+    Path blob = find(key);
+    if (blob == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Files.getLastModifiedTime(blob).toInstant());
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    moveToTrash(resolve(key));
+    moveToTrash(resolveCompressed(key));
+  }
+
+  @Override
+  public boolean restore(String key) throws IOException {
+    boolean restored = false;
+    for (Path blob : List.of(resolve(key), resolveCompressed(key))) {
+      try {
+        Files.createDirectories(blob.getParent());
+        Files.move(trash.resolve(blob.getFileName()), blob,
+                   StandardCopyOption.ATOMIC_MOVE);
+        restored = true;
+      } catch (NoSuchFileException e) {
+        // not deleted in this form
+      }
+    }
+    return restored;
+  }
+
+  @Override
+  public int purge(Instant deletedBefore) throws IOException {
+    FileTime threshold = FileTime.from(deletedBefore);
+    int purged = 0;
+    try (Stream<Path> trashed = Files.list(trash)) {
+      for (Path blob : (Iterable<Path>)trashed::iterator) {
+        if (Files.getLastModifiedTime(blob).compareTo(threshold) < 0 &&
+            Files.deleteIfExists(blob)) {
+          purged++;
+        }
+      }
+    }
+    return purged;
+  }
+
+  @Override
+  public Stream<String> keys(Instant modifiedBefore) throws IOException {
+    FileTime threshold = FileTime.from(modifiedBefore);
+    return Files
+        .find(blobs, 3,
+              (path, attributes)
+                  -> attributes.isRegularFile() &&
+                         attributes.lastModifiedTime().compareTo(threshold) < 0)
+        .map(path -> path.getFileName().toString())
+        .map(name
+             -> name.endsWith(GZIP_SUFFIX)
+                    ? name.substring(0, name.length() - GZIP_SUFFIX.length())
+                    : name)
+        .filter(key -> KEY_PATTERN.matcher(key).matches())
+        .distinct();
+  }
+
+  private InputStream openDecompressed(String key, long offset)
+      throws IOException {
+    InputStream compressed = openCompressed(key);
+    try {
+      InputStream in = new GZIPInputStream(compressed, chunkSize);
+      try {
+        in.skipNBytes(offset);
+      } catch (EOFException e) {
+        // past the end, like an uncompressed blob positioned past its end
+      }
+      return in;
+    } catch (IOException e) {
+      compressed.close();
+      throw e;
+    }
+  }
+
+  private boolean isCompressible(String mimeType) {
+    if (mimeType == null || compressibleTypes.isEmpty()) {
+      return false;
+    }
+    MimeType type;
+    try {
+      type = MimeTypeUtils.parseMimeType(mimeType);
+    } catch (InvalidMimeTypeException e) {
+      return false;
+    }
+    return compressibleTypes.stream().anyMatch(
+        compressible -> compressible.includes(type));
+  }
+
+  /**
+   * Deflates the first bytes of a blob, telling whether they shrink enough
+   * for the whole blob to be worth compressing.
+   */
+  private boolean probe(Path blob, long size) throws IOException {
+    byte[] sample;
+    try (InputStream in = Files.newInputStream(blob)) {
+      sample = in.readNBytes((int)Math.min(size, PROBE_SIZE));
+    }
+    long limit = (long)(sample.length * maxRatio);
+    Deflater deflater = new Deflater();
+    try {
+      deflater.setInput(sample);
+      deflater.finish();
+      byte[] buffer = new byte[chunkSize];
+      while (!deflater.finished() && deflater.getBytesWritten() <= limit) {
+        deflater.deflate(buffer);
+      }
+      return deflater.getBytesWritten() <= limit;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Gzips a file into another, synced, one.
+   *
+   * @return the size of the compressed file.
+   */
+  private long compress(Path source, Path target) throws IOException {
+    try (InputStream in = Files.newInputStream(source);
+         FileChannel channel =
+             FileChannel.open(target, StandardOpenOption.WRITE);
+         GZIPOutputStream out = new GZIPOutputStream(
+             Channels.newOutputStream(channel), chunkSize)) {
+      in.transferTo(out);
+      out.finish();
+      channel.force(true);
+      return channel.size();
+    }
+  }
+
+  /**
+   * Refreshes the modification time of a blob, so that the garbage collection
+   * spares a blob that the same bytes were just written to.
+   */
+  private boolean touch(Path blob) throws IOException {
+    try {
+      Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+      return true;
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Moves a blob to the trash, dated by its deletion for the purge.
+   */
+  private void moveToTrash(Path blob) throws IOException {
+    Path trashed = trash.resolve(blob.getFileName());
+    try {
+      Files.move(blob, trashed, StandardCopyOption.ATOMIC_MOVE);
+    } catch (NoSuchFileException e) {
+      return;
+    }
+    Files.setLastModifiedTime(trashed, FileTime.from(Instant.now()));
+  }
+
+  /**
+   * @return the file of a blob, compressed or not, or {@code null} if it is
+   *     not stored.
+   */
+  private Path find(String key) {
+    Path blob = resolve(key);
+    if (Files.exists(blob)) {
+      return blob;
+    }
+    Path compressed = resolveCompressed(key);
+    return Files.exists(compressed) ? compressed : null;
+  }
+
+  private Path resolveCompressed(String key) {
+    Path blob = resolve(key);
+    return blob.resolveSibling(blob.getFileName() + GZIP_SUFFIX);
+  }
+
+  private Path resolve(String key) {
+    if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+      throw new IllegalArgumentException("Invalid blob key: " + key);
+    }
+    return blobs.resolve(key.substring(0, 2))
+        .resolve(key.substring(2, 4))
+        .resolve(key);
+  }
+}
@@ -0,0 +1,75 @@
+package com.fileuploader.app.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * An {@link InputStream} that computes the SHA-256 digest and the byte count
+ * of everything read through it, so a blob can be measured while it is being
+ * streamed to storage.
+ */
+public class HashingInputStream extends FilterInputStream {
+
+  private final MessageDigest digest;
+
+  private long count;
+
+  public HashingInputStream(InputStream in) {
+    super(in);
+    this.digest = newSha256();
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b != -1) {
+      digest.update((byte)b);
+      count++;
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int n = super.read(b, off, len);
+    if (n > 0) {
+      digest.update(b, off, n);
+      count += n;
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    throw new IOException("skip is not supported while hashing");
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  /**
+   * @return the number of bytes read so far.
+   */
+  public long getCount() { return count; }
+
+  /**
+   * Completes the digest; must only be called once the stream is exhausted.
+   *
+   * @return the lower-case hexadecimal SHA-256 of the bytes read.
+   */
+  public String getSha256() { return HexFormat.of().formatHex(digest.digest()); }
+
+  static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.fileuploader.app.service.storage;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+/**
+ * Renders the JPEG thumbnail of an image, or of the first page of a PDF.
+ * <p>
+ * Images are decoded with {@link ImageIO}, skipping pixels so that a huge
+ * image is never decoded at more than a few times the thumbnail size. PDFs are
+ * buffered in a temporary file rather than in memory, and only their first
+ * page is rendered.
+ */
+public final class PreviewRenderer {
+
+  /** The MIME type of the thumbnails. */
+  public static final String CONTENT_TYPE = "image/jpeg";
+
+  private static final String PDF = "application/pdf";
+
+  private PreviewRenderer() {}
+
+  /**
+   * @param mimeType the MIME type of a file, may be {@code null}.
+   * @return whether a thumbnail can be rendered for the file.
+   */
+  public static boolean supports(String mimeType) {
+    String type = baseType(mimeType);
+    return type != null && (PDF.equals(type) ||
+                            ImageIO.getImageReadersByMIMEType(type).hasNext());
+  }
+
+  /**
+   * @param in the file, not closed.
+   * @param mimeType the MIME type of the file.
+   * @param size the maximum width and height of the thumbnail.
+   * @return the JPEG thumbnail of the file.
+   * @throws IOException if the file cannot be read or rendered.
+   */
+  public static byte[] render(InputStream in, String mimeType, int size)
+      throws IOException {
+    BufferedImage image = PDF.equals(baseType(mimeType))
+                              ? renderFirstPage(in, size)
+                              : readImage(in, size);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if (!ImageIO.write(fit(image, size), "jpg", out)) {
+      throw new IOException("No JPEG writer available");
+    }
+    return out.toByteArray();
+  }
+
+  private static BufferedImage readImage(InputStream in, int size)
+      throws IOException {
+    try (ImageInputStream images = ImageIO.createImageInputStream(in)) {
+      Iterator<ImageReader> readers =
+          images == null ? null : ImageIO.getImageReaders(images);
+      if (readers == null || !readers.hasNext()) {
+        throw new IOException("Unsupported image format");
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(images, true, true);
+        int step = Math.max(
+            1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (2 * size));
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static BufferedImage renderFirstPage(InputStream in, int size)
+      throws IOException {
+    try (PDDocument document =
+             PDDocument.load(in, MemoryUsageSetting.setupTempFileOnly())) {
+      if (document.getNumberOfPages() == 0) {
+        throw new IOException("The PDF has no pages");
+      }
+      PDRectangle box = document.getPage(0).getCropBox();
+      // one unit of the page is rendered as one pixel at scale 1
+      float scale = size / Math.max(box.getWidth(), box.getHeight());
+      return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+    }
+  }
+
+  private static BufferedImage fit(BufferedImage image, int size) {
+    double ratio = Math.min(
+        1, (double)size / Math.max(image.getWidth(), image.getHeight()));
+    int width = Math.max(1, (int)Math.round(image.getWidth() * ratio));
+    int height = Math.max(1, (int)Math.round(image.getHeight() * ratio));
+    // JPEG has no alpha channel: transparent pixels are drawn over white
+    BufferedImage thumbnail =
+        new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = thumbnail.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
+                                RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.setColor(Color.WHITE);
+      graphics.fillRect(0, 0, width, height);
+      graphics.drawImage(image, 0, 0, width, height, null);
+    } finally {
+      graphics.dispose();
+    }
+    return thumbnail;
+  }
+
+  private static String baseType(String mimeType) {
+    if (mimeType == null) {
+      return null;
+    }
+    int semicolon = mimeType.indexOf(';');
+    return (semicolon < 0 ? mimeType : mimeType.substring(0, semicolon))
+        .trim()
+        .toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,13 @@
+package com.fileuploader.app.service.storage;
+
+/**
+ * The outcome of writing a blob to a {@link BlobStore}.
+ *
+ * @param key the key the blob can be read back with.
+ * @param size the size of the blob in bytes.
+ * @param sha256 the lower-case hexadecimal SHA-256 of the blob.
+ * @param compressedSize the size in bytes of the blob as stored, or
+ *     {@code null} if it is stored uncompressed.
+ */
+public record StoredBlob(String key, long size, String sha256,
+                         Long compressedSize) {}
@@ -0,0 +1,242 @@
+package com.fileuploader.app.service.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An {@link ArchiveReader} over an uncompressed TAR archive in the ustar
+ * format, with the GNU long name and POSIX pax extensions.
+ */
+public class TarArchiveReader implements ArchiveReader {
+
+  private static final int BLOCK_SIZE = 512;
+
+  private final InputStream in;
+
+  private final InputStream entryStream = new EntryInputStream();
+
+  private long remaining;
+
+  private long padding;
+
+  /**
+   * @param in the archive, not closed.
+   */
+  public TarArchiveReader(InputStream in) {
+    this.in = in;
+  }
+
+  @Override
+  public Entry nextEntry() throws IOException {
+    String longName = null;
+    Map<String, String> paxHeaders = Map.of();
+    while (true) {
+      skip(remaining + padding);
+      remaining = 0;
+      padding = 0;
+      byte[] header = in.readNBytes(BLOCK_SIZE);
+      if (header.length == 0 || isZeroBlock(header)) {
+        return null;
+      }
+      if (header.length < BLOCK_SIZE) {
+        throw new EOFException("Truncated TAR header");
+      }
+      verifyChecksum(header);
+      char type = (char)header[156];
+      long size = paxHeaders.containsKey("size")
+                      ? Long.parseLong(paxHeaders.get("size"))
+                      : parseNumber(header, 124, 12);
+      remaining = size;
+      padding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+      switch (type) {
+      case 'L' -> longName = readString(size);
+      case 'x' -> paxHeaders = parsePaxHeaders(readString(size));
+      case 'g' -> {
+        // global pax headers carry no entry
+      }
+      default -> {
+        String name = paxHeaders.getOrDefault(
+            "path", longName != null ? longName : ustarName(header));
+        return new Entry(name, type == '0' || type == '\0' || type == '7');
+      }
+      }
+    }
+  }
+
+  @Override
+  public InputStream entryStream() {
+    return entryStream;
+  }
+
+  private String readString(long size) throws IOException {
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("TAR extended header too large");
+    }
+    byte[] bytes = in.readNBytes((int)size);
+    if (bytes.length < size) {
+      throw new EOFException("Truncated TAR extended header");
+    }
+    remaining = 0;
+    int length = bytes.length;
+    while (length > 0 && bytes[length - 1] == 0) {
+      length--;
+    }
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  private void skip(long count) throws IOException {
+    long skipped = in.skip(count);
+    while (skipped < count) {
+      if (in.read() < 0) {
+        throw new EOFException("Truncated TAR entry");
+      }
+      skipped += 1 + in.skip(count - skipped - 1);
+    }
+  }
+
+  private static Map<String, String> parsePaxHeaders(String records)
+      throws IOException {
+    // each record reads "<length> <key>=<value>\n"
+    Map<String, String> headers = new HashMap<>();
+    byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+    int offset = 0;
+    while (offset < bytes.length) {
+      int space = indexOf(bytes, (byte)' ', offset);
+      String digits =
+          new String(bytes, offset, space - offset, StandardCharsets.US_ASCII);
+      int length = digits.matches("[0-9]{1,9}") ? Integer.parseInt(digits) : 0;
+      if (length <= space - offset || offset + length > bytes.length) {
+        throw new IOException("Malformed pax header");
+      }
+      String record = new String(bytes, space + 1, offset + length - space - 2,
+                                 StandardCharsets.UTF_8);
+      int equals = record.indexOf('=');
+      if (equals < 0) {
+        throw new IOException("Malformed pax header");
+      }
+      String key = record.substring(0, equals);
+      String value = record.substring(equals + 1);
+      if ("size".equals(key) && !value.matches("[0-9]{1,18}")) {
+        throw new IOException("Malformed pax header");
+      }
+      headers.put(key, value);
+      offset += length;
+    }
+    return headers;
+  }
+
+  private static int indexOf(byte[] bytes, byte value, int from)
+      throws IOException {
+    for (int i = from; i < bytes.length; i++) {
+      if (bytes[i] == value) {
+        return i;
+      }
+    }
+    throw new IOException("Malformed pax header");
+  }
+
+  private static String ustarName(byte[] header) {
+    String name = parseString(header, 0, 100);
+    // the GNU format reads "ustar " and uses the prefix field otherwise
+    boolean ustar = "ustar".equals(parseString(header, 257, 6));
+    String prefix = ustar ? parseString(header, 345, 155) : "";
+    return prefix.isEmpty() ? name : prefix + "/" + name;
+  }
+
+  private static String parseString(byte[] header, int offset, int length) {
+    int end = offset;
+    while (end < offset + length && header[end] != 0) {
+      end++;
+    }
+    return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+  }
+
+  private static long parseNumber(byte[] header, int offset, int length)
+      throws IOException {
+    if ((header[offset] & 0x80) != 0) {
+      // GNU base-256 encoding of sizes above 8 GiB
+      long value = header[offset] & 0x7f;
+      for (int i = offset + 1; i < offset + length; i++) {
+        value = (value << 8) | (header[i] & 0xff);
+      }
+      return value;
+    }
+    long value = 0;
+    for (int i = offset; i < offset + length; i++) {
+      byte digit = header[i];
+      if (digit == 0 || digit == ' ') {
+        if (value > 0) {
+          break;
+        }
+        continue;
+      }
+      if (digit < '0' || digit > '7') {
+        throw new IOException("Malformed TAR header");
+      }
+      value = (value << 3) + (digit - '0');
+    }
+    return value;
+  }
+
+  private static void verifyChecksum(byte[] header) throws IOException {
+    long expected = parseNumber(header, 148, 8);
+    long sum = 0;
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      // the checksum field counts as spaces
+      sum += i >= 148 && i < 156 ? ' ' : header[i] & 0xff;
+    }
+    if (sum != expected) {
+      throw new IOException("Not a TAR archive");
+    }
+  }
+
+  private static boolean isZeroBlock(byte[] header) {
+    for (byte b : header) {
+      if (b != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private class EntryInputStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      if (remaining == 0) {
+        return -1;
+      }
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("Truncated TAR entry");
+      }
+      remaining--;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (remaining == 0) {
+        return -1;
+      }
+      int read = in.read(b, off, (int)Math.min(len, remaining));
+      if (read < 0) {
+        throw new EOFException("Truncated TAR entry");
+      }
+      remaining -= read;
+      return read;
+    }
+
+    @Override
+    public void close() {
+      // the entries share the archive stream
+    }
+  }
+}
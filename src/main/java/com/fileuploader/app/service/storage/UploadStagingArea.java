@@ -0,0 +1,216 @@
+package com.fileuploader.app.service.storage;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * The directory the chunks of resumable uploads are staged in, one
+ * sub-directory per upload session and one file per chunk.
+ * <p>
+ * A chunk is written to a temporary file and renamed into place once
+ * complete, so chunks of the same session can be uploaded in parallel and a
+ * chunk is never seen partially written.
+ */
+@Component
+public class UploadStagingArea {
+
+  private static final Pattern CHUNK_PATTERN = Pattern.compile("(\\d+)\\.chunk");
+
+  private static final Pattern SESSION_PATTERN =
+      Pattern.compile("[0-9a-f-]{36}");
+
+  private final Path uploads;
+
+  private final int chunkSize;
+
+  public UploadStagingArea(ApplicationProperties applicationProperties) {
+    ApplicationProperties.Storage storage = applicationProperties.getStorage();
+    Path root = Paths.get(storage.getRoot()).toAbsolutePath();
+    try {
+      this.uploads = Files.createDirectories(root.resolve("uploads"));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot create staging area in " + root,
+                                     e);
+    }
+    this.chunkSize = storage.getChunkSize();
+  }
+
+  /**
+   * Stages a chunk, replacing any previous upload of the same chunk, provided
+   * it has the expected length and checksum.
+   *
+   * @param sessionId the id of the upload session.
+   * @param index the zero-based index of the chunk.
+   * @param in the bytes of the chunk, not closed; at most {@code length + 1}
+   *     bytes are read.
+   * @param length the expected length of the chunk.
+   * @param sha256 the expected hexadecimal SHA-256 of the chunk, may be
+   *     {@code null}.
+   * @return the size and checksum of the bytes read, whose key is
+   *     {@code null}; a chunk longer than expected has a size of
+   *     {@code length + 1}. The chunk is only staged if they match.
+   * @throws IOException if the chunk cannot be read or written.
+   */
+  public StoredBlob putChunk(String sessionId, int index, InputStream in,
+                             long length, String sha256) throws IOException {
+    Path session = Files.createDirectories(resolve(sessionId));
+    Path temp = Files.createTempFile(session, index + "-", ".tmp");
+    try {
+      HashingInputStream hashing = new HashingInputStream(in);
+      try (FileChannel channel =
+               FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        byte[] buffer = new byte[chunkSize];
+        long remaining = length + 1;
+        int n;
+        while (remaining > 0 &&
+               (n = hashing.read(buffer, 0,
+                                 (int)Math.min(buffer.length, remaining))) !=
+                   -1) {
+          ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+          while (chunk.hasRemaining()) {
+            channel.write(chunk);
+          }
+          remaining -= n;
+        }
+        channel.force(true);
+      }
+      StoredBlob chunk =
+          new StoredBlob(null, hashing.getCount(), hashing.getSha256(), null);
+      if (chunk.size() == length &&
+          (sha256 == null || sha256.equalsIgnoreCase(chunk.sha256()))) {
+        Files.move(temp, session.resolve(index + ".chunk"),
+                   StandardCopyOption.ATOMIC_MOVE,
+                   StandardCopyOption.REPLACE_EXISTING);
+      }
+      return chunk;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * @param sessionId the id of the upload session.
+   * @return the indexes of the chunks staged so far, in ascending order.
+   * @throws IOException if the staged chunks cannot be listed.
+   */
+  public SortedSet<Integer> listChunks(String sessionId) throws IOException {
+    SortedSet<Integer> chunks = new TreeSet<>();
+    Path session = resolve(sessionId);
+    if (!Files.isDirectory(session)) {
+      return chunks;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(session)) {
+      for (Path file : files) {
+        Matcher matcher = CHUNK_PATTERN.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+          chunks.add(Integer.valueOf(matcher.group(1)));
+        }
+      }
+    }
+    return chunks;
+  }
+
+  /**
+   * Opens the concatenation of the first {@code count} chunks of a session.
+   * Each chunk is only opened once the previous one has been read.
+   *
+   * @param sessionId the id of the upload session.
+   * @param count the number of chunks.
+   * @return a stream over the chunks, to be closed by the caller.
+   */
+  public InputStream openChunks(String sessionId, int count) {
+    Path session = resolve(sessionId);
+    Enumeration<InputStream> chunks = new Enumeration<>() {
+      private int next;
+
+      @Override
+      public boolean hasMoreElements() {
+        return next < count;
+      }
+
+      @Override
+      public InputStream nextElement() {
+        if (next >= count) {
+          throw new NoSuchElementException();
+        }
+        try {
+          return Files.newInputStream(session.resolve(next++ + ".chunk"));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+    return new SequenceInputStream(chunks);
+  }
+
+  /**
+   * Deletes the staged chunks of a session, if any.
+   *
+   * @param sessionId the id of the upload session.
+   * @throws IOException if the chunks cannot be deleted.
+   */
+  public void delete(String sessionId) throws IOException {
+    Path session = resolve(sessionId);
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(session)) {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    } catch (NoSuchFileException e) {
+      return;
+    }
+    Files.deleteIfExists(session);
+  }
+
+  /**
+   * @param modifiedBefore the instant the sessions must be last written
+   *     before.
+   * @return the ids of the sessions with staged chunks not written since
+   *     {@code modifiedBefore}.
+   * @throws IOException if the staging area cannot be listed.
+   */
+  public List<String> listSessions(Instant modifiedBefore) throws IOException {
+    List<String> sessions = new ArrayList<>();
+    try (DirectoryStream<Path> dirs = Files.newDirectoryStream(uploads)) {
+      for (Path dir : dirs) {
+        String name = dir.getFileName().toString();
+        if (SESSION_PATTERN.matcher(name).matches() &&
+            Files.getLastModifiedTime(dir).toInstant().isBefore(
+                modifiedBefore)) {
+          sessions.add(name);
+        }
+      }
+    }
+    return Collections.unmodifiableList(sessions);
+  }
+
+  private Path resolve(String sessionId) {
+    if (sessionId == null || !SESSION_PATTERN.matcher(sessionId).matches()) {
+      throw new IllegalArgumentException("Invalid upload session: " +
+                                         sessionId);
+    }
+    return uploads.resolve(sessionId);
+  }
+}
@@ -0,0 +1,43 @@
+package com.fileuploader.app.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * An {@link ArchiveReader} over a ZIP archive, inflating each entry as it is
+ * read.
+ */
+public class ZipArchiveReader implements ArchiveReader {
+
+  private final ZipInputStream zip;
+
+  private final InputStream entryStream;
+
+  /**
+   * @param in the archive, not closed.
+   */
+  public ZipArchiveReader(InputStream in) {
+    this.zip = new ZipInputStream(in);
+    this.entryStream = new FilterInputStream(zip) {
+      @Override
+      public void close() {
+        // the entries share the archive stream
+      }
+    };
+  }
+
+  @Override
+  public Entry nextEntry() throws IOException {
+    ZipEntry entry = zip.getNextEntry();
+    return entry == null ? null
+                         : new Entry(entry.getName(), !entry.isDirectory());
+  }
+
+  @Override
+  public InputStream entryStream() {
+    return entryStream;
+  }
+}
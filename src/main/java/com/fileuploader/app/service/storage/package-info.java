@@ -0,0 +1,4 @@
+/**
+ * Streaming helpers and storage for uploaded binary content.
+ */
+package com.fileuploader.app.service.storage;
@@ -0,0 +1,71 @@
+package com.fileuploader.app.web.filter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets held in memory, limiting the requests served by this node
+ * only.
+ * <p>
+ * Each bucket is a single {@link AtomicLong}, updated with a compare and set
+ * without any lock: it holds the time at which the bucket will be full
+ * again, a token being worth a refill interval of {@code period / capacity}
+ * (the generic cell rate algorithm). The buckets are spread across the bins
+ * of a {@link ConcurrentHashMap}, so that requests of different keys never
+ * contend, and full buckets are dropped every minute, a missing bucket being
+ * a full one.
+ */
+@Component
+public class InMemoryRateLimiter implements RateLimiter {
+
+  private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+  private final LongSupplier nanoTime;
+
+  public InMemoryRateLimiter() { this(System::nanoTime); }
+
+  InMemoryRateLimiter(LongSupplier nanoTime) { this.nanoTime = nanoTime; }
+
+  @Override
+  public Result tryConsume(String key, Limit limit) {
+    long period = limit.period().toNanos();
+    long interval = Math.max(period / limit.capacity(), 1);
+    long tolerance = interval * limit.capacity();
+    while (true) {
+      long now = nanoTime.getAsLong();
+      AtomicLong bucket =
+          buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+      long full = bucket.get();
+      long next = Math.max(full, now) + interval;
+      long allowedAt = next - tolerance;
+      if (now < allowedAt) {
+        return new Result(false, 0, Duration.ofNanos(full - now),
+                          Duration.ofNanos(allowedAt - now));
+      }
+      if (bucket.compareAndSet(full, next)) {
+        return new Result(true, (tolerance - (next - now)) / interval,
+                          Duration.ofNanos(next - now), Duration.ZERO);
+      }
+    }
+  }
+
+  /**
+   * Drops the buckets that are full. A request racing with the drop may take
+   * its token from the dropped bucket, and so get one token for free.
+   */
+  @Scheduled(fixedDelay = 60_000)
+  public void evictFullBuckets() {
+    long now = nanoTime.getAsLong();
+    buckets.entrySet().removeIf(entry -> entry.getValue().get() <= now);
+  }
+
+  /**
+   * @return the number of buckets held.
+   */
+  int size() { return buckets.size(); }
+}
@@ -0,0 +1,58 @@
+package com.fileuploader.app.web.filter;
+
+import com.fileuploader.app.service.TransferAdmissionService;
+import com.fileuploader.app.service.TransferRejectedException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admits multipart uploads by the length of their request body, as
+ * configured by {@code application.transfer}, before their parts are parsed
+ * and spooled to disk when the request reaches the dispatcher servlet.
+ * <p>
+ * A request that cannot be admitted in time is answered with
+ * {@code 429 (Too Many Requests)} and a {@code Retry-After} header, without
+ * its body being read. Other transfers stream their bytes themselves and are
+ * admitted by their endpoints.
+ */
+public class MultipartAdmissionFilter extends OncePerRequestFilter {
+
+  private final TransferAdmissionService transferAdmissionService;
+
+  public MultipartAdmissionFilter(
+      TransferAdmissionService transferAdmissionService) {
+    this.transferAdmissionService = transferAdmissionService;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String contentType = request.getContentType();
+    return contentType == null ||
+        !contentType.regionMatches(true, 0, "multipart/", 0, 10);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain)
+      throws ServletException, IOException {
+    TransferAdmissionService.Permit permit;
+    try {
+      permit = transferAdmissionService.admit(request.getContentLengthLong());
+    } catch (TransferRejectedException e) {
+      response.setHeader(HttpHeaders.RETRY_AFTER,
+                         String.valueOf(e.getRetryAfter().toSeconds()));
+      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+      return;
+    }
+    try (permit) {
+      filterChain.doFilter(request, response);
+    }
+  }
+}
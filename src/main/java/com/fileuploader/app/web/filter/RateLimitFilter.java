@@ -0,0 +1,146 @@
+package com.fileuploader.app.web.filter;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Limits the rate of the requests of each user, by groups of endpoints, as
+ * configured by {@code application.rate-limit}.
+ * <p>
+ * Requests are counted against the bucket of the subject of their token, or
+ * of the client address for anonymous requests, for the first group matching
+ * their path. The client address is the remote address of the connection,
+ * unless the {@code proxy} profile trusts the one forwarded by a reverse
+ * proxy. A request finding the bucket empty is answered with
+ * {@code 429 (Too Many Requests)} and a {@code Retry-After} header.
+ * The state of the bucket is sent with every limited response in the
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining},
+ * {@code RateLimit-Reset} and {@code RateLimit-Policy} headers of the IETF
+ * draft on rate limit headers. Rejected requests are counted in the
+ * {@value #REJECTIONS_METER_NAME} counter.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  public static final String REJECTIONS_METER_NAME = "rate.limit.rejections";
+
+  public static final String LIMIT_HEADER = "RateLimit-Limit";
+
+  public static final String REMAINING_HEADER = "RateLimit-Remaining";
+
+  public static final String RESET_HEADER = "RateLimit-Reset";
+
+  public static final String POLICY_HEADER = "RateLimit-Policy";
+
+  private record Group(String name, List<PathPattern> patterns,
+                       RateLimiter.Limit limit, String policy,
+                       Counter rejections) {}
+
+  private final RateLimiter rateLimiter;
+
+  private final List<Group> groups = new ArrayList<>();
+
+  public RateLimitFilter(ApplicationProperties applicationProperties,
+                         RateLimiter rateLimiter, MeterRegistry registry) {
+    this.rateLimiter = rateLimiter;
+    ApplicationProperties.RateLimit properties =
+        applicationProperties.getRateLimit();
+    if (!properties.isEnabled()) {
+      return;
+    }
+    properties.getGroups().forEach((name, group) -> {
+      RateLimiter.Limit limit =
+          new RateLimiter.Limit(group.getCapacity(), group.getPeriod());
+      groups.add(new Group(
+          name,
+          group.getPatterns()
+              .stream()
+              .map(PathPatternParser.defaultInstance::parse)
+              .toList(),
+          limit, limit.capacity() + ";w=" + seconds(limit.period()),
+          Counter.builder(REJECTIONS_METER_NAME)
+              .description("Requests rejected by the rate limits")
+              .tag("group", name)
+              .register(registry)));
+    });
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return groups.isEmpty();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain)
+      throws ServletException, IOException {
+    Group group = findGroup(request);
+    if (group == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    RateLimiter.Result result = rateLimiter.tryConsume(
+        group.name() + ":" + client(request), group.limit());
+    response.setHeader(LIMIT_HEADER, String.valueOf(group.limit().capacity()));
+    response.setHeader(REMAINING_HEADER, String.valueOf(result.remaining()));
+    response.setHeader(RESET_HEADER, String.valueOf(seconds(result.reset())));
+    response.setHeader(POLICY_HEADER, group.policy());
+    if (!result.allowed()) {
+      group.rejections().increment();
+      response.setHeader(HttpHeaders.RETRY_AFTER,
+                         String.valueOf(seconds(result.retryAfter())));
+      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+      return;
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  private Group findGroup(HttpServletRequest request) {
+    PathContainer path = PathContainer.parsePath(
+        request.getRequestURI().substring(request.getContextPath().length()));
+    for (Group group : groups) {
+      for (PathPattern pattern : group.patterns()) {
+        if (pattern.matches(path)) {
+          return group;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static String client(HttpServletRequest request) {
+    Authentication authentication =
+        SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.isAuthenticated() &&
+        !(authentication instanceof AnonymousAuthenticationToken)) {
+      return "user:" + authentication.getName();
+    }
+    return "address:" + request.getRemoteAddr();
+  }
+
+  /**
+   * @return the duration in whole seconds, rounded up.
+   */
+  private static long seconds(Duration duration) {
+    long seconds = duration.toSeconds();
+    return duration.minusSeconds(seconds).isZero() ? seconds : seconds + 1;
+  }
+}
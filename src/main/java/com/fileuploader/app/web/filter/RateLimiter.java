@@ -0,0 +1,44 @@
+package com.fileuploader.app.web.filter;
+
+import java.time.Duration;
+
+/**
+ * Token buckets limiting the rate of requests, one per key.
+ */
+public interface RateLimiter {
+
+  /**
+   * The limit of a bucket: bursts of up to {@code capacity} requests,
+   * refilled at {@code capacity} requests per {@code period}.
+   */
+  record Limit(long capacity, Duration period) {
+
+    public Limit {
+      if (capacity <= 0 || period.isNegative() || period.isZero()) {
+        throw new IllegalArgumentException("Invalid rate limit: " + capacity +
+                                           " per " + period);
+      }
+    }
+  }
+
+  /**
+   * The outcome of taking a token from a bucket.
+   *
+   * @param allowed whether a token was taken.
+   * @param remaining the tokens left in the bucket.
+   * @param reset the time until the bucket is full again.
+   * @param retryAfter the time until a token is available, zero if one was
+   *     taken.
+   */
+  record Result(boolean allowed, long remaining, Duration reset,
+                Duration retryAfter) {}
+
+  /**
+   * Takes a token from the bucket of a key, if it has one.
+   *
+   * @param key the key of the bucket.
+   * @param limit the limit of the bucket.
+   * @return whether a token was taken, and the state of the bucket.
+   */
+  Result tryConsume(String key, Limit limit);
+}
@@ -2,22 +2,49 @@ package com.fileuploader.app.web.rest;
 
 import com.fileuploader.app.domain.Car;
 import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.service.ArchiveIngestionService;
+import com.fileuploader.app.service.BatchService;
+import com.fileuploader.app.service.CarService;
+import com.fileuploader.app.service.DocumentExportService;
+import com.fileuploader.app.service.dto.ArchiveEntryResultDTO;
+import com.fileuploader.app.service.dto.BatchItemResultDTO;
+import com.fileuploader.app.service.storage.ArchiveReader;
+import com.fileuploader.app.service.storage.TarArchiveReader;
+import com.fileuploader.app.service.storage.ZipArchiveReader;
 import com.fileuploader.app.web.rest.errors.BadRequestAlertException;
+import com.fileuploader.app.web.rest.util.EntityTagUtil;
+import com.fileuploader.app.web.rest.util.SlicePaginationUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
+import tech.jhipster.web.util.PaginationUtil;
 
 /**
  * REST controller for managing {@link com.fileuploader.app.domain.Car}.
@@ -31,12 +58,30 @@ public class CarResource {
 
   private static final String ENTITY_NAME = "car";
 
+  private static final MediaType ARCHIVE_MEDIA_TYPE =
+      MediaType.parseMediaType("application/zip");
+
   @Value("${jhipster.clientApp.name}") private String applicationName;
 
   private final CarRepository carRepository;
 
-  public CarResource(CarRepository carRepository) {
+  private final DocumentExportService documentExportService;
+
+  private final ArchiveIngestionService archiveIngestionService;
+
+  private final BatchService batchService;
+
+  private final CarService carService;
+
+  public CarResource(CarRepository carRepository,
+                     DocumentExportService documentExportService,
+                     ArchiveIngestionService archiveIngestionService,
+                     BatchService batchService, CarService carService) {
     this.carRepository = carRepository;
+    this.documentExportService = documentExportService;
+    this.archiveIngestionService = archiveIngestionService;
+    this.batchService = batchService;
+    this.carService = carService;
   }
 
   /**
@@ -68,9 +113,13 @@ public class CarResource {
    *
    * @param id the id of the car to save.
    * @param car the car to update.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the update conditional on the version of the car.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
    *     body the updated car,
    * or with status {@code 400 (Bad Request)} if the car is not valid,
+   * or with status {@code 412 (Precondition Failed)} if the car is not at the
+   * version of {@code If-Match},
    * or with status {@code 500 (Internal Server Error)} if the car couldn't be
    * updated.
    * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -78,7 +127,8 @@ public class CarResource {
   @PutMapping("/cars/{id}")
   public ResponseEntity<Car>
   updateCar(@PathVariable(value = "id", required = false) final Long id,
-            @Valid @RequestBody Car car) throws URISyntaxException {
+            @Valid @RequestBody Car car,
+            @RequestHeader HttpHeaders headers) throws URISyntaxException {
     log.debug("REST request to update Car : {}, {}", id, car);
     if (car.getId() == null) {
       throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -88,15 +138,15 @@ public class CarResource {
                                          "idinvalid");
     }
 
-    if (!carRepository.existsById(id)) {
-      throw new BadRequestAlertException("Entity not found", ENTITY_NAME,
-                                         "idnotfound");
-    }
-
-    Car result = carRepository.save(car);
+    Set<Integer> expectedVersions = EntityTagUtil.expectedVersions(headers);
+    Car result =
+        carService.update(car, expectedVersions)
+            .orElseThrow(() -> new BadRequestAlertException(
+                             "Entity not found", ENTITY_NAME, "idnotfound"));
     return ResponseEntity.ok()
         .headers(HeaderUtil.createEntityUpdateAlert(
             applicationName, true, ENTITY_NAME, car.getId().toString()))
+        .eTag(EntityTagUtil.versionTag(result.getVersion()))
         .body(result);
   }
 
@@ -106,10 +156,14 @@ public class CarResource {
    *
    * @param id the id of the car to save.
    * @param car the car to update.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the update conditional on the version of the car.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
    *     body the updated car,
    * or with status {@code 400 (Bad Request)} if the car is not valid,
    * or with status {@code 404 (Not Found)} if the car is not found,
+   * or with status {@code 412 (Precondition Failed)} if the car is not at the
+   * version of {@code If-Match},
    * or with status {@code 500 (Internal Server Error)} if the car couldn't be
    * updated.
    * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -118,7 +172,9 @@ public class CarResource {
                 consumes = {"application/json", "application/merge-patch+json"})
   public ResponseEntity<Car>
   partialUpdateCar(@PathVariable(value = "id", required = false) final Long id,
-                   @NotNull @RequestBody Car car) throws URISyntaxException {
+                   @NotNull @RequestBody Car car,
+                   @RequestHeader HttpHeaders headers)
+      throws URISyntaxException {
     log.debug("REST request to partial update Car partially : {}, {}", id, car);
     if (car.getId() == null) {
       throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -128,37 +184,141 @@ public class CarResource {
                                          "idinvalid");
     }
 
-    if (!carRepository.existsById(id)) {
-      throw new BadRequestAlertException("Entity not found", ENTITY_NAME,
-                                         "idnotfound");
-    }
+    Set<Integer> expectedVersions = EntityTagUtil.expectedVersions(headers);
+    Car result =
+        carService.partialUpdate(car, expectedVersions)
+            .orElseThrow(() -> new BadRequestAlertException(
+                             "Entity not found", ENTITY_NAME, "idnotfound"));
+    return ResponseEntity.ok()
+        .headers(HeaderUtil.createEntityUpdateAlert(
+            applicationName, true, ENTITY_NAME, car.getId().toString()))
+        .eTag(EntityTagUtil.versionTag(result.getVersion()))
+        .body(result);
+  }
 
-    Optional<Car> result = carRepository.findById(car.getId())
-                               .map(existingCar -> {
-                                 if (car.getModel() != null) {
-                                   existingCar.setModel(car.getModel());
-                                 }
+  /**
+   * {@code POST  /cars/batch} : Create new cars in one transaction.
+   *
+   * @param cars the cars to create.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each car, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PostMapping("/cars/batch")
+  public ResponseEntity<List<BatchItemResultDTO>>
+  createCars(@NotNull @RequestBody List<Car> cars) {
+    log.debug("REST request to save a batch of {} Cars", cars.size());
+    checkBatchSize(cars);
+    return ResponseEntity.ok(batchService.createCars(cars));
+  }
 
-                                 return existingCar;
-                               })
-                               .map(carRepository::save);
+  /**
+   * {@code PUT  /cars/batch} : Updates existing cars in one transaction.
+   *
+   * @param cars the cars to update.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each car, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PutMapping("/cars/batch")
+  public ResponseEntity<List<BatchItemResultDTO>>
+  updateCars(@NotNull @RequestBody List<Car> cars) {
+    log.debug("REST request to update a batch of {} Cars", cars.size());
+    checkBatchSize(cars);
+    return ResponseEntity.ok(batchService.updateCars(cars, false));
+  }
 
-    return ResponseUtil.wrapOrNotFound(
-        result,
-        HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME,
-                                           car.getId().toString()));
+  /**
+   * {@code PATCH  /cars/batch} : Partial updates given fields of existing
+   * cars in one transaction, field will ignore if it is null
+   *
+   * @param cars the cars to update.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each car, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PatchMapping(value = "/cars/batch",
+                consumes = {"application/json", "application/merge-patch+json"})
+  public ResponseEntity<List<BatchItemResultDTO>>
+  partialUpdateCars(@NotNull @RequestBody List<Car> cars) {
+    log.debug("REST request to partial update a batch of {} Cars",
+              cars.size());
+    checkBatchSize(cars);
+    return ResponseEntity.ok(batchService.updateCars(cars, true));
+  }
+
+  /**
+   * {@code POST  /cars/batch/delete} : Delete cars in one transaction.
+   *
+   * @param ids the ids of the cars to delete.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each id, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PostMapping("/cars/batch/delete")
+  public ResponseEntity<List<BatchItemResultDTO>>
+  deleteCars(@NotNull @RequestBody List<Long> ids) {
+    log.debug("REST request to delete a batch of {} Cars", ids.size());
+    checkBatchSize(ids);
+    return ResponseEntity.ok(batchService.deleteCars(ids));
+  }
+
+  private static void checkBatchSize(List<?> items) {
+    if (items.size() > BatchService.MAX_BATCH_SIZE) {
+      throw new BadRequestAlertException(
+          "A batch cannot hold more than " + BatchService.MAX_BATCH_SIZE +
+              " items",
+          ENTITY_NAME, "batchtoolarge");
+    }
   }
 
   /**
    * {@code GET  /cars} : get all the cars.
+   * <p>
+   * With {@code afterId}, the cars following that id are returned using
+   * keyset pagination, which only sorts by id and never counts.
    *
+   * @param pageable the pagination information.
+   * @param afterId the id of the last car of the previous page, for keyset
+   *     pagination.
+   * @param count whether to count the cars for the
+   *     {@code X-Total-Count} header.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the
    *     list of cars in body.
    */
   @GetMapping("/cars")
-  public List<Car> getAllCars() {
-    log.debug("REST request to get all Cars");
-    return carRepository.findAll();
+  public ResponseEntity<List<Car>>
+  getAllCars(@org.springdoc.core.annotations.ParameterObject Pageable pageable,
+             @RequestParam(required = false) Long afterId,
+             @RequestParam(defaultValue = "true") boolean count) {
+    UriComponentsBuilder uriBuilder =
+        ServletUriComponentsBuilder.fromCurrentRequest();
+    if (afterId != null) {
+      log.debug("REST request to get a page of Cars after {}", afterId);
+      if (!SlicePaginationUtil.isSortedById(pageable)) {
+        throw new BadRequestAlertException(
+            "Keyset pagination only sorts by id", ENTITY_NAME, "sortnotid");
+      }
+      Pageable keyset = SlicePaginationUtil.keysetPageable(pageable);
+      Slice<Car> slice =
+          SlicePaginationUtil.isDescending(keyset)
+              ? carRepository.findAllByIdLessThan(afterId, keyset)
+              : carRepository.findAllByIdGreaterThan(afterId, keyset);
+      HttpHeaders headers = SlicePaginationUtil.generateKeysetHttpHeaders(
+          uriBuilder, slice, Car::getId);
+      return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+    log.debug("REST request to get a page of Cars");
+    if (!count) {
+      Slice<Car> slice = carRepository.findAllBy(pageable);
+      HttpHeaders headers =
+          SlicePaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+      return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+    Page<Car> page = carRepository.findAll(pageable);
+    HttpHeaders headers =
+        PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+    return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
   /**
@@ -166,25 +326,144 @@ public class CarResource {
    *
    * @param id the id of the car to retrieve.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
-   *     body the car, or with status {@code 404 (Not Found)}.
+   *     body the car, or with status {@code 304 (Not Modified)} if the
+   *     {@code If-None-Match} header lists its version, or with status
+   *     {@code 404 (Not Found)}.
    */
   @GetMapping("/cars/{id}")
   public ResponseEntity<Car> getCar(@PathVariable Long id) {
     log.debug("REST request to get Car : {}", id);
-    Optional<Car> car = carRepository.findById(id);
-    return ResponseUtil.wrapOrNotFound(car);
+    return carRepository
+        .findById(id)
+        .map(result
+             -> ResponseEntity.ok()
+                    .cacheControl(EntityTagUtil.REVALIDATE)
+                    .eTag(EntityTagUtil.versionTag(result.getVersion()))
+                    .body(result))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+  }
+
+  /**
+   * {@code GET  /cars/:id/documents} : export all the documents of the "id"
+   * car.
+   * <p>
+   * The documents are streamed as a JSON array while they are read, whatever
+   * their number.
+   *
+   * @param id the id of the car whose documents to export.
+   * @param includeData whether to inline the bytes of the documents, in
+   *     Base64.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the
+   *     list of documents in body.
+   * @throws ResponseStatusException with status {@code 404 (Not Found)} if
+   *     the car does not exist.
+   */
+  @GetMapping(value = "/cars/{id}/documents",
+              produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StreamingResponseBody>
+  exportCarDocuments(@PathVariable Long id,
+                     @RequestParam(defaultValue = "false")
+                     boolean includeData) {
+    log.debug("REST request to export the Documents of Car : {}", id);
+    if (!carRepository.existsById(id)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    StreamingResponseBody body =
+        out -> documentExportService.exportCarDocuments(id, includeData, out);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(
+        body);
+  }
+
+  /**
+   * {@code GET  /cars/:id/archive} : download the files of all the documents
+   * of the "id" car as a ZIP archive.
+   * <p>
+   * The archive is built while it is sent, one document at a time.
+   *
+   * @param id the id of the car whose documents to archive.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the
+   *     archive in body.
+   * @throws ResponseStatusException with status {@code 404 (Not Found)} if
+   *     the car does not exist.
+   */
+  @GetMapping("/cars/{id}/archive")
+  public ResponseEntity<StreamingResponseBody>
+  downloadCarArchive(@PathVariable Long id) {
+    log.debug("REST request to archive the Documents of Car : {}", id);
+    if (!carRepository.existsById(id)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    StreamingResponseBody body =
+        out -> documentExportService.exportCarArchive(id, out);
+    return ResponseEntity.ok()
+        .contentType(ARCHIVE_MEDIA_TYPE)
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment()
+                    .filename("car-" + id + ".zip")
+                    .build()
+                    .toString())
+        .body(body);
+  }
+
+  /**
+   * {@code POST  /cars/:id/archive} : create a document of the "id" car per
+   * file of the ZIP or TAR archive sent as request body.
+   * <p>
+   * The archive is read as it is received, without being extracted to disk.
+   * The documents are created in batches, outside of any transaction spanning
+   * the upload.
+   *
+   * @param id the id of the car the documents belong to.
+   * @param request the request whose body is the archive, its
+   *     {@code Content-Type} telling the archive format.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the
+   *     result of each entry of the archive in body.
+   * @throws IOException if the request body cannot be opened.
+   * @throws ResponseStatusException with status {@code 404 (Not Found)} if
+   *     the car does not exist.
+   */
+  @PostMapping(value = "/cars/{id}/archive",
+               consumes = {"application/zip", "application/x-zip-compressed",
+                           "application/x-tar", "application/gzip",
+                           "application/x-gzip"})
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public ResponseEntity<List<ArchiveEntryResultDTO>>
+  uploadCarArchive(@PathVariable Long id, HttpServletRequest request)
+      throws IOException {
+    log.debug("REST request to upload an archive of Documents for Car : {}",
+              id);
+    Car car = carRepository.findById(id).orElseThrow(
+        () -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    MediaType contentType = MediaType.parseMediaType(request.getContentType());
+    try (InputStream in = request.getInputStream()) {
+      ArchiveReader archive;
+      if ("x-tar".equals(contentType.getSubtype())) {
+        archive = new TarArchiveReader(in);
+      } else if (contentType.getSubtype().endsWith("gzip")) {
+        // a gzip-compressed TAR archive
+        archive = new TarArchiveReader(new GZIPInputStream(in));
+      } else {
+        archive = new ZipArchiveReader(in);
+      }
+      return ResponseEntity.ok(archiveIngestionService.ingest(car, archive));
+    }
   }
 
   /**
    * {@code DELETE  /cars/:id} : delete the "id" car.
    *
    * @param id the id of the car to delete.
-   * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the deletion conditional on the version of the car.
+   * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+   *     or with status {@code 412 (Precondition Failed)} if the car is not
+   *     at the version of {@code If-Match}.
    */
   @DeleteMapping("/cars/{id}")
-  public ResponseEntity<Void> deleteCar(@PathVariable Long id) {
+  public ResponseEntity<Void>
+  deleteCar(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
     log.debug("REST request to delete Car : {}", id);
-    carRepository.deleteById(id);
+    carService.delete(id, EntityTagUtil.expectedVersions(headers));
     return ResponseEntity.noContent()
         .headers(HeaderUtil.createEntityDeletionAlert(
             applicationName, true, ENTITY_NAME, id.toString()))
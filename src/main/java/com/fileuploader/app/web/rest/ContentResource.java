@@ -2,24 +2,42 @@ package com.fileuploader.app.web.rest;
 
 import com.fileuploader.app.domain.Content;
 import com.fileuploader.app.repository.ContentRepository;
+import com.fileuploader.app.service.ContentStorageService;
+import com.fileuploader.app.service.TransferAdmissionService;
+import com.fileuploader.app.service.TransferRejectedException;
+import com.fileuploader.app.service.dto.ContentMetadataDTO;
+import com.fileuploader.app.service.dto.StoredContentDTO;
 import com.fileuploader.app.web.rest.errors.BadRequestAlertException;
+import com.fileuploader.app.web.rest.util.DownloadUtil;
+import com.fileuploader.app.web.rest.util.EntityTagUtil;
+import com.fileuploader.app.web.rest.util.SlicePaginationUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
+import tech.jhipster.web.util.PaginationUtil;
 
 /**
  * REST controller for managing {@link com.fileuploader.app.domain.Content}.
@@ -37,8 +55,16 @@ public class ContentResource {
 
   private final ContentRepository contentRepository;
 
-  public ContentResource(ContentRepository contentRepository) {
+  private final ContentStorageService contentStorageService;
+
+  private final TransferAdmissionService transferAdmissionService;
+
+  public ContentResource(ContentRepository contentRepository,
+                         ContentStorageService contentStorageService,
+                         TransferAdmissionService transferAdmissionService) {
     this.contentRepository = contentRepository;
+    this.contentStorageService = contentStorageService;
+    this.transferAdmissionService = transferAdmissionService;
   }
 
   /**
@@ -58,7 +84,7 @@ public class ContentResource {
       throw new BadRequestAlertException(
           "A new content cannot already have an ID", ENTITY_NAME, "idexists");
     }
-    Content result = contentRepository.save(content);
+    Content result = contentStorageService.save(content);
     return ResponseEntity.created(new URI("/api/contents/" + result.getId()))
         .headers(HeaderUtil.createEntityCreationAlert(
             applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -70,9 +96,13 @@ public class ContentResource {
    *
    * @param id the id of the content to save.
    * @param content the content to update.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the update conditional on the version of the content.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
    *     body the updated content,
    * or with status {@code 400 (Bad Request)} if the content is not valid,
+   * or with status {@code 412 (Precondition Failed)} if the content is not at
+   * the version of {@code If-Match},
    * or with status {@code 500 (Internal Server Error)} if the content couldn't
    * be updated.
    * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -80,7 +110,8 @@ public class ContentResource {
   @PutMapping("/contents/{id}")
   public ResponseEntity<Content>
   updateContent(@PathVariable(value = "id", required = false) final Long id,
-                @Valid @RequestBody Content content) throws URISyntaxException {
+                @Valid @RequestBody Content content,
+                @RequestHeader HttpHeaders headers) throws URISyntaxException {
     log.debug("REST request to update Content : {}, {}", id, content);
     if (content.getId() == null) {
       throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -90,15 +121,15 @@ public class ContentResource {
                                          "idinvalid");
     }
 
-    if (!contentRepository.existsById(id)) {
-      throw new BadRequestAlertException("Entity not found", ENTITY_NAME,
-                                         "idnotfound");
-    }
-
-    Content result = contentRepository.save(content);
+    Set<Integer> expectedVersions = EntityTagUtil.expectedVersions(headers);
+    Content result =
+        contentStorageService.update(content, false, expectedVersions)
+            .orElseThrow(() -> new BadRequestAlertException(
+                             "Entity not found", ENTITY_NAME, "idnotfound"));
     return ResponseEntity.ok()
         .headers(HeaderUtil.createEntityUpdateAlert(
             applicationName, true, ENTITY_NAME, content.getId().toString()))
+        .eTag(EntityTagUtil.versionTag(result.getVersion()))
         .body(result);
   }
 
@@ -108,10 +139,14 @@ public class ContentResource {
    *
    * @param id the id of the content to save.
    * @param content the content to update.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the update conditional on the version of the content.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
    *     body the updated content,
    * or with status {@code 400 (Bad Request)} if the content is not valid,
    * or with status {@code 404 (Not Found)} if the content is not found,
+   * or with status {@code 412 (Precondition Failed)} if the content is not at
+   * the version of {@code If-Match},
    * or with status {@code 500 (Internal Server Error)} if the content couldn't
    * be updated.
    * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -120,7 +155,8 @@ public class ContentResource {
                 consumes = {"application/json", "application/merge-patch+json"})
   public ResponseEntity<Content>
   partialUpdateContent(@PathVariable(value = "id", required = false)
-                       final Long id, @NotNull @RequestBody Content content)
+                       final Long id, @NotNull @RequestBody Content content,
+                       @RequestHeader HttpHeaders headers)
       throws URISyntaxException {
     log.debug("REST request to partial update Content partially : {}, {}", id,
               content);
@@ -132,77 +168,191 @@ public class ContentResource {
                                          "idinvalid");
     }
 
-    if (!contentRepository.existsById(id)) {
-      throw new BadRequestAlertException("Entity not found", ENTITY_NAME,
-                                         "idnotfound");
-    }
-
-    Optional<Content> result =
-        contentRepository.findById(content.getId())
-            .map(existingContent -> {
-              if (content.getData() != null) {
-                existingContent.setData(content.getData());
-              }
-              if (content.getDataContentType() != null) {
-                existingContent.setDataContentType(
-                    content.getDataContentType());
-              }
-
-              return existingContent;
-            })
-            .map(contentRepository::save);
-
-    return ResponseUtil.wrapOrNotFound(
-        result,
-        HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME,
-                                           content.getId().toString()));
+    Set<Integer> expectedVersions = EntityTagUtil.expectedVersions(headers);
+    Content result =
+        contentStorageService.update(content, true, expectedVersions)
+            .orElseThrow(() -> new BadRequestAlertException(
+                             "Entity not found", ENTITY_NAME, "idnotfound"));
+    return ResponseEntity.ok()
+        .headers(HeaderUtil.createEntityUpdateAlert(
+            applicationName, true, ENTITY_NAME, content.getId().toString()))
+        .eTag(EntityTagUtil.versionTag(result.getVersion()))
+        .body(result);
   }
 
   /**
-   * {@code GET  /contents} : get all the contents.
+   * {@code GET  /contents} : get all the contents, without their bytes.
+   * <p>
+   * With {@code afterId}, the contents following that id are returned using
+   * keyset pagination, which only sorts by id and never counts.
    *
+   * @param pageable the pagination information.
    * @param filter the filter of the request.
+   * @param afterId the id of the last content of the previous page, for
+   *     keyset pagination.
+   * @param count whether to count the contents for the
+   *     {@code X-Total-Count} header.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the
    *     list of contents in body.
    */
   @GetMapping("/contents")
-  public List<Content>
-  getAllContents(@RequestParam(required = false) String filter) {
-    if ("document-is-null".equals(filter)) {
-      log.debug("REST request to get all Contents where document is null");
-      return StreamSupport
-          .stream(contentRepository.findAll().spliterator(), false)
-          .filter(content -> content.getDocument() == null)
-          .toList();
+  public ResponseEntity<List<ContentMetadataDTO>>
+  getAllContents(@org.springdoc.core.annotations.ParameterObject
+                 Pageable pageable,
+                 @RequestParam(required = false) String filter,
+                 @RequestParam(required = false) Long afterId,
+                 @RequestParam(defaultValue = "true") boolean count) {
+    boolean withoutDocument = "document-is-null".equals(filter);
+    if (withoutDocument) {
+      log.debug(
+          "REST request to get a page of Contents where document is null");
+    } else {
+      log.debug("REST request to get a page of Contents");
+    }
+    UriComponentsBuilder uriBuilder =
+        ServletUriComponentsBuilder.fromCurrentRequest();
+    if (afterId != null) {
+      if (!SlicePaginationUtil.isSortedById(pageable)) {
+        throw new BadRequestAlertException(
+            "Keyset pagination only sorts by id", ENTITY_NAME, "sortnotid");
+      }
+      Slice<ContentMetadataDTO> slice = contentStorageService.findMetadataAfter(
+          afterId, SlicePaginationUtil.keysetPageable(pageable),
+          withoutDocument);
+      HttpHeaders headers = SlicePaginationUtil.generateKeysetHttpHeaders(
+          uriBuilder, slice, ContentMetadataDTO::getId);
+      return ResponseEntity.ok().headers(headers).body(slice.getContent());
     }
-    log.debug("REST request to get all Contents");
-    return contentRepository.findAll();
+    if (!count) {
+      Slice<ContentMetadataDTO> slice =
+          contentStorageService.findMetadataSlice(pageable, withoutDocument);
+      HttpHeaders headers =
+          SlicePaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+      return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+    Page<ContentMetadataDTO> page =
+        contentStorageService.findAllMetadata(pageable, withoutDocument);
+    HttpHeaders headers =
+        PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+    return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
   /**
-   * {@code GET  /contents/:id} : get the "id" content.
+   * {@code GET  /contents/:id} : get the "id" content, without its bytes.
    *
    * @param id the id of the content to retrieve.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
-   *     body the content, or with status {@code 404 (Not Found)}.
+   *     body the content, or with status {@code 304 (Not Modified)} if the
+   *     {@code If-None-Match} header lists its version, or with status
+   *     {@code 404 (Not Found)}.
    */
   @GetMapping("/contents/{id}")
   public ResponseEntity<Content> getContent(@PathVariable Long id) {
     log.debug("REST request to get Content : {}", id);
-    Optional<Content> content = contentRepository.findById(id);
-    return ResponseUtil.wrapOrNotFound(content);
+    return contentRepository
+        .findById(id)
+        .map(result
+             -> ResponseEntity.ok()
+                    .cacheControl(EntityTagUtil.REVALIDATE)
+                    .eTag(EntityTagUtil.versionTag(result.getVersion()))
+                    .body(result))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+  }
+
+  /**
+   * {@code GET  /contents/:id/data} : stream the bytes of the "id" content.
+   * <p>
+   * Supports single {@code Range} requests, like the download of the bytes
+   * of a document.
+   *
+   * @param id the id of the content whose bytes to retrieve.
+   * @param headers the headers of the request.
+   * @param response the response the bytes are written to.
+   * @throws IOException if the bytes cannot be written.
+   * @throws ResponseStatusException with status {@code 404 (Not Found)} if
+   *     the content does not exist.
+   * @throws TransferRejectedException with status
+   *     {@code 429 (Too Many Requests)} if too many bytes are in flight.
+   */
+  @GetMapping("/contents/{id}/data")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void downloadContentData(@PathVariable Long id,
+                                  @RequestHeader HttpHeaders headers,
+                                  HttpServletResponse response)
+      throws IOException {
+    log.debug("REST request to download data of Content : {}", id);
+    StoredContentDTO content =
+        contentStorageService.findContent(id).orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    DownloadUtil.write(headers, response, content,
+                       (offset, length, compressed, out)
+                           -> copy(content, offset, length, compressed, out));
+  }
+
+  /**
+   * {@code GET  /contents/:id/data/:sha256} : stream the bytes of the "id"
+   * content, provided their checksum is "sha256".
+   * <p>
+   * As the bytes behind such a URL never change, the response may be kept
+   * by browsers and shared caches for a year without revalidation. The
+   * checksum makes the URL unguessable, so it is shared with any client
+   * knowing it. Supports single {@code Range} requests.
+   *
+   * @param id the id of the content whose bytes to retrieve.
+   * @param sha256 the checksum of the bytes.
+   * @param headers the headers of the request.
+   * @param response the response the bytes are written to.
+   * @throws IOException if the bytes cannot be written.
+   * @throws ResponseStatusException with status {@code 404 (Not Found)} if
+   *     the content does not exist or its bytes have another checksum.
+   * @throws TransferRejectedException with status
+   *     {@code 429 (Too Many Requests)} if too many bytes are in flight.
+   */
+  @GetMapping("/contents/{id}/data/{sha256}")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void downloadImmutableContentData(@PathVariable Long id,
+                                           @PathVariable String sha256,
+                                           @RequestHeader HttpHeaders headers,
+                                           HttpServletResponse response)
+      throws IOException {
+    log.debug("REST request to download data {} of Content : {}", sha256, id);
+    StoredContentDTO content =
+        contentStorageService.findContent(id)
+            .filter(found -> sha256.equals(found.getSha256()))
+            .orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    DownloadUtil.write(headers, response, content, DownloadUtil.IMMUTABLE,
+                       (offset, length, compressed, out)
+                           -> copy(content, offset, length, compressed, out));
+  }
+
+  /**
+   * Copies the bytes actually sent, once admitted, so that revalidations
+   * and ranges are only charged what they transfer.
+   */
+  private void copy(StoredContentDTO content, long offset, long length,
+                    boolean compressed, OutputStream out) throws IOException {
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(length)) {
+      contentStorageService.copy(content, offset, length, compressed, out);
+    }
   }
 
   /**
    * {@code DELETE  /contents/:id} : delete the "id" content.
    *
    * @param id the id of the content to delete.
-   * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the deletion conditional on the version of the content.
+   * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+   *     or with status {@code 412 (Precondition Failed)} if the content is not
+   *     at the version of {@code If-Match}.
    */
   @DeleteMapping("/contents/{id}")
-  public ResponseEntity<Void> deleteContent(@PathVariable Long id) {
+  public ResponseEntity<Void>
+  deleteContent(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
     log.debug("REST request to delete Content : {}", id);
-    contentRepository.deleteById(id);
+    contentStorageService.delete(id, EntityTagUtil.expectedVersions(headers));
     return ResponseEntity.noContent()
         .headers(HeaderUtil.createEntityDeletionAlert(
             applicationName, true, ENTITY_NAME, id.toString()))
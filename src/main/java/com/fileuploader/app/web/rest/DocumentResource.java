@@ -1,23 +1,54 @@
 package com.fileuploader.app.web.rest;
 
+import com.fileuploader.app.domain.Car;
 import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.repository.CarRepository;
 import com.fileuploader.app.repository.DocumentRepository;
+import com.fileuploader.app.service.BatchService;
+import com.fileuploader.app.service.ContentStorageService;
+import com.fileuploader.app.service.DocumentService;
+import com.fileuploader.app.service.InvalidDocumentException;
+import com.fileuploader.app.service.PreviewService;
+import com.fileuploader.app.service.TransferAdmissionService;
+import com.fileuploader.app.service.TransferRejectedException;
+import com.fileuploader.app.service.dto.BatchItemResultDTO;
+import com.fileuploader.app.service.dto.StoredContentDTO;
+import com.fileuploader.app.service.storage.StoredBlob;
 import com.fileuploader.app.web.rest.errors.BadRequestAlertException;
+import com.fileuploader.app.web.rest.util.DownloadUtil;
+import com.fileuploader.app.web.rest.util.EntityTagUtil;
+import com.fileuploader.app.web.rest.util.SlicePaginationUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
+import tech.jhipster.web.util.PaginationUtil;
 
 /**
  * REST controller for managing {@link com.fileuploader.app.domain.Document}.
@@ -35,8 +66,32 @@ public class DocumentResource {
 
   private final DocumentRepository documentRepository;
 
-  public DocumentResource(DocumentRepository documentRepository) {
+  private final CarRepository carRepository;
+
+  private final ContentStorageService contentStorageService;
+
+  private final BatchService batchService;
+
+  private final DocumentService documentService;
+
+  private final PreviewService previewService;
+
+  private final TransferAdmissionService transferAdmissionService;
+
+  public DocumentResource(DocumentRepository documentRepository,
+                          CarRepository carRepository,
+                          ContentStorageService contentStorageService,
+                          BatchService batchService,
+                          DocumentService documentService,
+                          PreviewService previewService,
+                          TransferAdmissionService transferAdmissionService) {
     this.documentRepository = documentRepository;
+    this.carRepository = carRepository;
+    this.contentStorageService = contentStorageService;
+    this.batchService = batchService;
+    this.documentService = documentService;
+    this.previewService = previewService;
+    this.transferAdmissionService = transferAdmissionService;
   }
 
   /**
@@ -64,14 +119,110 @@ public class DocumentResource {
         .body(result);
   }
 
+  /**
+   * {@code POST  /documents/upload} : Upload a file as a new document of a car,
+   * streaming its bytes to storage.
+   * <p>
+   * The request is admitted by the {@code MultipartAdmissionFilter}, which
+   * answers {@code 429 (Too Many Requests)} if too many bytes are in flight.
+   *
+   * @param carId the id of the car the document belongs to.
+   * @param title the title of the document, defaults to the file name.
+   * @param file the uploaded file.
+   * @return the {@link ResponseEntity} with status {@code 201 (Created)} and
+   *     with body the new document, or with status {@code 400 (Bad Request)} if
+   *     the car does not exist.
+   * @throws URISyntaxException if the Location URI syntax is incorrect.
+   * @throws IOException if the uploaded file cannot be read.
+   */
+  @PostMapping(value = "/documents/upload",
+               consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public ResponseEntity<Document>
+  uploadDocument(@RequestParam Long carId,
+                 @RequestParam(required = false) String title,
+                 @RequestPart("file") MultipartFile file)
+      throws URISyntaxException, IOException {
+    log.debug("REST request to upload Document {} for Car : {}",
+              file.getOriginalFilename(), carId);
+    String documentTitle = title != null ? title : file.getOriginalFilename();
+    // admitted by the MultipartAdmissionFilter before the file was spooled
+    try (InputStream in = file.getInputStream()) {
+      Car car = findCar(carId);
+      StoredBlob blob =
+          contentStorageService.writeBlob(file.getContentType(), in);
+      return uploaded(contentStorageService.store(
+          car, documentTitle, file.getContentType(), blob));
+    }
+  }
+
+  /**
+   * {@code POST  /documents/upload} : Upload the raw request body as a new
+   * document of a car, streaming it to storage.
+   *
+   * @param carId the id of the car the document belongs to.
+   * @param title the title of the document.
+   * @param mimeType the MIME type of the uploaded bytes.
+   * @param request the request whose body is the file.
+   * @return the {@link ResponseEntity} with status {@code 201 (Created)} and
+   *     with body the new document, or with status {@code 400 (Bad Request)} if
+   *     the car does not exist.
+   * @throws URISyntaxException if the Location URI syntax is incorrect.
+   * @throws IOException if the request body cannot be read.
+   * @throws TransferRejectedException with status
+   *     {@code 429 (Too Many Requests)} if too many bytes are in flight.
+   */
+  @PostMapping(value = "/documents/upload",
+               consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public ResponseEntity<Document>
+  uploadDocumentStream(@RequestParam Long carId, @RequestParam String title,
+                       @RequestParam(required = false) String mimeType,
+                       HttpServletRequest request)
+      throws URISyntaxException, IOException {
+    log.debug("REST request to upload Document {} for Car : {}", title, carId);
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(request.getContentLengthLong());
+         InputStream in = request.getInputStream()) {
+      Car car = findCar(carId);
+      StoredBlob blob = contentStorageService.writeBlob(mimeType, in);
+      return uploaded(contentStorageService.store(car, title, mimeType, blob));
+    }
+  }
+
+  private Car findCar(Long carId) {
+    return carRepository.findById(carId).orElseThrow(
+        ()
+            -> new BadRequestAlertException("Car not found", ENTITY_NAME,
+                                            "carnotfound"));
+  }
+
+  private static BadRequestAlertException
+  badRequest(InvalidDocumentException e) {
+    return new BadRequestAlertException(e.getMessage(), ENTITY_NAME,
+                                        e.getErrorKey());
+  }
+
+  private ResponseEntity<Document> uploaded(Document result)
+      throws URISyntaxException {
+    return ResponseEntity.created(new URI("/api/documents/" + result.getId()))
+        .headers(HeaderUtil.createEntityCreationAlert(
+            applicationName, true, ENTITY_NAME, result.getId().toString()))
+        .body(result);
+  }
+
   /**
    * {@code PUT  /documents/:id} : Updates an existing document.
    *
    * @param id the id of the document to save.
    * @param document the document to update.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the update conditional on the version of the document.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
    *     body the updated document,
    * or with status {@code 400 (Bad Request)} if the document is not valid,
+   * or with status {@code 412 (Precondition Failed)} if the document is not at
+   * the version of {@code If-Match},
    * or with status {@code 500 (Internal Server Error)} if the document couldn't
    * be updated.
    * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -79,7 +230,8 @@ public class DocumentResource {
   @PutMapping("/documents/{id}")
   public ResponseEntity<Document>
   updateDocument(@PathVariable(value = "id", required = false) final Long id,
-                 @Valid @RequestBody Document document)
+                 @Valid @RequestBody Document document,
+                 @RequestHeader HttpHeaders headers)
       throws URISyntaxException {
     log.debug("REST request to update Document : {}, {}", id, document);
     if (document.getId() == null) {
@@ -90,15 +242,21 @@ public class DocumentResource {
                                          "idinvalid");
     }
 
-    if (!documentRepository.existsById(id)) {
-      throw new BadRequestAlertException("Entity not found", ENTITY_NAME,
-                                         "idnotfound");
+    Set<Integer> expectedVersions = EntityTagUtil.expectedVersions(headers);
+    Document result;
+    try {
+      result = documentService.update(document, expectedVersions)
+                   .orElseThrow(()
+                                    -> new BadRequestAlertException(
+                                        "Entity not found", ENTITY_NAME,
+                                        "idnotfound"));
+    } catch (InvalidDocumentException e) {
+      throw badRequest(e);
     }
-
-    Document result = documentRepository.save(document);
     return ResponseEntity.ok()
         .headers(HeaderUtil.createEntityUpdateAlert(
             applicationName, true, ENTITY_NAME, document.getId().toString()))
+        .eTag(EntityTagUtil.versionTag(result.getVersion()))
         .body(result);
   }
 
@@ -108,10 +266,14 @@ public class DocumentResource {
    *
    * @param id the id of the document to save.
    * @param document the document to update.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the update conditional on the version of the document.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
    *     body the updated document,
    * or with status {@code 400 (Bad Request)} if the document is not valid,
    * or with status {@code 404 (Not Found)} if the document is not found,
+   * or with status {@code 412 (Precondition Failed)} if the document is not at
+   * the version of {@code If-Match},
    * or with status {@code 500 (Internal Server Error)} if the document couldn't
    * be updated.
    * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -120,7 +282,8 @@ public class DocumentResource {
                 consumes = {"application/json", "application/merge-patch+json"})
   public ResponseEntity<Document>
   partialUpdateDocument(@PathVariable(value = "id", required = false)
-                        final Long id, @NotNull @RequestBody Document document)
+                        final Long id, @NotNull @RequestBody Document document,
+                        @RequestHeader HttpHeaders headers)
       throws URISyntaxException {
     log.debug("REST request to partial update Document partially : {}, {}", id,
               document);
@@ -132,44 +295,152 @@ public class DocumentResource {
                                          "idinvalid");
     }
 
-    if (!documentRepository.existsById(id)) {
-      throw new BadRequestAlertException("Entity not found", ENTITY_NAME,
-                                         "idnotfound");
+    Set<Integer> expectedVersions = EntityTagUtil.expectedVersions(headers);
+    Document result;
+    try {
+      result = documentService.partialUpdate(document, expectedVersions)
+                   .orElseThrow(()
+                                    -> new BadRequestAlertException(
+                                        "Entity not found", ENTITY_NAME,
+                                        "idnotfound"));
+    } catch (InvalidDocumentException e) {
+      throw badRequest(e);
     }
+    return ResponseEntity.ok()
+        .headers(HeaderUtil.createEntityUpdateAlert(
+            applicationName, true, ENTITY_NAME, document.getId().toString()))
+        .eTag(EntityTagUtil.versionTag(result.getVersion()))
+        .body(result);
+  }
 
-    Optional<Document> result =
-        documentRepository.findById(document.getId())
-            .map(existingDocument -> {
-              if (document.getTitle() != null) {
-                existingDocument.setTitle(document.getTitle());
-              }
-              if (document.getSize() != null) {
-                existingDocument.setSize(document.getSize());
-              }
-              if (document.getMimeType() != null) {
-                existingDocument.setMimeType(document.getMimeType());
-              }
-
-              return existingDocument;
-            })
-            .map(documentRepository::save);
-
-    return ResponseUtil.wrapOrNotFound(
-        result,
-        HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME,
-                                           document.getId().toString()));
+  /**
+   * {@code POST  /documents/batch} : Create new documents in one transaction.
+   *
+   * @param documents the documents to create.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each document, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PostMapping("/documents/batch")
+  public ResponseEntity<List<BatchItemResultDTO>>
+  createDocuments(@NotNull @RequestBody List<Document> documents) {
+    log.debug("REST request to save a batch of {} Documents",
+              documents.size());
+    checkBatchSize(documents);
+    return ResponseEntity.ok(batchService.createDocuments(documents));
+  }
+
+  /**
+   * {@code PUT  /documents/batch} : Updates existing documents in one
+   * transaction.
+   *
+   * @param documents the documents to update.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each document, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PutMapping("/documents/batch")
+  public ResponseEntity<List<BatchItemResultDTO>>
+  updateDocuments(@NotNull @RequestBody List<Document> documents) {
+    log.debug("REST request to update a batch of {} Documents",
+              documents.size());
+    checkBatchSize(documents);
+    return ResponseEntity.ok(batchService.updateDocuments(documents, false));
+  }
+
+  /**
+   * {@code PATCH  /documents/batch} : Partial updates given fields of existing
+   * documents in one transaction, field will ignore if it is null
+   *
+   * @param documents the documents to update.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each document, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PatchMapping(value = "/documents/batch",
+                consumes = {"application/json", "application/merge-patch+json"})
+  public ResponseEntity<List<BatchItemResultDTO>>
+  partialUpdateDocuments(@NotNull @RequestBody List<Document> documents) {
+    log.debug("REST request to partial update a batch of {} Documents",
+              documents.size());
+    checkBatchSize(documents);
+    return ResponseEntity.ok(batchService.updateDocuments(documents, true));
+  }
+
+  /**
+   * {@code POST  /documents/batch/delete} : Delete documents in one
+   * transaction.
+   *
+   * @param ids the ids of the documents to delete.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the result of each id, or with status
+   *     {@code 400 (Bad Request)} if the batch is too large.
+   */
+  @PostMapping("/documents/batch/delete")
+  public ResponseEntity<List<BatchItemResultDTO>>
+  deleteDocuments(@NotNull @RequestBody List<Long> ids) {
+    log.debug("REST request to delete a batch of {} Documents", ids.size());
+    checkBatchSize(ids);
+    return ResponseEntity.ok(batchService.deleteDocuments(ids));
+  }
+
+  private static void checkBatchSize(List<?> items) {
+    if (items.size() > BatchService.MAX_BATCH_SIZE) {
+      throw new BadRequestAlertException(
+          "A batch cannot hold more than " + BatchService.MAX_BATCH_SIZE +
+              " items",
+          ENTITY_NAME, "batchtoolarge");
+    }
   }
 
   /**
    * {@code GET  /documents} : get all the documents.
+   * <p>
+   * With {@code afterId}, the documents following that id are returned using
+   * keyset pagination, which only sorts by id and never counts.
    *
+   * @param pageable the pagination information.
+   * @param afterId the id of the last document of the previous page, for keyset
+   *     pagination.
+   * @param count whether to count the documents for the
+   *     {@code X-Total-Count} header.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the
    *     list of documents in body.
    */
   @GetMapping("/documents")
-  public List<Document> getAllDocuments() {
-    log.debug("REST request to get all Documents");
-    return documentRepository.findAll();
+  public ResponseEntity<List<Document>>
+  getAllDocuments(@org.springdoc.core.annotations.ParameterObject
+                  Pageable pageable,
+                  @RequestParam(required = false) Long afterId,
+                  @RequestParam(defaultValue = "true") boolean count) {
+    UriComponentsBuilder uriBuilder =
+        ServletUriComponentsBuilder.fromCurrentRequest();
+    if (afterId != null) {
+      log.debug("REST request to get a page of Documents after {}", afterId);
+      if (!SlicePaginationUtil.isSortedById(pageable)) {
+        throw new BadRequestAlertException(
+            "Keyset pagination only sorts by id", ENTITY_NAME, "sortnotid");
+      }
+      Pageable keyset = SlicePaginationUtil.keysetPageable(pageable);
+      Slice<Document> slice =
+          SlicePaginationUtil.isDescending(keyset)
+              ? documentRepository.findAllByIdLessThan(afterId, keyset)
+              : documentRepository.findAllByIdGreaterThan(afterId, keyset);
+      HttpHeaders headers = SlicePaginationUtil.generateKeysetHttpHeaders(
+          uriBuilder, slice, Document::getId);
+      return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+    log.debug("REST request to get a page of Documents");
+    if (!count) {
+      Slice<Document> slice = documentRepository.findAllBy(pageable);
+      HttpHeaders headers =
+          SlicePaginationUtil.generateSliceHttpHeaders(uriBuilder, slice);
+      return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+    Page<Document> page = documentRepository.findAll(pageable);
+    HttpHeaders headers =
+        PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+    return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
   /**
@@ -177,25 +448,113 @@ public class DocumentResource {
    *
    * @param id the id of the document to retrieve.
    * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
-   *     body the document, or with status {@code 404 (Not Found)}.
+   *     body the document, or with status {@code 304 (Not Modified)} if the
+   *     {@code If-None-Match} header lists its version, or with status
+   *     {@code 404 (Not Found)}.
    */
   @GetMapping("/documents/{id}")
   public ResponseEntity<Document> getDocument(@PathVariable Long id) {
     log.debug("REST request to get Document : {}", id);
-    Optional<Document> document = documentRepository.findById(id);
-    return ResponseUtil.wrapOrNotFound(document);
+    return documentRepository
+        .findById(id)
+        .map(result
+             -> ResponseEntity.ok()
+                    .cacheControl(EntityTagUtil.REVALIDATE)
+                    .eTag(EntityTagUtil.versionTag(result.getVersion()))
+                    .body(result))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+  }
+
+  /**
+   * {@code GET  /documents/:id/data} : stream the bytes of the "id" document.
+   * <p>
+   * Supports single {@code Range} requests, validated by {@code If-Range}
+   * against the checksum of the content, so interrupted downloads can be
+   * resumed.
+   *
+   * @param id the id of the document whose bytes to retrieve.
+   * @param headers the headers of the request.
+   * @param response the response the bytes are written to, with status
+   *     {@code 200 (OK)}, {@code 206 (Partial Content)} or
+   *     {@code 416 (Range Not Satisfiable)}.
+   * @throws IOException if the bytes cannot be written.
+   * @throws ResponseStatusException with status {@code 404 (Not Found)} if
+   *     the document or its content does not exist.
+   * @throws TransferRejectedException with status
+   *     {@code 429 (Too Many Requests)} if too many bytes are in flight.
+   */
+  @GetMapping("/documents/{id}/data")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void downloadDocumentData(@PathVariable Long id,
+                                   @RequestHeader HttpHeaders headers,
+                                   HttpServletResponse response)
+      throws IOException {
+    log.debug("REST request to download data of Document : {}", id);
+    StoredContentDTO content =
+        contentStorageService.findDocumentContent(id).orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    DownloadUtil.write(headers, response, content,
+                       (offset, length, compressed, out)
+                           -> copy(content, offset, length, compressed, out));
+  }
+
+  /**
+   * Copies the bytes actually sent, once admitted, so that revalidations
+   * and ranges are only charged what they transfer.
+   */
+  private void copy(StoredContentDTO content, long offset, long length,
+                    boolean compressed, OutputStream out) throws IOException {
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(length)) {
+      contentStorageService.copy(content, offset, length, compressed, out);
+    }
+  }
+
+  /**
+   * {@code GET  /documents/:id/preview} : get the thumbnail of the "id"
+   * document, for images and PDFs.
+   * <p>
+   * Previews are rendered in the background after an upload, so a document
+   * just uploaded may have none yet.
+   *
+   * @param id the id of the document whose preview to retrieve.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the JPEG preview, or with status {@code 304 (Not Modified)} if
+   *     the {@code If-None-Match} header lists it, or with status
+   *     {@code 404 (Not Found)} if the document has no preview yet or cannot
+   *     be previewed.
+   */
+  @GetMapping("/documents/{id}/preview")
+  public ResponseEntity<byte[]> getDocumentPreview(@PathVariable Long id) {
+    log.debug("REST request to get preview of Document : {}", id);
+    return previewService.findDocumentPreview(id)
+        .map(preview
+             -> ResponseEntity.ok()
+                    .cacheControl(EntityTagUtil.REVALIDATE)
+                    .eTag("\"preview-" + preview.getStorageKey() + "\"")
+                    .lastModified(preview.getCreatedDate())
+                    .contentType(MediaType.parseMediaType(
+                        preview.getContentType()))
+                    .body(preview.getData()))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
   }
 
   /**
-   * {@code DELETE  /documents/:id} : delete the "id" document.
+   * {@code DELETE  /documents/:id} : delete the "id" document and its content.
    *
    * @param id the id of the document to delete.
-   * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+   * @param headers the headers of the request, whose {@code If-Match} makes
+   *     the deletion conditional on the version of the document.
+   * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+   *     or with status {@code 412 (Precondition Failed)} if the document is not
+   *     at the version of {@code If-Match}.
    */
   @DeleteMapping("/documents/{id}")
-  public ResponseEntity<Void> deleteDocument(@PathVariable Long id) {
+  public ResponseEntity<Void>
+  deleteDocument(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
     log.debug("REST request to delete Document : {}", id);
-    documentRepository.deleteById(id);
+    contentStorageService.deleteDocument(
+        id, EntityTagUtil.expectedVersions(headers));
     return ResponseEntity.noContent()
         .headers(HeaderUtil.createEntityDeletionAlert(
             applicationName, true, ENTITY_NAME, id.toString()))
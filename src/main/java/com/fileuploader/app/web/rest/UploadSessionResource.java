@@ -0,0 +1,203 @@
+package com.fileuploader.app.web.rest;
+
+import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.service.InvalidUploadException;
+import com.fileuploader.app.service.TransferAdmissionService;
+import com.fileuploader.app.service.TransferRejectedException;
+import com.fileuploader.app.service.UploadSessionService;
+import com.fileuploader.app.service.dto.UploadSessionDTO;
+import com.fileuploader.app.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for resumable uploads of
+ * {@link com.fileuploader.app.domain.Document}s.
+ * <p>
+ * A client opens a session with the size of the file, uploads the chunks of
+ * the file in any order, checks which chunks were received to resume after a
+ * failure, then completes the session.
+ */
+@RestController
+@RequestMapping("/api")
+public class UploadSessionResource {
+
+  /**
+   * The request header carrying the hexadecimal SHA-256 of a chunk, or of
+   * the whole file on completion.
+   */
+  public static final String CHECKSUM_HEADER = "X-Checksum-Sha256";
+
+  private final Logger log =
+      LoggerFactory.getLogger(UploadSessionResource.class);
+
+  private static final String ENTITY_NAME = "uploadSession";
+
+  @Value("${jhipster.clientApp.name}") private String applicationName;
+
+  private final UploadSessionService uploadSessionService;
+
+  private final TransferAdmissionService transferAdmissionService;
+
+  public UploadSessionResource(
+      UploadSessionService uploadSessionService,
+      TransferAdmissionService transferAdmissionService) {
+    this.uploadSessionService = uploadSessionService;
+    this.transferAdmissionService = transferAdmissionService;
+  }
+
+  /**
+   * {@code POST  /upload-sessions} : Open a resumable upload session.
+   *
+   * @param uploadSessionDTO the car, title, MIME type and size of the file,
+   *     and optionally the size of its chunks.
+   * @return the {@link ResponseEntity} with status {@code 201 (Created)} and
+   *     with body the new upload session, or with status
+   *     {@code 400 (Bad Request)} if the car does not exist or the chunk size
+   *     is too large.
+   * @throws URISyntaxException if the Location URI syntax is incorrect.
+   */
+  @PostMapping("/upload-sessions")
+  public ResponseEntity<UploadSessionDTO>
+  createUploadSession(@Valid @RequestBody UploadSessionDTO uploadSessionDTO)
+      throws URISyntaxException {
+    log.debug("REST request to create Upload Session : {}", uploadSessionDTO);
+    UploadSessionDTO result;
+    try {
+      result = uploadSessionService.create(uploadSessionDTO);
+    } catch (InvalidUploadException e) {
+      throw badRequest(e);
+    }
+    return ResponseEntity
+        .created(new URI("/api/upload-sessions/" + result.getId()))
+        .headers(HeaderUtil.createEntityCreationAlert(
+            applicationName, true, ENTITY_NAME, result.getId()))
+        .body(result);
+  }
+
+  /**
+   * {@code GET  /upload-sessions/:id} : get the "id" upload session, with the
+   * chunks received so far.
+   *
+   * @param id the id of the upload session.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the upload session, or with status {@code 404 (Not Found)} if it
+   *     does not exist or has expired.
+   * @throws IOException if the received chunks cannot be listed.
+   */
+  @GetMapping("/upload-sessions/{id}")
+  public ResponseEntity<UploadSessionDTO>
+  getUploadSession(@PathVariable String id) throws IOException {
+    log.debug("REST request to get Upload Session : {}", id);
+    return ResponseUtil.wrapOrNotFound(uploadSessionService.findOne(id));
+  }
+
+  /**
+   * {@code PUT  /upload-sessions/:id/chunks/:index} : upload a chunk of the
+   * "id" upload session, replacing any previous upload of the same chunk.
+   *
+   * @param id the id of the upload session.
+   * @param index the zero-based index of the chunk.
+   * @param sha256 the hexadecimal SHA-256 of the chunk, to verify it.
+   * @param request the request whose body is the chunk.
+   * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with
+   *     body the upload session, or with status {@code 400 (Bad Request)} if
+   *     the chunk is invalid, or with status {@code 404 (Not Found)} if the
+   *     session does not exist or has expired.
+   * @throws IOException if the chunk cannot be read or staged.
+   * @throws TransferRejectedException with status
+   *     {@code 429 (Too Many Requests)} if too many bytes are in flight.
+   */
+  @PutMapping(value = "/upload-sessions/{id}/chunks/{index}",
+              consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<UploadSessionDTO>
+  putUploadSessionChunk(@PathVariable String id, @PathVariable int index,
+                        @RequestHeader(value = CHECKSUM_HEADER,
+                                       required = false) String sha256,
+                        HttpServletRequest request) throws IOException {
+    log.debug("REST request to put chunk {} of Upload Session : {}", index,
+              id);
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(request.getContentLengthLong());
+         InputStream in = request.getInputStream()) {
+      return ResponseUtil.wrapOrNotFound(
+          uploadSessionService.putChunk(id, index, in, sha256));
+    } catch (InvalidUploadException e) {
+      throw badRequest(e);
+    }
+  }
+
+  /**
+   * {@code POST  /upload-sessions/:id/complete} : assemble the chunks of the
+   * "id" upload session into a new document.
+   *
+   * @param id the id of the upload session.
+   * @param sha256 the hexadecimal SHA-256 of the whole file, to verify it.
+   * @return the {@link ResponseEntity} with status {@code 201 (Created)} and
+   *     with body the new document, or with status {@code 400 (Bad Request)}
+   *     if chunks are missing or the file does not match its checksum.
+   * @throws URISyntaxException if the Location URI syntax is incorrect.
+   * @throws IOException if the chunks cannot be read.
+   * @throws ResponseStatusException with status {@code 404 (Not Found)} if
+   *     the session does not exist or has expired.
+   */
+  @PostMapping("/upload-sessions/{id}/complete")
+  public ResponseEntity<Document>
+  completeUploadSession(@PathVariable String id,
+                        @RequestHeader(value = CHECKSUM_HEADER,
+                                       required = false) String sha256)
+      throws URISyntaxException, IOException {
+    log.debug("REST request to complete Upload Session : {}", id);
+    Document result;
+    try {
+      result = uploadSessionService.complete(id, sha256).orElseThrow(
+          () -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    } catch (InvalidUploadException e) {
+      throw badRequest(e);
+    }
+    return ResponseEntity.created(new URI("/api/documents/" + result.getId()))
+        .headers(HeaderUtil.createEntityCreationAlert(
+            applicationName, true, "document", result.getId().toString()))
+        .body(result);
+  }
+
+  /**
+   * {@code DELETE  /upload-sessions/:id} : abort the "id" upload session.
+   *
+   * @param id the id of the upload session.
+   * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+   *     or with status {@code 404 (Not Found)} if it does not exist.
+   * @throws IOException if the chunks cannot be deleted.
+   */
+  @DeleteMapping("/upload-sessions/{id}")
+  public ResponseEntity<Void> deleteUploadSession(@PathVariable String id)
+      throws IOException {
+    log.debug("REST request to delete Upload Session : {}", id);
+    if (!uploadSessionService.delete(id)) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.noContent()
+        .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true,
+                                                      ENTITY_NAME, id))
+        .build();
+  }
+
+  private static BadRequestAlertException badRequest(InvalidUploadException e) {
+    return new BadRequestAlertException(e.getMessage(), ENTITY_NAME,
+                                        e.getErrorKey());
+  }
+}
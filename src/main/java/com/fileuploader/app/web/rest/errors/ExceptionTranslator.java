@@ -2,6 +2,8 @@ package com.fileuploader.app.web.rest.errors;
 
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
 
+import com.fileuploader.app.service.PreconditionFailedException;
+import com.fileuploader.app.service.TransferRejectedException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.net.URI;
 import java.util.Arrays;
@@ -220,6 +222,8 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
         // Where we disagree with Spring defaults
         if (err instanceof AccessDeniedException) return HttpStatus.FORBIDDEN;
         if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
+        if (err instanceof PreconditionFailedException) return HttpStatus.PRECONDITION_FAILED;
+        if (err instanceof TransferRejectedException) return HttpStatus.TOO_MANY_REQUESTS;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
         return null;
     }
@@ -230,6 +234,11 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
     }
 
     private HttpHeaders buildHeaders(Throwable err, NativeWebRequest request) {
+        if (err instanceof TransferRejectedException rejected) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfter().toSeconds()));
+            return headers;
+        }
         return err instanceof BadRequestAlertException
             ? HeaderUtil.createFailureAlert(
                 applicationName,
@@ -0,0 +1,266 @@
+package com.fileuploader.app.web.rest.util;
+
+import com.fileuploader.app.service.dto.StoredContentDTO;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Utility class for streaming stored bytes to an HTTP response, honouring
+ * {@code If-None-Match}, {@code If-Modified-Since}, {@code Range},
+ * {@code If-Range} and {@code Accept-Encoding} request headers.
+ */
+public final class DownloadUtil {
+
+  /**
+   * Lets browsers and shared caches keep a response for a year without ever
+   * revalidating it, for URLs naming the checksum of the bytes they serve.
+   */
+  public static final CacheControl IMMUTABLE =
+      CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+  private DownloadUtil() {}
+
+  /**
+   * Writes a slice of stored bytes to an output stream, either the original
+   * bytes or, if {@code compressed}, the gzip-compressed ones.
+   * <p>
+   * It is only called for bytes about to be sent, so it may also admit their
+   * transfer: the response is reset if it fails before writing anything.
+   */
+  @FunctionalInterface
+  public interface RangeWriter {
+    void write(long offset, long length, boolean compressed, OutputStream out)
+        throws IOException;
+  }
+
+  /**
+   * Streams {@code content} to {@code response}, to be revalidated before
+   * every use.
+   * <p>
+   * The bytes behind such a URL change when the content is pointed at other
+   * ones, possibly stored earlier, so they are validated by their entity tag
+   * alone, without {@code Last-Modified}.
+   *
+   * @param requestHeaders the headers of the request.
+   * @param response the response to write to.
+   * @param content the stored content to send.
+   * @param writer the writer copying stored bytes to the response.
+   * @throws IOException if the content cannot be written.
+   * @see #write(HttpHeaders, HttpServletResponse, StoredContentDTO,
+   *     CacheControl, RangeWriter)
+   */
+  public static void write(HttpHeaders requestHeaders,
+                           HttpServletResponse response,
+                           StoredContentDTO content, RangeWriter writer)
+      throws IOException {
+    write(requestHeaders, response, content, EntityTagUtil.REVALIDATE, null,
+          writer);
+  }
+
+  /**
+   * Streams {@code content} to {@code response}, for a URL whose bytes never
+   * change.
+   * <p>
+   * A request whose {@code If-None-Match} validator matches the checksum of
+   * the content, or without {@code If-None-Match} but whose
+   * {@code If-Modified-Since} date is not before the content was stored, is
+   * answered with {@code 304 (Not Modified)}, without calling
+   * {@code writer}.
+   * <p>
+   * A single satisfiable byte range is answered with
+   * {@code 206 (Partial Content)}, an unsatisfiable one with
+   * {@code 416 (Range Not Satisfiable)}. Multiple ranges and ranges whose
+   * {@code If-Range} validator does not match the current entity tag are
+   * ignored and the full content is sent.
+   * <p>
+   * Content stored gzip-compressed is sent as is, with
+   * {@code Content-Encoding: gzip} and an entity tag of its own, to requests
+   * accepting gzip without asking for a range.
+   *
+   * @param requestHeaders the headers of the request.
+   * @param response the response to write to.
+   * @param content the stored content to send.
+   * @param cacheControl how long the response may be kept, only sent along
+   *     with the entity tag of the content.
+   * @param writer the writer copying stored bytes to the response.
+   * @throws IOException if the content cannot be written.
+   */
+  public static void write(HttpHeaders requestHeaders,
+                           HttpServletResponse response,
+                           StoredContentDTO content, CacheControl cacheControl,
+                           RangeWriter writer) throws IOException {
+    write(requestHeaders, response, content, cacheControl,
+          content.getLastModified(), writer);
+  }
+
+  private static void write(HttpHeaders requestHeaders,
+                            HttpServletResponse response,
+                            StoredContentDTO content,
+                            CacheControl cacheControl, Instant lastModified,
+                            RangeWriter writer) throws IOException {
+    boolean compressed = content.getCompressedLength() != null &&
+                         acceptsGzip(requestHeaders) &&
+                         !requestHeaders.containsKey(HttpHeaders.RANGE);
+    long length = compressed ? content.getCompressedLength()
+                             : content.getLength();
+    String etag = compressed ? gzipEtag(content) : etag(content);
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    // the bytes may be compressed on their way out
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (lastModified != null) {
+      response.setDateHeader(HttpHeaders.LAST_MODIFIED,
+                             lastModified.toEpochMilli());
+    }
+    if (etag != null) {
+      response.setHeader(HttpHeaders.ETAG, etag);
+      response.setHeader(HttpHeaders.CACHE_CONTROL,
+                         cacheControl.getHeaderValue());
+    }
+    if (isNotModified(requestHeaders, etag, lastModified)) {
+      // the client already holds these bytes
+      response.setStatus(HttpStatus.NOT_MODIFIED.value());
+      return;
+    }
+    if (content.getFilename() != null) {
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                         ContentDisposition.inline()
+                             .filename(content.getFilename(),
+                                       StandardCharsets.UTF_8)
+                             .build()
+                             .toString());
+    }
+
+    HttpRange range;
+    try {
+      range = compressed ? null : requestedRange(requestHeaders, etag);
+    } catch (IllegalArgumentException e) {
+      range = null;
+    }
+    long start = 0;
+    long end = length - 1;
+    if (range != null) {
+      try {
+        start = range.getRangeStart(length);
+        end = range.getRangeEnd(length);
+      } catch (IllegalArgumentException e) {
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        return;
+      }
+      response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+      response.setHeader(HttpHeaders.CONTENT_RANGE,
+                         "bytes " + start + "-" + end + "/" + length);
+    } else {
+      response.setStatus(HttpStatus.OK.value());
+    }
+    response.setContentType(content.getContentType());
+    if (compressed) {
+      // also keeps the servlet container from compressing the bytes again
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    response.setContentLengthLong(end - start + 1);
+    if (end >= start) {
+      try {
+        writer.write(start, end - start + 1, compressed,
+                     response.getOutputStream());
+      } catch (IOException | RuntimeException e) {
+        if (!response.isCommitted()) {
+          // lets the error be answered without the headers of the content
+          response.reset();
+        }
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * @return the strong entity tag of {@code content}, or {@code null} if its
+   *     checksum is unknown.
+   */
+  public static String etag(StoredContentDTO content) {
+    return content.getSha256() != null ? "\"" + content.getSha256() + "\""
+                                       : null;
+  }
+
+  /**
+   * @return the strong entity tag of the gzip-compressed bytes of
+   *     {@code content}, or {@code null} if its checksum is unknown.
+   */
+  public static String gzipEtag(StoredContentDTO content) {
+    return content.getSha256() != null ? "\"" + content.getSha256() + "-gzip\""
+                                       : null;
+  }
+
+  private static boolean acceptsGzip(HttpHeaders requestHeaders) {
+    for (String value :
+         requestHeaders.getValuesAsList(HttpHeaders.ACCEPT_ENCODING)) {
+      String[] parameters = value.split(";");
+      String coding = parameters[0].trim();
+      if (coding.equalsIgnoreCase("gzip") ||
+          coding.equalsIgnoreCase("x-gzip")) {
+        return !isRefused(parameters);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return whether the parameters of a coding give it a quality of zero.
+   */
+  private static boolean isRefused(String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].trim();
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2)) <= 0;
+        } catch (NumberFormatException e) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isNotModified(HttpHeaders requestHeaders,
+                                       String etag, Instant lastModified) {
+    if (requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)) {
+      return etag != null && EntityTagUtil.isNotModified(requestHeaders, etag);
+    }
+    if (lastModified == null) {
+      return false;
+    }
+    long ifModifiedSince;
+    try {
+      ifModifiedSince = requestHeaders.getIfModifiedSince();
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    // HTTP dates have a precision of one second
+    return ifModifiedSince >=
+        lastModified.truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+  }
+
+  private static HttpRange requestedRange(HttpHeaders requestHeaders,
+                                          String etag) {
+    List<HttpRange> ranges = requestHeaders.getRange();
+    if (ranges.size() != 1) {
+      return null;
+    }
+    String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+    if (ifRange != null && !ifRange.equals(etag)) {
+      return null;
+    }
+    return ranges.get(0);
+  }
+}
@@ -0,0 +1,85 @@
+package com.fileuploader.app.web.rest.util;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Utility class for the entity tags of versioned entities, and the
+ * conditional requests made with them.
+ */
+public final class EntityTagUtil {
+
+  /**
+   * Lets clients keep a response but revalidate it, with
+   * {@code If-None-Match}, before every use.
+   */
+  public static final CacheControl REVALIDATE =
+      CacheControl.noCache().cachePrivate();
+
+  private EntityTagUtil() {}
+
+  /**
+   * @param version the version of an entity.
+   * @return the strong entity tag of the entity at {@code version}.
+   */
+  public static String versionTag(Integer version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Reads the versions a conditional write expects from its {@code If-Match}
+   * header. The write may proceed if the entity is at any of them, the strong
+   * comparison being used: weak tags and tags that are not versions never
+   * match.
+   *
+   * @param headers the headers of the request.
+   * @return the expected versions, empty if none can match, or {@code null}
+   *     for any version.
+   */
+  public static Set<Integer> expectedVersions(HttpHeaders headers) {
+    List<String> tags;
+    try {
+      tags = headers.getIfMatch();
+    } catch (IllegalArgumentException e) {
+      return Set.of();
+    }
+    if (tags.isEmpty() || tags.contains("*")) {
+      return null;
+    }
+    Set<Integer> versions = new HashSet<>();
+    for (String tag : tags) {
+      if (tag.matches("\"[0-9]{1,9}\"")) {
+        versions.add(Integer.valueOf(tag.substring(1, tag.length() - 1)));
+      }
+    }
+    return versions;
+  }
+
+  /**
+   * @param headers the headers of the request.
+   * @param etag the current entity tag of the resource.
+   * @return whether the {@code If-None-Match} header of the request lists
+   *     {@code etag}, using the weak comparison.
+   */
+  public static boolean isNotModified(HttpHeaders headers, String etag) {
+    List<String> tags;
+    try {
+      tags = headers.getIfNoneMatch();
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    for (String tag : tags) {
+      if ("*".equals(tag) || weak(tag).equals(weak(etag))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String weak(String tag) {
+    return tag.startsWith("W/") ? tag.substring(2) : tag;
+  }
+}
@@ -0,0 +1,135 @@
+package com.fileuploader.app.web.rest.util;
+
+import java.text.MessageFormat;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for paginating without counting the rows, complementing
+ * {@link tech.jhipster.web.util.PaginationUtil}.
+ * <p>
+ * Two modes are supported:
+ * <ul>
+ * <li>offset pagination without count, which answers the {@code page} and
+ * {@code size} parameters with a {@link Slice} and omits the
+ * {@code X-Total-Count} header;</li>
+ * <li>keyset pagination, which seeks past the {@code afterId} parameter on
+ * the indexed {@code id} column instead of skipping {@code OFFSET} rows, so
+ * deep pages cost the same as the first one.</li>
+ * </ul>
+ */
+public final class SlicePaginationUtil {
+
+  /**
+   * The request parameter holding the last id of the previous keyset page.
+   */
+  public static final String AFTER_ID_PARAMETER = "afterId";
+
+  private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+  private SlicePaginationUtil() {}
+
+  /**
+   * @param pageable the pagination information of the request.
+   * @return whether {@code pageable} is unsorted or only sorted by id, as
+   *     keyset pagination requires.
+   */
+  public static boolean isSortedById(Pageable pageable) {
+    return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(
+        "id"::equals);
+  }
+
+  /**
+   * @param pageable the pagination information of the request.
+   * @return the first page of the size of {@code pageable}, sorted by id in
+   *     the direction requested by {@code pageable}, ascending by default.
+   */
+  public static Pageable keysetPageable(Pageable pageable) {
+    Sort.Order order = pageable.getSort().getOrderFor("id");
+    Sort.Direction direction =
+        order == null ? Sort.Direction.ASC : order.getDirection();
+    return PageRequest.of(0, pageable.getPageSize(), direction, "id");
+  }
+
+  /**
+   * @param pageable keyset pagination information, as returned by
+   *     {@link #keysetPageable(Pageable)}.
+   * @return whether the keyset page lists ids in descending order.
+   */
+  public static boolean isDescending(Pageable pageable) {
+    Sort.Order order = pageable.getSort().getOrderFor("id");
+    return order != null && order.isDescending();
+  }
+
+  /**
+   * Generates the {@code Link} header of a keyset page, pointing to the next
+   * page when there is one.
+   *
+   * @param uriBuilder the URI of the request.
+   * @param slice the keyset page.
+   * @param idExtractor the function returning the id of an element.
+   * @param <T> the type of the elements.
+   * @return the {@link HttpHeaders}.
+   */
+  public static <T> HttpHeaders
+  generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice,
+                            Function<T, Long> idExtractor) {
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+      String uri =
+          uriBuilder.replaceQueryParam("page")
+              .replaceQueryParam(AFTER_ID_PARAMETER, idExtractor.apply(last))
+              .replaceQueryParam("size", slice.getSize())
+              .toUriString()
+              .replace(",", "%2C");
+      headers.add(HttpHeaders.LINK,
+                  MessageFormat.format(HEADER_LINK_FORMAT, uri, "next"));
+    }
+    return headers;
+  }
+
+  /**
+   * Generates the {@code Link} header of a page read without count. Unlike
+   * {@link tech.jhipster.web.util.PaginationUtil}, neither the
+   * {@code X-Total-Count} header nor a {@code last} link are generated.
+   *
+   * @param uriBuilder the URI of the request.
+   * @param slice the page.
+   * @param <T> the type of the elements.
+   * @return the {@link HttpHeaders}.
+   */
+  public static <T> HttpHeaders
+  generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+    int pageNumber = slice.getNumber();
+    int pageSize = slice.getSize();
+    StringBuilder link = new StringBuilder();
+    if (slice.hasNext()) {
+      link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next"))
+          .append(",");
+    }
+    if (slice.hasPrevious()) {
+      link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev"))
+          .append(",");
+    }
+    link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(HttpHeaders.LINK, link.toString());
+    return headers;
+  }
+
+  private static String prepareLink(UriComponentsBuilder uriBuilder,
+                                    int pageNumber, int pageSize,
+                                    String relType) {
+    String uri = uriBuilder.replaceQueryParam("page", pageNumber)
+                     .replaceQueryParam("size", pageSize)
+                     .toUriString()
+                     .replace(",", "%2C");
+    return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+  }
+}
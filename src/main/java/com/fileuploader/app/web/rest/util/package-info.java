@@ -0,0 +1,4 @@
+/**
+ * Utility classes for the rest layer.
+ */
+package com.fileuploader.app.web.rest.util;
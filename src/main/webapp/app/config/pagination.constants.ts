@@ -1,3 +1,5 @@
 export const TOTAL_COUNT_RESPONSE_HEADER = 'X-Total-Count';
 export const PAGE_HEADER = 'page';
 export const ITEMS_PER_PAGE = 20;
+// the most recent entities are offered in relationship drop-downs, up to this number
+export const OPTIONS_PER_SELECT = 1000;
@@ -40,6 +40,13 @@ export class DataUtils {
     const blob = new Blob([byteArray], {
       type: contentType,
     });
+    this.openBlob(blob);
+  }
+
+  /**
+   * Method to open a file downloaded as a blob
+   */
+  openBlob(blob: Blob): void {
     const fileURL = window.URL.createObjectURL(blob);
     const win = window.open(fileURL);
     win!.onload = function () {
@@ -47,6 +54,13 @@ export class DataUtils {
     };
   }
 
+  /**
+   * Method to format a size in bytes
+   */
+  formatAsBytes(size: number): string {
+    return size.toString().replace(/\B(?=(\d{3})+(?!\d))/g, ' ') + ' bytes'; // NOSONAR
+  }
+
   /**
    * Sets the base 64 data & file type of the 1st file on the event (event.target.files[0]) in the passed entity object
    * and returns an observable.
@@ -123,8 +137,4 @@ export class DataUtils {
   private size(value: string): number {
     return (value.length / 4) * 3 - this.paddingSize(value);
   }
-
-  private formatAsBytes(size: number): string {
-    return size.toString().replace(/\B(?=(\d{3})+(?!\d))/g, ' ') + ' bytes'; // NOSONAR
-  }
 }
@@ -1,5 +1,6 @@
 export interface ICar {
   id: number;
+  version?: number | null;
   model?: string | null;
 }
 
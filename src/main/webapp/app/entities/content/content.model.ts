@@ -1,7 +1,11 @@
 export interface IContent {
   id: number;
+  version?: number | null;
   data?: string | null;
   dataContentType?: string | null;
+  dataSize?: number | null;
+  sha256?: string | null;
+  documentId?: number | null;
 }
 
 export type NewContent = Omit<IContent, 'id'> & { id: null };
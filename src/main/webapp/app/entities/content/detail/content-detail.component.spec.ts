@@ -1,18 +1,21 @@
 import { TestBed } from '@angular/core/testing';
 import { provideRouter, withComponentInputBinding } from '@angular/router';
 import { RouterTestingHarness, RouterTestingModule } from '@angular/router/testing';
+import { HttpClientTestingModule } from '@angular/common/http/testing';
 import { of } from 'rxjs';
 
 import { DataUtils } from 'app/core/util/data-util.service';
 
+import { ContentService } from '../service/content.service';
 import { ContentDetailComponent } from './content-detail.component';
 
 describe('Content Management Detail Component', () => {
   let dataUtils: DataUtils;
+  let service: ContentService;
 
   beforeEach(async () => {
     await TestBed.configureTestingModule({
-      imports: [ContentDetailComponent, RouterTestingModule.withRoutes([], { bindToComponentInputs: true })],
+      imports: [ContentDetailComponent, RouterTestingModule.withRoutes([], { bindToComponentInputs: true }), HttpClientTestingModule],
       providers: [
         provideRouter(
           [
@@ -29,6 +32,7 @@ describe('Content Management Detail Component', () => {
       .overrideTemplate(ContentDetailComponent, '')
       .compileComponents();
     dataUtils = TestBed.inject(DataUtils);
+    service = TestBed.inject(ContentService);
     jest.spyOn(window, 'open').mockImplementation(() => null);
   });
 
@@ -42,41 +46,36 @@ describe('Content Management Detail Component', () => {
     });
   });
 
-  describe('byteSize', () => {
-    it('Should call byteSize from DataUtils', () => {
+  describe('formatAsBytes', () => {
+    it('Should call formatAsBytes from DataUtils', () => {
       // GIVEN
-      jest.spyOn(dataUtils, 'byteSize');
-      const fakeBase64 = 'fake base64';
+      jest.spyOn(dataUtils, 'formatAsBytes');
       const fixture = TestBed.createComponent(ContentDetailComponent);
       const comp = fixture.componentInstance;
 
       // WHEN
-      comp.byteSize(fakeBase64);
+      comp.formatAsBytes(1024);
 
       // THEN
-      expect(dataUtils.byteSize).toBeCalledWith(fakeBase64);
+      expect(dataUtils.formatAsBytes).toBeCalledWith(1024);
     });
   });
 
-  describe('openFile', () => {
-    it('Should call openFile from DataUtils', () => {
-      const newWindow = { ...window };
-      newWindow.document.write = jest.fn();
-      window.open = jest.fn(() => newWindow);
-      window.onload = jest.fn(() => newWindow) as any;
-      window.URL.createObjectURL = jest.fn() as any;
+  describe('openData', () => {
+    it('Should download the data and open it', () => {
       // GIVEN
-      jest.spyOn(dataUtils, 'openFile');
-      const fakeContentType = 'fake content type';
-      const fakeBase64 = 'fake base64';
+      const blob = new Blob(['fake data']);
+      jest.spyOn(service, 'download').mockReturnValue(of(blob));
+      jest.spyOn(dataUtils, 'openBlob').mockImplementation(() => undefined);
       const fixture = TestBed.createComponent(ContentDetailComponent);
       const comp = fixture.componentInstance;
 
       // WHEN
-      comp.openFile(fakeBase64, fakeContentType);
+      comp.openData({ id: 123 });
 
       // THEN
-      expect(dataUtils.openFile).toBeCalledWith(fakeBase64, fakeContentType);
+      expect(service.download).toBeCalledWith({ id: 123 });
+      expect(dataUtils.openBlob).toBeCalledWith(blob);
     });
   });
 });
@@ -5,6 +5,7 @@ import SharedModule from 'app/shared/shared.module';
 import { DurationPipe, FormatMediumDatetimePipe, FormatMediumDatePipe } from 'app/shared/date';
 import { IContent } from '../content.model';
 import { DataUtils } from 'app/core/util/data-util.service';
+import { ContentService } from '../service/content.service';
 
 @Component({
   standalone: true,
@@ -15,14 +16,14 @@ import { DataUtils } from 'app/core/util/data-util.service';
 export class ContentDetailComponent {
   @Input() content: IContent | null = null;
 
-  constructor(protected dataUtils: DataUtils, protected activatedRoute: ActivatedRoute) {}
+  constructor(protected dataUtils: DataUtils, protected contentService: ContentService, protected activatedRoute: ActivatedRoute) {}
 
-  byteSize(base64String: string): string {
-    return this.dataUtils.byteSize(base64String);
+  formatAsBytes(size: number): string {
+    return this.dataUtils.formatAsBytes(size);
   }
 
-  openFile(base64String: string, contentType: string | null | undefined): void {
-    this.dataUtils.openFile(base64String, contentType);
+  openData(content: IContent): void {
+    this.contentService.download(content).subscribe(blob => this.dataUtils.openBlob(blob));
   }
 
   previousState(): void {
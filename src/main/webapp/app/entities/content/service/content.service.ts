@@ -39,6 +39,12 @@ export class ContentService {
     return this.http.get<IContent[]>(this.resourceUrl, { params: options, observe: 'response' });
   }
 
+  download(content: Pick<IContent, 'id' | 'sha256'>): Observable<Blob> {
+    // the checksum names immutable bytes, which the browser keeps in its cache
+    const url = content.sha256 ? `${this.resourceUrl}/${content.id}/data/${content.sha256}` : `${this.resourceUrl}/${content.id}/data`;
+    return this.http.get(url, { responseType: 'blob' });
+  }
+
   delete(id: number): Observable<HttpResponse<{}>> {
     return this.http.delete(`${this.resourceUrl}/${id}`, { observe: 'response' });
   }
@@ -3,6 +3,7 @@ import { ICar } from 'app/entities/car/car.model';
 
 export interface IDocument {
   id: number;
+  version?: number | null;
   title?: string | null;
   size?: number | null;
   mimeType?: string | null;
@@ -0,0 +1,64 @@
+import { TestBed } from '@angular/core/testing';
+import { HttpClientTestingModule } from '@angular/common/http/testing';
+import { HttpErrorResponse } from '@angular/common/http';
+import { of, throwError } from 'rxjs';
+
+import { DocumentService } from '../service/document.service';
+import { DocumentPreviewComponent } from './document-preview.component';
+
+describe('Document Preview Component', () => {
+  let service: DocumentService;
+
+  beforeEach(async () => {
+    await TestBed.configureTestingModule({
+      imports: [DocumentPreviewComponent, HttpClientTestingModule],
+    })
+      .overrideTemplate(DocumentPreviewComponent, '')
+      .compileComponents();
+    service = TestBed.inject(DocumentService);
+    URL.createObjectURL = jest.fn(() => 'blob:preview');
+    URL.revokeObjectURL = jest.fn();
+  });
+
+  it('Should show the preview of the document', () => {
+    // GIVEN
+    jest.spyOn(service, 'preview').mockReturnValue(of(new Blob(['fake preview'])));
+    const comp = TestBed.createComponent(DocumentPreviewComponent).componentInstance;
+    comp.documentId = 123;
+
+    // WHEN
+    comp.ngOnChanges();
+
+    // THEN
+    expect(service.preview).toBeCalledWith(123);
+    expect(comp.url).not.toBeNull();
+  });
+
+  it('Should show nothing while the document has no preview', () => {
+    // GIVEN
+    jest.spyOn(service, 'preview').mockReturnValue(throwError(() => new HttpErrorResponse({ status: 404 })));
+    const comp = TestBed.createComponent(DocumentPreviewComponent).componentInstance;
+    comp.documentId = 123;
+
+    // WHEN
+    comp.ngOnChanges();
+
+    // THEN
+    expect(comp.url).toBeNull();
+  });
+
+  it('Should release the object URL when destroyed', () => {
+    // GIVEN
+    jest.spyOn(service, 'preview').mockReturnValue(of(new Blob(['fake preview'])));
+    const comp = TestBed.createComponent(DocumentPreviewComponent).componentInstance;
+    comp.documentId = 123;
+    comp.ngOnChanges();
+
+    // WHEN
+    comp.ngOnDestroy();
+
+    // THEN
+    expect(URL.revokeObjectURL).toBeCalledWith('blob:preview');
+    expect(comp.url).toBeNull();
+  });
+});
@@ -0,0 +1,53 @@
+import { Component, Input, OnChanges, OnDestroy } from '@angular/core';
+import { DomSanitizer, SafeUrl } from '@angular/platform-browser';
+import { Subscription } from 'rxjs';
+
+import SharedModule from 'app/shared/shared.module';
+import { DocumentService } from '../service/document.service';
+
+/**
+ * Shows the thumbnail of a document, or nothing while it has none.
+ *
+ * The thumbnail is fetched through the HTTP client, which sends the credentials, and shown from an object URL.
+ */
+@Component({
+  standalone: true,
+  selector: 'jhi-document-preview',
+  template: '<img *ngIf="url" class="img-thumbnail" style="max-height: 4rem" [src]="url" alt="" />',
+  imports: [SharedModule],
+})
+export class DocumentPreviewComponent implements OnChanges, OnDestroy {
+  @Input() documentId!: number;
+
+  url: SafeUrl | null = null;
+
+  private objectUrl: string | null = null;
+  private subscription?: Subscription;
+
+  constructor(protected documentService: DocumentService, protected sanitizer: DomSanitizer) {}
+
+  ngOnChanges(): void {
+    this.release();
+    this.subscription = this.documentService.preview(this.documentId).subscribe({
+      next: blob => {
+        this.objectUrl = URL.createObjectURL(blob);
+        this.url = this.sanitizer.bypassSecurityTrustUrl(this.objectUrl);
+      },
+      // documents without a preview yet are answered with a 404
+      error: () => (this.url = null),
+    });
+  }
+
+  ngOnDestroy(): void {
+    this.release();
+  }
+
+  private release(): void {
+    this.subscription?.unsubscribe();
+    if (this.objectUrl) {
+      URL.revokeObjectURL(this.objectUrl);
+    }
+    this.objectUrl = null;
+    this.url = null;
+  }
+}
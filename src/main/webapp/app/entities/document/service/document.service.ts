@@ -39,6 +39,10 @@ export class DocumentService {
     return this.http.get<IDocument[]>(this.resourceUrl, { params: options, observe: 'response' });
   }
 
+  preview(id: number): Observable<Blob> {
+    return this.http.get(`${this.resourceUrl}/${id}/preview`, { responseType: 'blob' });
+  }
+
   delete(id: number): Observable<HttpResponse<{}>> {
     return this.http.delete(`${this.resourceUrl}/${id}`, { observe: 'response' });
   }
@@ -1,5 +1,5 @@
 import { ComponentFixture, TestBed } from '@angular/core/testing';
-import { HttpResponse } from '@angular/common/http';
+import { HttpHeaders, HttpResponse } from '@angular/common/http';
 import { HttpClientTestingModule } from '@angular/common/http/testing';
 import { FormBuilder } from '@angular/forms';
 import { ActivatedRoute } from '@angular/router';
@@ -89,6 +89,17 @@ describe('Document Management Update Component', () => {
       expect(comp.carsSharedCollection).toEqual(expectedCollection);
     });
 
+    it('Should query a bounded number of cars and count them', () => {
+      const headers = new HttpHeaders().append('X-Total-Count', '1500');
+      jest.spyOn(carService, 'query').mockReturnValue(of(new HttpResponse({ body: [{ id: 59748 }], headers })));
+
+      activatedRoute.data = of({ document: null });
+      comp.ngOnInit();
+
+      expect(carService.query).toHaveBeenCalledWith({ size: 1000, sort: ['id,desc'] });
+      expect(comp.carsTotalCount).toEqual(1500);
+    });
+
     it('Should update editForm', () => {
       const document: IDocument = { id: 456 };
       const content: IContent = { id: 68851 };
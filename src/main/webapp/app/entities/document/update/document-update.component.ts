@@ -1,10 +1,11 @@
 import { Component, OnInit } from '@angular/core';
-import { HttpResponse } from '@angular/common/http';
+import { HttpHeaders, HttpResponse } from '@angular/common/http';
 import { ActivatedRoute } from '@angular/router';
 import { Observable } from 'rxjs';
-import { finalize, map } from 'rxjs/operators';
+import { finalize, map, tap } from 'rxjs/operators';
 
 import SharedModule from 'app/shared/shared.module';
+import { OPTIONS_PER_SELECT, TOTAL_COUNT_RESPONSE_HEADER } from 'app/config/pagination.constants';
 import { FormsModule, ReactiveFormsModule } from '@angular/forms';
 
 import { DocumentFormService, DocumentFormGroup } from './document-form.service';
@@ -26,7 +27,10 @@ export class DocumentUpdateComponent implements OnInit {
   document: IDocument | null = null;
 
   contentsCollection: IContent[] = [];
+  contentsTotalCount = 0;
   carsSharedCollection: ICar[] = [];
+  carsTotalCount = 0;
+  optionsPerSelect = OPTIONS_PER_SELECT;
 
   editForm: DocumentFormGroup = this.documentFormService.createDocumentFormGroup();
 
@@ -96,15 +100,21 @@ export class DocumentUpdateComponent implements OnInit {
 
   protected loadRelationshipsOptions(): void {
     this.contentService
-      .query({ filter: 'document-is-null' })
+      .query({ filter: 'document-is-null', size: OPTIONS_PER_SELECT, sort: ['id,desc'] })
+      .pipe(tap((res: HttpResponse<IContent[]>) => (this.contentsTotalCount = this.getTotalCount(res.headers))))
       .pipe(map((res: HttpResponse<IContent[]>) => res.body ?? []))
       .pipe(map((contents: IContent[]) => this.contentService.addContentToCollectionIfMissing<IContent>(contents, this.document?.content)))
       .subscribe((contents: IContent[]) => (this.contentsCollection = contents));
 
     this.carService
-      .query()
+      .query({ size: OPTIONS_PER_SELECT, sort: ['id,desc'] })
+      .pipe(tap((res: HttpResponse<ICar[]>) => (this.carsTotalCount = this.getTotalCount(res.headers))))
       .pipe(map((res: HttpResponse<ICar[]>) => res.body ?? []))
       .pipe(map((cars: ICar[]) => this.carService.addCarToCollectionIfMissing<ICar>(cars, this.document?.car)))
       .subscribe((cars: ICar[]) => (this.carsSharedCollection = cars));
   }
+
+  protected getTotalCount(headers: HttpHeaders): number {
+    return Number(headers.get(TOTAL_COUNT_RESPONSE_HEADER) ?? 0);
+  }
 }
@@ -0,0 +1,89 @@
+package com.fileuploader.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fileuploader.app.IntegrationTest;
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Content;
+import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.repository.DocumentRepository;
+import com.fileuploader.app.service.storage.BlobStore;
+import com.fileuploader.app.service.storage.StoredBlob;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link ContentStorageService}.
+ */
+@IntegrationTest
+@Transactional
+class ContentStorageServiceIT {
+
+  private static final int DOCUMENT_COUNT = 60;
+
+  @Autowired private ContentStorageService contentStorageService;
+
+  @Autowired private CarRepository carRepository;
+
+  @Autowired private DocumentRepository documentRepository;
+
+  @Autowired private BlobStore blobStore;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void storeAllBatchesInserts() throws Exception {
+    Car car = carRepository.saveAndFlush(new Car().model("batched"));
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(
+        "batched content".getBytes(StandardCharsets.UTF_8)));
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < DOCUMENT_COUNT; i++) {
+      Content content = new Content()
+                            .dataContentType("text/plain")
+                            .storageKey(blob.key())
+                            .dataSize(blob.size())
+                            .sha256(blob.sha256());
+      documents.add(new Document()
+                        .title("document-" + i)
+                        .size(blob.size())
+                        .mimeType("text/plain")
+                        .content(content)
+                        .car(car));
+    }
+
+    Statistics statistics =
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    statistics.setStatisticsEnabled(true);
+    try {
+      contentStorageService.storeAll(documents);
+
+      assertThat(statistics.getEntityInsertCount())
+          .isEqualTo(2L * DOCUMENT_COUNT);
+      // one statement per batch of 25 rows and per pool of 50 ids, instead
+      // of one per row with ids generated by the database
+      assertThat(statistics.getPrepareStatementCount())
+          .isLessThan(DOCUMENT_COUNT / 2);
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+
+    assertThat(documents).allSatisfy(document -> {
+      assertThat(document.getId()).isNotNull();
+      assertThat(document.getContent().getId()).isNotNull();
+    });
+    assertThat(documentRepository.findById(documents.get(0).getId()))
+        .get()
+        .extracting(Document::getTitle)
+        .isEqualTo("document-0");
+  }
+}
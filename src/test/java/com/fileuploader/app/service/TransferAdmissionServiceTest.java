@@ -0,0 +1,141 @@
+package com.fileuploader.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class TransferAdmissionServiceTest {
+
+  private ApplicationProperties.Transfer properties;
+
+  private MeterRegistry registry;
+
+  private TransferAdmissionService transferAdmissionService;
+
+  @BeforeEach
+  void setUp() {
+    ApplicationProperties applicationProperties = new ApplicationProperties();
+    properties = applicationProperties.getTransfer();
+    properties.setMaxBytes(1000);
+    properties.setMaxBytesPerUser(600);
+    properties.setQueueTimeout(Duration.ofMillis(50));
+    properties.setRetryAfter(Duration.ofSeconds(7));
+    registry = new SimpleMeterRegistry();
+    transferAdmissionService =
+        new TransferAdmissionService(applicationProperties, registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void admitsTransfersWithinTheLimits() {
+    as("alice");
+    try (TransferAdmissionService.Permit first =
+             transferAdmissionService.admit(300);
+         TransferAdmissionService.Permit second =
+             transferAdmissionService.admit(300)) {
+      assertThat(bytesInFlight()).isEqualTo(600);
+    }
+    assertThat(bytesInFlight()).isZero();
+  }
+
+  @Test
+  void rejectsTransfersBeyondTheUserLimitOnTimeout() {
+    as("alice");
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(500)) {
+      assertThatThrownBy(() -> transferAdmissionService.admit(200))
+          .isInstanceOf(TransferRejectedException.class)
+          .extracting("retryAfter")
+          .isEqualTo(Duration.ofSeconds(7));
+      // other users still have room
+      as("bob");
+      transferAdmissionService.admit(400).close();
+    }
+    assertThat(rejections("timeout")).isEqualTo(1);
+  }
+
+  @Test
+  void rejectsTransfersAtOnceWhenTheQueueIsFull() {
+    properties.setMaxQueued(0);
+    as("alice");
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(600)) {
+      assertThatThrownBy(() -> transferAdmissionService.admit(1))
+          .isInstanceOf(TransferRejectedException.class);
+    }
+    assertThat(rejections("queue-full")).isEqualTo(1);
+  }
+
+  @Test
+  void admitsQueuedTransfersOnRelease() throws Exception {
+    properties.setQueueTimeout(Duration.ofSeconds(10));
+    as("alice");
+    TransferAdmissionService.Permit permit =
+        transferAdmissionService.admit(600);
+    CompletableFuture<TransferAdmissionService.Permit> queued =
+        CompletableFuture.supplyAsync(() -> {
+          as("alice");
+          try {
+            return transferAdmissionService.admit(600);
+          } finally {
+            SecurityContextHolder.clearContext();
+          }
+        });
+
+    Thread.sleep(100);
+    assertThat(queued).isNotDone();
+    permit.close();
+
+    queued.get(5, TimeUnit.SECONDS).close();
+  }
+
+  @Test
+  void admitsLargeTransfersAlone() {
+    as("alice");
+    transferAdmissionService.admit(10_000).close();
+    transferAdmissionService.admit(-1).close();
+  }
+
+  @Test
+  void admitsEverythingWhenDisabled() {
+    properties.setEnabled(false);
+    as("alice");
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(600)) {
+      transferAdmissionService.admit(600).close();
+    }
+  }
+
+  private double bytesInFlight() {
+    return registry.get(TransferAdmissionService.METER_PREFIX + "bytes")
+        .gauge()
+        .value();
+  }
+
+  private double rejections(String reason) {
+    return registry
+        .counter(TransferAdmissionService.METER_PREFIX + "rejections",
+                 "reason", reason)
+        .count();
+  }
+
+  private static void as(String login) {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(login, "password"));
+  }
+}
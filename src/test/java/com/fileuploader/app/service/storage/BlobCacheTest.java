@@ -0,0 +1,97 @@
+package com.fileuploader.app.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.web.rest.TestUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BlobCacheTest {
+
+  private static final byte[] DATA = TestUtil.createByteArray(10_000, "0110");
+
+  @TempDir Path root;
+
+  private FileSystemBlobStore blobStore;
+
+  private MeterRegistry registry;
+
+  private BlobCache blobCache;
+
+  @BeforeEach
+  void setUp() {
+    ApplicationProperties applicationProperties = new ApplicationProperties();
+    applicationProperties.getStorage().setRoot(root.toString());
+    applicationProperties.getStorage().getCache().setSize(1024 * 1024);
+    applicationProperties.getStorage().getCache().setMaxEntrySize(
+        DATA.length);
+    blobStore = new FileSystemBlobStore(applicationProperties);
+    registry = new SimpleMeterRegistry();
+    blobCache = new BlobCache(blobStore, applicationProperties, registry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    blobCache.close();
+  }
+
+  @Test
+  void readCachesBlobs() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+
+    assertThat(blobCache.read(blob.key(), false, DATA.length)).isEqualTo(DATA);
+    blobStore.delete(blob.key());
+    assertThat(blobCache.read(blob.key(), false, DATA.length)).isEqualTo(DATA);
+
+    assertThat(count("gets", "miss")).isEqualTo(1);
+    assertThat(count("gets", "hit")).isEqualTo(1);
+  }
+
+  @Test
+  void readCachesCompressedBytesApart() throws Exception {
+    StoredBlob blob =
+        blobStore.put(new ByteArrayInputStream(DATA), "text/plain");
+
+    byte[] compressed =
+        blobCache.read(blob.key(), true, blob.compressedSize());
+
+    assertThat(compressed).hasSize(blob.compressedSize().intValue());
+    assertThat(blobCache.read(blob.key(), false, DATA.length)).isEqualTo(DATA);
+    assertThat(count("gets", "miss")).isEqualTo(2);
+  }
+
+  @Test
+  void readRejectsLargeBlobs() throws Exception {
+    byte[] large = TestUtil.createByteArray(DATA.length + 1, "0");
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(large));
+
+    assertThat(blobCache.read(blob.key(), false, large.length)).isNull();
+
+    assertThat(registry.counter(BlobCache.METER_PREFIX + "rejections").count())
+        .isEqualTo(1);
+    assertThat(count("gets", "miss")).isZero();
+  }
+
+  @Test
+  void evictFreesEntries() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+    blobCache.read(blob.key(), false, DATA.length);
+
+    blobCache.evict(blob.key());
+    blobCache.read(blob.key(), false, DATA.length);
+
+    assertThat(count("gets", "miss")).isEqualTo(2);
+  }
+
+  private double count(String name, String result) {
+    return registry.counter(BlobCache.METER_PREFIX + name, "result", result)
+        .count();
+  }
+}
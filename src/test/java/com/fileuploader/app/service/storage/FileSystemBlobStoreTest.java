@@ -0,0 +1,199 @@
+package com.fileuploader.app.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.web.rest.TestUtil;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSystemBlobStoreTest {
+
+  private static final byte[] DATA = TestUtil.createByteArray(10_000, "0110");
+
+  @TempDir Path root;
+
+  private FileSystemBlobStore blobStore;
+
+  @BeforeEach
+  void setUp() {
+    ApplicationProperties applicationProperties = new ApplicationProperties();
+    applicationProperties.getStorage().setRoot(root.toString());
+    applicationProperties.getStorage().setChunkSize(1024);
+    blobStore = new FileSystemBlobStore(applicationProperties);
+  }
+
+  @Test
+  void putStoresBlobUnderItsSha256() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+
+    String sha256 = HexFormat.of().formatHex(
+        MessageDigest.getInstance("SHA-256").digest(DATA));
+    assertThat(blob.key()).isEqualTo(sha256);
+    assertThat(blob.sha256()).isEqualTo(sha256);
+    assertThat(blob.size()).isEqualTo(DATA.length);
+    assertThat(blobStore.exists(blob.key())).isTrue();
+    assertThat(root.resolve("blobs")
+                   .resolve(sha256.substring(0, 2))
+                   .resolve(sha256.substring(2, 4))
+                   .resolve(sha256))
+        .exists();
+    try (var tmp = Files.list(root.resolve("tmp"))) {
+      assertThat(tmp).isEmpty();
+    }
+  }
+
+  @Test
+  void putSameBytesTwiceReturnsSameKey() throws Exception {
+    StoredBlob first = blobStore.put(new ByteArrayInputStream(DATA));
+    StoredBlob second = blobStore.put(new ByteArrayInputStream(DATA));
+
+    assertThat(second.key()).isEqualTo(first.key());
+  }
+
+  @Test
+  void openReadsFromOffset() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+
+    try (InputStream in = blobStore.open(blob.key(), 0)) {
+      assertThat(in.readAllBytes()).isEqualTo(DATA);
+    }
+    try (InputStream in = blobStore.open(blob.key(), 5000)) {
+      assertThat(in.readAllBytes())
+          .isEqualTo(Arrays.copyOfRange(DATA, 5000, DATA.length));
+    }
+  }
+
+  @Test
+  void keysListsBlobsWrittenBefore() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+
+    try (Stream<String> keys = blobStore.keys(Instant.now().plusSeconds(60))) {
+      assertThat(keys).containsExactly(blob.key());
+    }
+    try (Stream<String> keys = blobStore.keys(Instant.now().minusSeconds(60))) {
+      assertThat(keys).isEmpty();
+    }
+  }
+
+  @Test
+  void lastModifiedIsRefreshedBySameBytes() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+    Instant written = blobStore.lastModified(blob.key()).orElseThrow();
+    Path file = root.resolve("blobs")
+                    .resolve(blob.key().substring(0, 2))
+                    .resolve(blob.key().substring(2, 4))
+                    .resolve(blob.key());
+    Files.setLastModifiedTime(file, FileTime.from(written.minusSeconds(3600)));
+
+    blobStore.put(new ByteArrayInputStream(DATA));
+
+    assertThat(blobStore.lastModified(blob.key()).orElseThrow())
+        .isAfter(written.minusSeconds(60));
+    assertThat(blobStore.lastModified("0".repeat(64))).isEmpty();
+  }
+
+  @Test
+  void deleteRemovesBlob() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+
+    blobStore.delete(blob.key());
+
+    assertThat(blobStore.exists(blob.key())).isFalse();
+  }
+  @Test
+  void deletedBlobIsRestorableUntilPurged() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA));
+    blobStore.delete(blob.key());
+
+    assertThat(blobStore.purge(Instant.now().minusSeconds(60))).isZero();
+    assertThat(blobStore.restore(blob.key())).isTrue();
+    try (InputStream in = blobStore.open(blob.key(), 0)) {
+      assertThat(in.readAllBytes()).isEqualTo(DATA);
+    }
+
+    blobStore.delete(blob.key());
+    assertThat(blobStore.purge(Instant.now().plusSeconds(60))).isEqualTo(1);
+    assertThat(blobStore.restore(blob.key())).isFalse();
+  }
+
+
+  @Test
+  void putCompressesCompressibleBlobs() throws Exception {
+    StoredBlob blob = blobStore.put(new ByteArrayInputStream(DATA),
+                                    "text/plain; charset=UTF-8");
+
+    assertThat(blob.size()).isEqualTo(DATA.length);
+    assertThat(blob.compressedSize()).isLessThan(DATA.length / 10);
+    assertThat(blobStore.compressedSize(blob.key()))
+        .hasValue(blob.compressedSize());
+    try (InputStream in = blobStore.open(blob.key(), 5000)) {
+      assertThat(in.readAllBytes())
+          .isEqualTo(Arrays.copyOfRange(DATA, 5000, DATA.length));
+    }
+    try (InputStream in =
+             new GZIPInputStream(blobStore.openCompressed(blob.key()))) {
+      assertThat(in.readAllBytes()).isEqualTo(DATA);
+    }
+    try (Stream<String> keys = blobStore.keys(Instant.now().plusSeconds(60))) {
+      assertThat(keys).containsExactly(blob.key());
+    }
+
+    // the same bytes are deduplicated whatever their MIME type
+    assertThat(blobStore.put(new ByteArrayInputStream(DATA)))
+        .isEqualTo(blob);
+
+    blobStore.delete(blob.key());
+
+    assertThat(blobStore.exists(blob.key())).isFalse();
+  }
+
+  @Test
+  void putKeepsIncompressibleBlobsAsIs() throws Exception {
+    byte[] random = new byte[DATA.length];
+    new Random(42).nextBytes(random);
+
+    StoredBlob blob =
+        blobStore.put(new ByteArrayInputStream(random), "text/plain");
+
+    assertThat(blob.compressedSize()).isNull();
+    assertThat(blobStore.compressedSize(blob.key())).isEmpty();
+    assertThatThrownBy(() -> blobStore.openCompressed(blob.key()))
+        .isInstanceOf(NoSuchFileException.class);
+    try (InputStream in = blobStore.open(blob.key(), 0)) {
+      assertThat(in.readAllBytes()).isEqualTo(random);
+    }
+  }
+
+  @Test
+  void putKeepsOtherMimeTypesAsIs() throws Exception {
+    StoredBlob blob =
+        blobStore.put(new ByteArrayInputStream(DATA), "image/png");
+
+    assertThat(blob.compressedSize()).isNull();
+    assertThat(blobStore.compressedSize(blob.key())).isEmpty();
+  }
+
+  @Test
+  void invalidKeyIsRejected() {
+    assertThatThrownBy(() -> blobStore.open("../../etc/passwd", 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> blobStore.exists("ABC"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
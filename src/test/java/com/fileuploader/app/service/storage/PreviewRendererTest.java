@@ -0,0 +1,87 @@
+package com.fileuploader.app.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.imageio.ImageIO;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.Test;
+
+class PreviewRendererTest {
+
+  private static final int SIZE = 64;
+
+  @Test
+  void supportsImagesAndPdfs() {
+    assertThat(PreviewRenderer.supports("image/png")).isTrue();
+    assertThat(PreviewRenderer.supports("IMAGE/JPEG; q=0.9")).isTrue();
+    assertThat(PreviewRenderer.supports("application/pdf")).isTrue();
+    assertThat(PreviewRenderer.supports("text/plain")).isFalse();
+    assertThat(PreviewRenderer.supports(null)).isFalse();
+  }
+
+  @Test
+  void rendersScaledDownImages() throws Exception {
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(1000, 250, BufferedImage.TYPE_INT_ARGB),
+                  "png", png);
+
+    BufferedImage thumbnail = read(PreviewRenderer.render(
+        new ByteArrayInputStream(png.toByteArray()), "image/png", SIZE));
+
+    assertThat(thumbnail.getWidth()).isEqualTo(SIZE);
+    assertThat(thumbnail.getHeight()).isEqualTo(SIZE / 4);
+  }
+
+  @Test
+  void keepsSmallImagesAtTheirSize() throws Exception {
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "png",
+                  png);
+
+    BufferedImage thumbnail = read(PreviewRenderer.render(
+        new ByteArrayInputStream(png.toByteArray()), "image/png", SIZE));
+
+    assertThat(thumbnail.getWidth()).isEqualTo(20);
+    assertThat(thumbnail.getHeight()).isEqualTo(10);
+  }
+
+  @Test
+  void rendersTheFirstPageOfPdfs() throws Exception {
+    ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+    try (PDDocument document = new PDDocument()) {
+      document.addPage(new PDPage(PDRectangle.A4));
+      document.addPage(new PDPage(PDRectangle.A4));
+      document.save(pdf);
+    }
+
+    BufferedImage thumbnail = read(PreviewRenderer.render(
+        new ByteArrayInputStream(pdf.toByteArray()), "application/pdf", SIZE));
+
+    // the page is rendered at a scale rounded down to whole pixels
+    assertThat(thumbnail.getHeight()).isBetween(SIZE - 1, SIZE);
+    assertThat(thumbnail.getWidth()).isLessThan(SIZE);
+  }
+
+  @Test
+  void rejectsUnreadableFiles() {
+    byte[] notAnImage = "not an image".getBytes(StandardCharsets.UTF_8);
+
+    assertThatThrownBy(()
+                           -> PreviewRenderer.render(
+                               new ByteArrayInputStream(notAnImage),
+                               "image/png", SIZE))
+        .isInstanceOf(IOException.class);
+  }
+
+  private static BufferedImage read(byte[] jpeg) throws IOException {
+    return ImageIO.read(new ByteArrayInputStream(jpeg));
+  }
+}
@@ -0,0 +1,145 @@
+package com.fileuploader.app.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class TarArchiveReaderTest {
+
+  private static final byte[] FIRST =
+      "first file".getBytes(StandardCharsets.UTF_8);
+
+  private static final byte[] SECOND = new byte[1500];
+
+  static { Arrays.fill(SECOND, (byte)'x'); }
+
+  @Test
+  void readsEntriesInOrder() throws Exception {
+    ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    writeEntry(tar, "docs/", '5', new byte[0]);
+    writeEntry(tar, "docs/first.txt", '0', FIRST);
+    writeEntry(tar, "second.bin", '0', SECOND);
+    tar.write(new byte[1024]);
+
+    TarArchiveReader reader =
+        new TarArchiveReader(new ByteArrayInputStream(tar.toByteArray()));
+
+    assertThat(reader.nextEntry())
+        .isEqualTo(new ArchiveReader.Entry("docs/", false));
+    assertThat(reader.nextEntry())
+        .isEqualTo(new ArchiveReader.Entry("docs/first.txt", true));
+    assertThat(reader.entryStream().readAllBytes()).isEqualTo(FIRST);
+    assertThat(reader.nextEntry())
+        .isEqualTo(new ArchiveReader.Entry("second.bin", true));
+    assertThat(reader.entryStream().readAllBytes()).isEqualTo(SECOND);
+    assertThat(reader.nextEntry()).isNull();
+  }
+
+  @Test
+  void skipsUnreadEntries() throws Exception {
+    ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    writeEntry(tar, "second.bin", '0', SECOND);
+    writeEntry(tar, "first.txt", '0', FIRST);
+
+    TarArchiveReader reader =
+        new TarArchiveReader(new ByteArrayInputStream(tar.toByteArray()));
+
+    assertThat(reader.nextEntry().name()).isEqualTo("second.bin");
+    assertThat(reader.nextEntry().name()).isEqualTo("first.txt");
+    assertThat(reader.entryStream().readAllBytes()).isEqualTo(FIRST);
+    assertThat(reader.nextEntry()).isNull();
+  }
+
+  @Test
+  void readsGnuLongNames() throws Exception {
+    String name = "a/".repeat(80) + "file.txt";
+    byte[] nameBytes = (name + "\0").getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    writeEntry(tar, "././@LongLink", 'L', nameBytes);
+    writeEntry(tar, name.substring(0, 99), '0', FIRST);
+
+    TarArchiveReader reader =
+        new TarArchiveReader(new ByteArrayInputStream(tar.toByteArray()));
+
+    assertThat(reader.nextEntry())
+        .isEqualTo(new ArchiveReader.Entry(name, true));
+    assertThat(reader.entryStream().readAllBytes()).isEqualTo(FIRST);
+  }
+
+  @Test
+  void readsPaxPaths() throws Exception {
+    String name = "b/".repeat(80) + "file.txt";
+    String record = "path=" + name + "\n";
+    int length = record.length() + 4;
+    byte[] pax =
+        (length + " " + record).getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    writeEntry(tar, "PaxHeaders/file.txt", 'x', pax);
+    writeEntry(tar, "file.txt", '0', FIRST);
+
+    TarArchiveReader reader =
+        new TarArchiveReader(new ByteArrayInputStream(tar.toByteArray()));
+
+    assertThat(reader.nextEntry())
+        .isEqualTo(new ArchiveReader.Entry(name, true));
+    assertThat(reader.entryStream().readAllBytes()).isEqualTo(FIRST);
+  }
+
+  @Test
+  void rejectsTruncatedEntries() throws Exception {
+    ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    writeEntry(tar, "second.bin", '0', SECOND);
+    byte[] truncated = Arrays.copyOf(tar.toByteArray(), 1024);
+
+    TarArchiveReader reader =
+        new TarArchiveReader(new ByteArrayInputStream(truncated));
+
+    assertThat(reader.nextEntry().name()).isEqualTo("second.bin");
+    assertThatThrownBy(() -> reader.entryStream().readAllBytes())
+        .isInstanceOf(EOFException.class);
+  }
+
+  @Test
+  void rejectsOtherFormats() {
+    byte[] notTar = new byte[512];
+    Arrays.fill(notTar, (byte)'z');
+
+    TarArchiveReader reader =
+        new TarArchiveReader(new ByteArrayInputStream(notTar));
+
+    assertThatThrownBy(reader::nextEntry).isInstanceOf(IOException.class);
+  }
+
+  private static void writeEntry(ByteArrayOutputStream tar, String name,
+                                 char type, byte[] data) {
+    byte[] header = new byte[512];
+    put(header, 0, name);
+    put(header, 100, "0000644");
+    put(header, 124, String.format("%011o", data.length));
+    put(header, 136, String.format("%011o", 0));
+    header[156] = (byte)type;
+    put(header, 257, "ustar");
+    put(header, 263, "00");
+    Arrays.fill(header, 148, 156, (byte)' ');
+    int sum = 0;
+    for (byte b : header) {
+      sum += b & 0xff;
+    }
+    put(header, 148, String.format("%06o", sum));
+    tar.writeBytes(header);
+    tar.writeBytes(data);
+    tar.writeBytes(new byte[(512 - data.length % 512) % 512]);
+  }
+
+  private static void put(byte[] header, int offset, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(bytes, 0, header, offset, bytes.length);
+  }
+}
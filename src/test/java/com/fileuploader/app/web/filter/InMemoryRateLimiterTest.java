@@ -0,0 +1,74 @@
+package com.fileuploader.app.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRateLimiterTest {
+
+  private static final RateLimiter.Limit LIMIT =
+      new RateLimiter.Limit(3, Duration.ofSeconds(3));
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+  private InMemoryRateLimiter rateLimiter;
+
+  @BeforeEach
+  void setUp() {
+    rateLimiter = new InMemoryRateLimiter(now::get);
+  }
+
+  @Test
+  void allowsBurstsUpToTheCapacity() {
+    assertThat(rateLimiter.tryConsume("a", LIMIT).remaining()).isEqualTo(2);
+    assertThat(rateLimiter.tryConsume("a", LIMIT).remaining()).isEqualTo(1);
+    RateLimiter.Result last = rateLimiter.tryConsume("a", LIMIT);
+
+    assertThat(last.allowed()).isTrue();
+    assertThat(last.remaining()).isZero();
+    assertThat(last.reset()).isEqualTo(Duration.ofSeconds(3));
+
+    RateLimiter.Result rejected = rateLimiter.tryConsume("a", LIMIT);
+    assertThat(rejected.allowed()).isFalse();
+    assertThat(rejected.retryAfter()).isEqualTo(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void refillsOverThePeriod() {
+    for (int i = 0; i < 3; i++) {
+      rateLimiter.tryConsume("a", LIMIT);
+    }
+
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertThat(rateLimiter.tryConsume("a", LIMIT).allowed()).isTrue();
+    assertThat(rateLimiter.tryConsume("a", LIMIT).allowed()).isFalse();
+
+    now.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertThat(rateLimiter.tryConsume("a", LIMIT).remaining()).isEqualTo(2);
+  }
+
+  @Test
+  void keepsABucketPerKey() {
+    for (int i = 0; i < 3; i++) {
+      rateLimiter.tryConsume("a", LIMIT);
+    }
+
+    assertThat(rateLimiter.tryConsume("a", LIMIT).allowed()).isFalse();
+    assertThat(rateLimiter.tryConsume("b", LIMIT).allowed()).isTrue();
+  }
+
+  @Test
+  void evictsFullBuckets() {
+    rateLimiter.tryConsume("a", LIMIT);
+    rateLimiter.tryConsume("b", LIMIT);
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    rateLimiter.tryConsume("b", LIMIT);
+
+    rateLimiter.evictFullBuckets();
+
+    assertThat(rateLimiter.size()).isEqualTo(1);
+  }
+}
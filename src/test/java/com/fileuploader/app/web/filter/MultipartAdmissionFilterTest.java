@@ -0,0 +1,110 @@
+package com.fileuploader.app.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import com.fileuploader.app.service.TransferAdmissionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class MultipartAdmissionFilterTest {
+
+  private MeterRegistry registry;
+
+  private TransferAdmissionService transferAdmissionService;
+
+  private MultipartAdmissionFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    ApplicationProperties applicationProperties = new ApplicationProperties();
+    ApplicationProperties.Transfer properties =
+        applicationProperties.getTransfer();
+    properties.setMaxBytes(1000);
+    properties.setMaxBytesPerUser(600);
+    properties.setQueueTimeout(Duration.ofMillis(50));
+    properties.setRetryAfter(Duration.ofSeconds(7));
+    registry = new SimpleMeterRegistry();
+    transferAdmissionService =
+        new TransferAdmissionService(applicationProperties, registry);
+    filter = new MultipartAdmissionFilter(transferAdmissionService);
+  }
+
+  @Test
+  void admitsMultipartUploadsByTheirBodyLength() throws Exception {
+    AtomicReference<Double> bytesWhileUploading = new AtomicReference<>();
+
+    MockHttpServletResponse response =
+        post(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=b", 300,
+             () -> bytesWhileUploading.set(bytesInFlight()));
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(bytesWhileUploading.get()).isEqualTo(300.0);
+    assertThat(bytesInFlight()).isZero();
+  }
+
+  @Test
+  void rejectsMultipartUploadsBeyondTheLimits() throws Exception {
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(500)) {
+      AtomicBoolean uploaded = new AtomicBoolean();
+      MockHttpServletResponse response =
+          post(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=b", 200,
+               () -> uploaded.set(true));
+
+      assertThat(response.getStatus()).isEqualTo(429);
+      assertThat(uploaded).isFalse();
+      assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+    }
+  }
+
+  @Test
+  void ignoresOtherRequests() throws Exception {
+    try (TransferAdmissionService.Permit permit =
+             transferAdmissionService.admit(600)) {
+      AtomicBoolean uploaded = new AtomicBoolean();
+      MockHttpServletResponse response =
+          post(MediaType.APPLICATION_OCTET_STREAM_VALUE, 200,
+               () -> uploaded.set(true));
+
+      assertThat(response.getStatus()).isEqualTo(200);
+      assertThat(uploaded).isTrue();
+    }
+  }
+
+  private MockHttpServletResponse post(String contentType, int length,
+                                       Runnable upload) throws Exception {
+    HttpServlet servlet = new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest req, HttpServletResponse res) {
+        upload.run();
+      }
+    };
+    MockHttpServletRequest request =
+        new MockHttpServletRequest("POST", "/api/documents/upload");
+    request.setContentType(contentType);
+    request.setContent(new byte[length]);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain(servlet));
+    return response;
+  }
+
+  private double bytesInFlight() {
+    return registry.get(TransferAdmissionService.METER_PREFIX + "bytes")
+        .gauge()
+        .value();
+  }
+}
@@ -0,0 +1,133 @@
+package com.fileuploader.app.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fileuploader.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class RateLimitFilterTest {
+
+  private ApplicationProperties applicationProperties;
+
+  private MeterRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    applicationProperties = new ApplicationProperties();
+    addGroup("transfers", 1, "/api/documents/*/data");
+    addGroup("api", 2, "/api/**");
+    registry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void sendsTheStateOfTheBucket() throws Exception {
+    RateLimitFilter filter = filter();
+
+    MockHttpServletResponse response = get(filter, "/api/cars");
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER))
+        .isEqualTo("2");
+    assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER))
+        .isEqualTo("1");
+    assertThat(response.getHeader(RateLimitFilter.RESET_HEADER))
+        .isEqualTo("30");
+    assertThat(response.getHeader(RateLimitFilter.POLICY_HEADER))
+        .isEqualTo("2;w=60");
+  }
+
+  @Test
+  void rejectsRequestsBeyondTheLimit() throws Exception {
+    RateLimitFilter filter = filter();
+    get(filter, "/api/documents/1/data");
+
+    MockHttpServletResponse response = get(filter, "/api/documents/2/data");
+
+    assertThat(response.getStatus()).isEqualTo(429);
+    assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+    assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER))
+        .isEqualTo("0");
+    assertThat(registry
+                   .counter(RateLimitFilter.REJECTIONS_METER_NAME, "group",
+                            "transfers")
+                   .count())
+        .isEqualTo(1);
+    // the other groups have buckets of their own
+    assertThat(get(filter, "/api/cars").getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void keepsABucketPerUser() throws Exception {
+    RateLimitFilter filter = filter();
+    as("alice");
+    get(filter, "/api/documents/1/data");
+
+    as("bob");
+    assertThat(get(filter, "/api/documents/1/data").getStatus())
+        .isEqualTo(200);
+    as("alice");
+    assertThat(get(filter, "/api/documents/1/data").getStatus())
+        .isEqualTo(429);
+  }
+
+  @Test
+  void ignoresPathsOfNoGroup() throws Exception {
+    MockHttpServletResponse response = get(filter(), "/management/health");
+
+    assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isNull();
+  }
+
+  @Test
+  void ignoresEverythingWhenDisabled() throws Exception {
+    applicationProperties.getRateLimit().setEnabled(false);
+    RateLimitFilter filter = filter();
+    get(filter, "/api/documents/1/data");
+
+    assertThat(get(filter, "/api/documents/1/data").getStatus())
+        .isEqualTo(200);
+  }
+
+  private void addGroup(String name, long capacity, String pattern) {
+    ApplicationProperties.RateLimit.Group group =
+        new ApplicationProperties.RateLimit.Group();
+    group.setPatterns(List.of(pattern));
+    group.setCapacity(capacity);
+    group.setPeriod(Duration.ofMinutes(1));
+    applicationProperties.getRateLimit().getGroups().put(name, group);
+  }
+
+  private RateLimitFilter filter() {
+    return new RateLimitFilter(applicationProperties, new InMemoryRateLimiter(),
+                               registry);
+  }
+
+  private static MockHttpServletResponse get(RateLimitFilter filter,
+                                             String path) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", path), response,
+                    new MockFilterChain());
+    return response;
+  }
+
+  private static void as(String login) {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(login, "password", List.of()));
+  }
+}
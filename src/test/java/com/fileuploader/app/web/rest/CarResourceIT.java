@@ -1,24 +1,43 @@
 package com.fileuploader.app.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fileuploader.app.IntegrationTest;
 import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Document;
 import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.repository.DocumentRepository;
+import com.fileuploader.app.service.ContentStorageService;
+import com.fileuploader.app.service.dto.StoredContentDTO;
+import com.jayway.jsonpath.JsonPath;
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -34,6 +53,7 @@ class CarResourceIT {
 
   private static final String ENTITY_API_URL = "/api/cars";
   private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+  private static final String ENTITY_API_URL_BATCH = ENTITY_API_URL + "/batch";
 
   private static Random random = new Random();
   private static AtomicLong count =
@@ -41,6 +61,10 @@ class CarResourceIT {
 
   @Autowired private CarRepository carRepository;
 
+  @Autowired private DocumentRepository documentRepository;
+
+  @Autowired private ContentStorageService contentStorageService;
+
   @Autowired private EntityManager em;
 
   @Autowired private MockMvc restCarMockMvc;
@@ -146,6 +170,207 @@ class CarResourceIT {
         .andExpect(jsonPath("$.[*].model").value(hasItem(DEFAULT_MODEL)));
   }
 
+  @Test
+  @Transactional
+  void getAllCarsWithoutCount() throws Exception {
+    // Initialize the database
+    carRepository.saveAndFlush(car);
+
+    // Get the first page of cars without counting them
+    restCarMockMvc
+        .perform(
+            get(ENTITY_API_URL + "?sort=id,desc&page=0&size=1&count=false"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Total-Count"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$.[0].id").value(car.getId().intValue()));
+  }
+
+  @Test
+  @Transactional
+  void getAllCarsAfterId() throws Exception {
+    // Initialize the database
+    Car first = carRepository.saveAndFlush(createEntity(em));
+    Car second = carRepository.saveAndFlush(createEntity(em));
+    Car third = carRepository.saveAndFlush(createEntity(em));
+
+    // Seek the car following the first one
+    restCarMockMvc
+        .perform(get(ENTITY_API_URL + "?afterId={id}&size=1", first.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Total-Count"))
+        .andExpect(header().string(
+            "Link", containsString("afterId=" + second.getId())))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()));
+
+    // Seek the car preceding the third one
+    restCarMockMvc
+        .perform(get(ENTITY_API_URL + "?afterId={id}&size=1&sort=id,desc",
+                     third.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()));
+  }
+
+  @Test
+  @Transactional
+  void getAllCarsAfterIdSortedByModel() throws Exception {
+    restCarMockMvc
+        .perform(get(ENTITY_API_URL + "?afterId=1&sort=model,asc"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void exportCarDocuments() throws Exception {
+    // Initialize the database, committed as the export streams on its own
+    // connection
+    byte[] data = "exported bytes".getBytes(StandardCharsets.UTF_8);
+    carRepository.saveAndFlush(car);
+    Document document = contentStorageService.store(
+        car, "export", "text/plain",
+        contentStorageService.writeBlob("text/plain",
+                                        new ByteArrayInputStream(data)));
+    try {
+      MvcResult result =
+          restCarMockMvc
+              .perform(get(ENTITY_API_URL_ID + "/documents?includeData=true",
+                           car.getId()))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+      restCarMockMvc.perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+          .andExpect(jsonPath("$", hasSize(1)))
+          .andExpect(jsonPath("$.[0].id").value(document.getId().intValue()))
+          .andExpect(jsonPath("$.[0].title").value("export"))
+          .andExpect(jsonPath("$.[0].size").value(data.length))
+          .andExpect(jsonPath("$.[0].content.sha256")
+                         .value(document.getContent().getSha256()))
+          .andExpect(jsonPath("$.[0].content.data")
+                         .value(Base64.getEncoder().encodeToString(data)));
+    } finally {
+      contentStorageService.deleteDocument(document.getId());
+      carRepository.deleteById(car.getId());
+    }
+  }
+
+  @Test
+  void downloadCarArchive() throws Exception {
+    // Initialize the database, committed as the archive streams on its own
+    // connection
+    byte[] text = "archived text".getBytes(StandardCharsets.UTF_8);
+    byte[] pdf = "%PDF-1.4 archived".getBytes(StandardCharsets.UTF_8);
+    carRepository.saveAndFlush(car);
+    Document textDocument = contentStorageService.store(
+        car, "notes/today.txt", "text/plain",
+        contentStorageService.writeBlob("text/plain",
+                                        new ByteArrayInputStream(text)));
+    Document pdfDocument = contentStorageService.store(
+        car, "scan.pdf", "application/pdf",
+        contentStorageService.writeBlob("application/pdf",
+                                        new ByteArrayInputStream(pdf)));
+    try {
+      MvcResult result =
+          restCarMockMvc
+              .perform(get(ENTITY_API_URL_ID + "/archive", car.getId()))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+      byte[] archive =
+          restCarMockMvc.perform(asyncDispatch(result))
+              .andExpect(status().isOk())
+              .andExpect(content().contentType("application/zip"))
+              .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                                         containsString("attachment")))
+              .andReturn()
+              .getResponse()
+              .getContentAsByteArray();
+
+      Map<String, byte[]> entries = new HashMap<>();
+      try (ZipInputStream zip =
+               new ZipInputStream(new ByteArrayInputStream(archive))) {
+        for (ZipEntry entry = zip.getNextEntry(); entry != null;
+             entry = zip.getNextEntry()) {
+          entries.put(entry.getName(), zip.readAllBytes());
+        }
+      }
+      assertThat(entries).hasSize(2);
+      assertThat(entries.get(textDocument.getId() + "-notes_today.txt"))
+          .isEqualTo(text);
+      assertThat(entries.get(pdfDocument.getId() + "-scan.pdf"))
+          .isEqualTo(pdf);
+    } finally {
+      contentStorageService.deleteDocument(textDocument.getId());
+      contentStorageService.deleteDocument(pdfDocument.getId());
+      carRepository.deleteById(car.getId());
+    }
+  }
+
+  @Test
+  void uploadCarArchive() throws Exception {
+    // Initialize the database, committed as the documents are stored in
+    // their own transactions
+    byte[] pdf = "%PDF-1.4 uploaded".getBytes(StandardCharsets.UTF_8);
+    byte[] text = "uploaded text".getBytes(StandardCharsets.UTF_8);
+    carRepository.saveAndFlush(car);
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+      zip.putNextEntry(new ZipEntry("scans/"));
+      zip.putNextEntry(new ZipEntry("scans/page1.pdf"));
+      zip.write(pdf);
+      zip.putNextEntry(new ZipEntry("notes.txt"));
+      zip.write(text);
+    }
+
+    List<Long> documentIds = new ArrayList<>();
+    try {
+      String report =
+          restCarMockMvc
+              .perform(post(ENTITY_API_URL_ID + "/archive", car.getId())
+                           .contentType("application/zip")
+                           .content(archive.toByteArray()))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$", hasSize(3)))
+              .andExpect(jsonPath("$.[0].name").value("scans/"))
+              .andExpect(jsonPath("$.[0].status").value("SKIPPED"))
+              .andExpect(jsonPath("$.[1].name").value("scans/page1.pdf"))
+              .andExpect(jsonPath("$.[1].status").value("CREATED"))
+              .andExpect(jsonPath("$.[1].size").value(pdf.length))
+              .andExpect(jsonPath("$.[2].name").value("notes.txt"))
+              .andExpect(jsonPath("$.[2].status").value("CREATED"))
+              .andReturn()
+              .getResponse()
+              .getContentAsString();
+      for (Object id :
+           JsonPath.<List<Object>>read(report, "$.[*].documentId")) {
+        if (id != null) {
+          documentIds.add(((Number)id).longValue());
+        }
+      }
+      assertThat(documentIds).hasSize(2);
+
+      Document scan = documentRepository.findById(documentIds.get(0)).get();
+      assertThat(scan.getTitle()).isEqualTo("scans/page1.pdf");
+      assertThat(scan.getMimeType()).isEqualTo("application/pdf");
+      assertThat(scan.getCar().getId()).isEqualTo(car.getId());
+      assertThat(contentStorageService.findDocumentContent(scan.getId()))
+          .get()
+          .extracting(StoredContentDTO::getLength)
+          .isEqualTo((long)pdf.length);
+    } finally {
+      documentIds.forEach(contentStorageService::deleteDocument);
+      carRepository.deleteById(car.getId());
+    }
+  }
+
+  @Test
+  @Transactional
+  void exportNonExistingCarDocuments() throws Exception {
+    restCarMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/documents", Long.MAX_VALUE))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   @Transactional
   void getCar() throws Exception {
@@ -160,6 +385,23 @@ class CarResourceIT {
         .andExpect(jsonPath("$.model").value(DEFAULT_MODEL));
   }
 
+  @Test
+  @Transactional
+  void getUnmodifiedCar() throws Exception {
+    carRepository.saveAndFlush(car);
+    String etag = "\"" + car.getVersion() + "\"";
+
+    restCarMockMvc.perform(get(ENTITY_API_URL_ID, car.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(jsonPath("$.version").value(car.getVersion()));
+
+    restCarMockMvc
+        .perform(get(ENTITY_API_URL_ID, car.getId())
+                     .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+  }
+
   @Test
   @Transactional
   void getNonExistingCar() throws Exception {
@@ -196,6 +438,61 @@ class CarResourceIT {
     assertThat(testCar.getModel()).isEqualTo(UPDATED_MODEL);
   }
 
+  @Test
+  @Transactional
+  void putCarWithStaleVersion() throws Exception {
+    carRepository.saveAndFlush(car);
+    int version = car.getVersion();
+    String etag = "\"" + version + "\"";
+    Car updatedCar = new Car().model(UPDATED_MODEL);
+    updatedCar.setId(car.getId());
+
+    restCarMockMvc
+        .perform(put(ENTITY_API_URL_ID, car.getId())
+                     .header(HttpHeaders.IF_MATCH, etag)
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(updatedCar)))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG,
+                                   "\"" + (version + 1) + "\""));
+
+    // the first update moved the car to the next version
+    restCarMockMvc
+        .perform(put(ENTITY_API_URL_ID, car.getId())
+                     .header(HttpHeaders.IF_MATCH, etag)
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(updatedCar)))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  @Transactional
+  void putCarMatchingAnyListedVersion() throws Exception {
+    carRepository.saveAndFlush(car);
+    int version = car.getVersion();
+    String etag = "\"" + version + "\"";
+    String otherEtag = "\"" + (version + 5) + "\"";
+    Car updatedCar = new Car().model(UPDATED_MODEL);
+    updatedCar.setId(car.getId());
+
+    restCarMockMvc
+        .perform(put(ENTITY_API_URL_ID, car.getId())
+                     .header(HttpHeaders.IF_MATCH,
+                             otherEtag + ", W/" + etag + ", " + etag)
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(updatedCar)))
+        .andExpect(status().isOk());
+
+    // a weak tag alone never matches
+    restCarMockMvc
+        .perform(put(ENTITY_API_URL_ID, car.getId())
+                     .header(HttpHeaders.IF_MATCH,
+                             "W/\"" + (version + 1) + "\"")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(updatedCar)))
+        .andExpect(status().isPreconditionFailed());
+  }
+
   @Test
   @Transactional
   void putNonExistingCar() throws Exception {
@@ -360,6 +657,74 @@ class CarResourceIT {
     assertThat(carList).hasSize(databaseSizeBeforeUpdate);
   }
 
+  @Test
+  @Transactional
+  void createCarsInBatch() throws Exception {
+    int databaseSizeBeforeCreate = carRepository.findAll().size();
+
+    restCarMockMvc
+        .perform(post(ENTITY_API_URL_BATCH)
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(
+                         List.of(car, new Car().model(UPDATED_MODEL),
+                                 new Car()))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(3)))
+        .andExpect(jsonPath("$.[0].status").value("CREATED"))
+        .andExpect(jsonPath("$.[1].status").value("CREATED"))
+        .andExpect(jsonPath("$.[2].status").value("INVALID"))
+        .andExpect(jsonPath("$.[2].message").value(containsString("model")));
+
+    List<Car> carList = carRepository.findAll();
+    assertThat(carList).hasSize(databaseSizeBeforeCreate + 2);
+    assertThat(carList)
+        .extracting(Car::getModel)
+        .contains(DEFAULT_MODEL, UPDATED_MODEL);
+  }
+
+  @Test
+  @Transactional
+  void partialUpdateCarsInBatch() throws Exception {
+    // Initialize the database
+    carRepository.saveAndFlush(car);
+
+    restCarMockMvc
+        .perform(patch(ENTITY_API_URL_BATCH)
+                     .contentType("application/merge-patch+json")
+                     .content(TestUtil.convertObjectToJsonBytes(List.of(
+                         new Car().id(car.getId()).model(UPDATED_MODEL),
+                         new Car().id(Long.MAX_VALUE).model(UPDATED_MODEL)))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.[0].status").value("UPDATED"))
+        .andExpect(jsonPath("$.[1].status").value("NOT_FOUND"));
+
+    em.clear();
+    assertThat(carRepository.findById(car.getId()).get().getModel())
+        .isEqualTo(UPDATED_MODEL);
+  }
+
+  @Test
+  @Transactional
+  void deleteCarsInBatch() throws Exception {
+    // Initialize the database
+    carRepository.saveAndFlush(car);
+    Car withDocuments = carRepository.saveAndFlush(createEntity(em));
+    documentRepository.saveAndFlush(
+        new Document().title("kept").size(1L).car(withDocuments));
+
+    restCarMockMvc
+        .perform(post(ENTITY_API_URL_BATCH + "/delete")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(
+                         List.of(car.getId(), withDocuments.getId()))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.[0].status").value("DELETED"))
+        .andExpect(jsonPath("$.[1].status").value("CONFLICT"));
+
+    assertThat(carRepository.findById(car.getId())).isEmpty();
+    assertThat(carRepository.findById(withDocuments.getId())).isPresent();
+  }
+
   @Test
   @Transactional
   void deleteCar() throws Exception {
@@ -1,7 +1,13 @@
 package com.fileuploader.app.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -9,19 +15,27 @@ import com.fileuploader.app.IntegrationTest;
 import com.fileuploader.app.domain.Content;
 import com.fileuploader.app.domain.Document;
 import com.fileuploader.app.repository.ContentRepository;
+import com.fileuploader.app.service.ContentStorageService;
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.Base64Utils;
 
 /**
  * Integration tests for the {@link ContentResource} REST controller.
@@ -45,6 +59,8 @@ class ContentResourceIT {
 
   @Autowired private ContentRepository contentRepository;
 
+  @Autowired private ContentStorageService contentStorageService;
+
   @Autowired private EntityManager em;
 
   @Autowired private MockMvc restContentMockMvc;
@@ -99,7 +115,23 @@ class ContentResourceIT {
 
   @BeforeEach
   public void initTest() {
-    content = createEntity(em);
+    if (TestTransaction.isActive()) {
+      content = createEntity(em);
+    } else {
+      // saved by the tests, committed as the bytes are transferred outside
+      // of any transaction; the document is left out, the content row not
+      // referencing it
+      content = new Content()
+                    .data(DEFAULT_DATA)
+                    .dataContentType(DEFAULT_DATA_CONTENT_TYPE);
+    }
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    if (!TestTransaction.isActive() && content.getId() != null) {
+      contentStorageService.delete(content.getId());
+    }
   }
 
   @Test
@@ -117,7 +149,10 @@ class ContentResourceIT {
     List<Content> contentList = contentRepository.findAll();
     assertThat(contentList).hasSize(databaseSizeBeforeCreate + 1);
     Content testContent = contentList.get(contentList.size() - 1);
-    assertThat(testContent.getData()).isEqualTo(DEFAULT_DATA);
+    assertThat(testContent.getStorageKey()).isEqualTo(testContent.getSha256());
+    assertThat(testContent.getDataSize()).isEqualTo(DEFAULT_DATA.length);
+    assertThat(contentStorageService.loadData(testContent).getData())
+        .isEqualTo(DEFAULT_DATA);
     assertThat(testContent.getDataContentType())
         .isEqualTo(DEFAULT_DATA_CONTENT_TYPE);
   }
@@ -147,7 +182,8 @@ class ContentResourceIT {
   @Transactional
   void getAllContents() throws Exception {
     // Initialize the database
-    contentRepository.saveAndFlush(content);
+    contentStorageService.save(content);
+    em.flush();
 
     // Get all the contentList
     restContentMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc"))
@@ -155,18 +191,65 @@ class ContentResourceIT {
         .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
         .andExpect(
             jsonPath("$.[*].id").value(hasItem(content.getId().intValue())))
+        .andExpect(header().exists("X-Total-Count"))
         .andExpect(jsonPath("$.[*].dataContentType")
                        .value(hasItem(DEFAULT_DATA_CONTENT_TYPE)))
         .andExpect(
-            jsonPath("$.[*].data")
-                .value(hasItem(Base64Utils.encodeToString(DEFAULT_DATA))));
+            jsonPath("$.[*].dataSize").value(hasItem(DEFAULT_DATA.length)))
+        .andExpect(
+            jsonPath("$.[*].sha256").value(hasItem(content.getSha256())))
+        .andExpect(jsonPath("$.[*].data").doesNotExist());
+  }
+
+  @Test
+  @Transactional
+  void getAllContentsWhereDocumentIsNull() throws Exception {
+    // Initialize the database
+    contentStorageService.save(content);
+    Content orphan = contentStorageService.save(
+        new Content().data(DEFAULT_DATA).dataContentType(
+            DEFAULT_DATA_CONTENT_TYPE));
+    em.flush();
+    em.clear();
+
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL + "?sort=id,desc&filter=document-is-null"))
+        .andExpect(status().isOk())
+        .andExpect(
+            jsonPath("$.[*].id").value(hasItem(orphan.getId().intValue())))
+        .andExpect(jsonPath("$.[*].id").value(
+            not(hasItem(content.getId().intValue()))))
+        .andExpect(jsonPath("$.[*].documentId").value(everyItem(nullValue())));
+  }
+
+  @Test
+  @Transactional
+  void getAllContentsAfterId() throws Exception {
+    // Initialize the database
+    contentStorageService.save(content);
+    Content next = contentStorageService.save(
+        new Content().data(DEFAULT_DATA).dataContentType(
+            DEFAULT_DATA_CONTENT_TYPE));
+    em.flush();
+
+    // Seek the content following the first one
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL + "?afterId={id}&size=1", content.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Total-Count"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$.[0].id").value(next.getId().intValue()))
+        .andExpect(jsonPath("$.[0].documentId").value(nullValue()));
   }
 
   @Test
   @Transactional
   void getContent() throws Exception {
     // Initialize the database
-    contentRepository.saveAndFlush(content);
+    contentStorageService.save(content);
+    em.flush();
+
+    em.clear();
 
     // Get the content
     restContentMockMvc.perform(get(ENTITY_API_URL_ID, content.getId()))
@@ -175,8 +258,108 @@ class ContentResourceIT {
         .andExpect(jsonPath("$.id").value(content.getId().intValue()))
         .andExpect(
             jsonPath("$.dataContentType").value(DEFAULT_DATA_CONTENT_TYPE))
-        .andExpect(
-            jsonPath("$.data").value(Base64Utils.encodeToString(DEFAULT_DATA)));
+        .andExpect(jsonPath("$.dataSize").value(DEFAULT_DATA.length))
+        .andExpect(jsonPath("$.data").doesNotExist());
+  }
+
+  @Test
+  void downloadContentData() throws Exception {
+    // Initialize the database
+    contentStorageService.save(content);
+
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", content.getId()))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(DEFAULT_DATA_CONTENT_TYPE))
+        .andExpect(content().bytes(DEFAULT_DATA));
+  }
+
+  @Test
+  void downloadImmutableContentData() throws Exception {
+    // Initialize the database
+    contentStorageService.save(content);
+
+    MvcResult result =
+        restContentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/data/{sha256}", content.getId(),
+                         content.getSha256()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+                                       allOf(containsString("public"),
+                                             containsString("max-age=31536000"),
+                                             containsString("immutable"))))
+            .andExpect(header().string(HttpHeaders.ETAG,
+                                       "\"" + content.getSha256() + "\""))
+            .andExpect(header().stringValues(
+                HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+            .andExpect(content().bytes(DEFAULT_DATA))
+            .andReturn();
+
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data/{sha256}", content.getId(),
+                     content.getSha256())
+                     .header(HttpHeaders.IF_MODIFIED_SINCE,
+                             result.getResponse().getHeader(
+                                 HttpHeaders.LAST_MODIFIED)))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void downloadCompressedContentData() throws Exception {
+    // Initialize the database
+    byte[] csv = "id,make,model\n1,Renault,Clio\n".repeat(1000).getBytes(
+        StandardCharsets.UTF_8);
+    contentStorageService.save(content.data(csv).dataContentType("text/csv"));
+
+    MvcResult result =
+        restContentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/data", content.getId())
+                         .header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG,
+                                       "\"" + content.getSha256() + "-gzip\""))
+            .andReturn();
+    byte[] gzip = result.getResponse().getContentAsByteArray();
+    assertThat(gzip.length).isLessThan(csv.length / 10);
+    try (InputStream in =
+             new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+      assertThat(in.readAllBytes()).isEqualTo(csv);
+    }
+
+    // clients not accepting gzip, or asking for a range, get the bytes as is
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", content.getId())
+                     .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(content().bytes(csv));
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", content.getId())
+                     .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                     .header(HttpHeaders.RANGE, "bytes=0-1"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(content().string("id"));
+  }
+
+  @Test
+  void downloadContentDataWithStaleChecksum() throws Exception {
+    // Initialize the database
+    contentStorageService.save(content);
+
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data/{sha256}", content.getId(),
+                     "0".repeat(64)))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @Transactional
+  void downloadNonExistingContentData() throws Exception {
+    restContentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", Long.MAX_VALUE))
+        .andExpect(status().isNotFound());
   }
 
   @Test
@@ -191,7 +374,8 @@ class ContentResourceIT {
   @Transactional
   void putExistingContent() throws Exception {
     // Initialize the database
-    contentRepository.saveAndFlush(content);
+    contentStorageService.save(content);
+    em.flush();
 
     int databaseSizeBeforeUpdate = contentRepository.findAll().size();
 
@@ -214,7 +398,10 @@ class ContentResourceIT {
     List<Content> contentList = contentRepository.findAll();
     assertThat(contentList).hasSize(databaseSizeBeforeUpdate);
     Content testContent = contentList.get(contentList.size() - 1);
-    assertThat(testContent.getData()).isEqualTo(UPDATED_DATA);
+    assertThat(testContent.getStorageKey()).isEqualTo(testContent.getSha256());
+    assertThat(testContent.getDataSize()).isEqualTo(UPDATED_DATA.length);
+    assertThat(contentStorageService.loadData(testContent).getData())
+        .isEqualTo(UPDATED_DATA);
     assertThat(testContent.getDataContentType())
         .isEqualTo(UPDATED_DATA_CONTENT_TYPE);
   }
@@ -277,7 +464,8 @@ class ContentResourceIT {
   @Transactional
   void partialUpdateContentWithPatch() throws Exception {
     // Initialize the database
-    contentRepository.saveAndFlush(content);
+    contentStorageService.save(content);
+    em.flush();
 
     int databaseSizeBeforeUpdate = contentRepository.findAll().size();
 
@@ -299,7 +487,10 @@ class ContentResourceIT {
     List<Content> contentList = contentRepository.findAll();
     assertThat(contentList).hasSize(databaseSizeBeforeUpdate);
     Content testContent = contentList.get(contentList.size() - 1);
-    assertThat(testContent.getData()).isEqualTo(UPDATED_DATA);
+    assertThat(testContent.getStorageKey()).isEqualTo(testContent.getSha256());
+    assertThat(testContent.getDataSize()).isEqualTo(UPDATED_DATA.length);
+    assertThat(contentStorageService.loadData(testContent).getData())
+        .isEqualTo(UPDATED_DATA);
     assertThat(testContent.getDataContentType())
         .isEqualTo(UPDATED_DATA_CONTENT_TYPE);
   }
@@ -308,7 +499,8 @@ class ContentResourceIT {
   @Transactional
   void fullUpdateContentWithPatch() throws Exception {
     // Initialize the database
-    contentRepository.saveAndFlush(content);
+    contentStorageService.save(content);
+    em.flush();
 
     int databaseSizeBeforeUpdate = contentRepository.findAll().size();
 
@@ -330,7 +522,10 @@ class ContentResourceIT {
     List<Content> contentList = contentRepository.findAll();
     assertThat(contentList).hasSize(databaseSizeBeforeUpdate);
     Content testContent = contentList.get(contentList.size() - 1);
-    assertThat(testContent.getData()).isEqualTo(UPDATED_DATA);
+    assertThat(testContent.getStorageKey()).isEqualTo(testContent.getSha256());
+    assertThat(testContent.getDataSize()).isEqualTo(UPDATED_DATA.length);
+    assertThat(contentStorageService.loadData(testContent).getData())
+        .isEqualTo(UPDATED_DATA);
     assertThat(testContent.getDataContentType())
         .isEqualTo(UPDATED_DATA_CONTENT_TYPE);
   }
@@ -393,7 +588,8 @@ class ContentResourceIT {
   @Transactional
   void deleteContent() throws Exception {
     // Initialize the database
-    contentRepository.saveAndFlush(content);
+    contentStorageService.save(content);
+    em.flush();
 
     int databaseSizeBeforeDelete = contentRepository.findAll().size();
 
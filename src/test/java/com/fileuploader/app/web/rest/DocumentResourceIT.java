@@ -2,23 +2,45 @@ package com.fileuploader.app.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fileuploader.app.IntegrationTest;
 import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.domain.Content;
 import com.fileuploader.app.domain.Document;
+import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.repository.ContentBlobRepository;
+import com.fileuploader.app.repository.ContentRepository;
 import com.fileuploader.app.repository.DocumentRepository;
+import com.fileuploader.app.service.ContentStorageService;
+import com.fileuploader.app.service.PreviewService;
 import jakarta.persistence.EntityManager;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -41,19 +63,36 @@ class DocumentResourceIT {
 
   private static final String ENTITY_API_URL = "/api/documents";
   private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+  private static final String ENTITY_API_URL_UPLOAD = ENTITY_API_URL + "/upload";
+  private static final String ENTITY_API_URL_BATCH = ENTITY_API_URL + "/batch";
+
+  private static final byte[] UPLOAD_DATA =
+      TestUtil.createByteArray(100_000, "1010101");
 
   private static Random random = new Random();
   private static AtomicLong count =
       new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
 
+  @Autowired private CarRepository carRepository;
+
   @Autowired private DocumentRepository documentRepository;
 
+  @Autowired private ContentRepository contentRepository;
+
+  @Autowired private ContentStorageService contentStorageService;
+
+  @Autowired private ContentBlobRepository contentBlobRepository;
+
+  @Autowired private PreviewService previewService;
+
   @Autowired private EntityManager em;
 
   @Autowired private MockMvc restDocumentMockMvc;
 
   private Document document;
 
+  private final List<Long> documentIds = new ArrayList<>();
+
   /**
    * Create an entity for this test.
    *
@@ -104,7 +143,22 @@ class DocumentResourceIT {
 
   @BeforeEach
   public void initTest() {
-    document = createEntity(em);
+    if (TestTransaction.isActive()) {
+      document = createEntity(em);
+    } else {
+      // committed, as the bytes are transferred outside of any transaction
+      Car car = carRepository.saveAndFlush(CarResourceIT.createEntity(em));
+      document = createEntity(em).car(car);
+    }
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    if (TestTransaction.isActive()) {
+      return;
+    }
+    documentIds.forEach(contentStorageService::deleteDocument);
+    carRepository.deleteById(document.getCar().getId());
   }
 
   @Test
@@ -186,6 +240,244 @@ class DocumentResourceIT {
     assertThat(documentList).hasSize(databaseSizeBeforeTest);
   }
 
+  @Test
+  void uploadDocumentMultipart() throws Exception {
+    int databaseSizeBeforeCreate = documentRepository.findAll().size();
+
+    restDocumentMockMvc
+        .perform(multipart(ENTITY_API_URL_UPLOAD)
+                     .file(new MockMultipartFile("file", "scan.pdf",
+                                                 "application/pdf", UPLOAD_DATA))
+                     .param("carId", document.getCar().getId().toString()))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.title").value("scan.pdf"))
+        .andExpect(jsonPath("$.size").value(UPLOAD_DATA.length))
+        .andExpect(jsonPath("$.mimeType").value("application/pdf"));
+
+    List<Document> documentList = documentRepository.findAll();
+    assertThat(documentList).hasSize(databaseSizeBeforeCreate + 1);
+    Document testDocument = documentList.get(documentList.size() - 1);
+    documentIds.add(testDocument.getId());
+    assertUploadedContent(testDocument);
+  }
+
+  @Test
+  void uploadDocumentStream() throws Exception {
+    int databaseSizeBeforeCreate = documentRepository.findAll().size();
+
+    restDocumentMockMvc
+        .perform(post(ENTITY_API_URL_UPLOAD)
+                     .param("carId", document.getCar().getId().toString())
+                     .param("title", DEFAULT_TITLE)
+                     .param("mimeType", "application/pdf")
+                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                     .content(UPLOAD_DATA))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+        .andExpect(jsonPath("$.size").value(UPLOAD_DATA.length));
+
+    List<Document> documentList = documentRepository.findAll();
+    assertThat(documentList).hasSize(databaseSizeBeforeCreate + 1);
+    Document testDocument = documentList.get(documentList.size() - 1);
+    documentIds.add(testDocument.getId());
+    assertUploadedContent(testDocument);
+  }
+
+  @Test
+  @Transactional
+  void uploadDocumentForNonExistingCar() throws Exception {
+    int databaseSizeBeforeCreate = documentRepository.findAll().size();
+
+    restDocumentMockMvc
+        .perform(post(ENTITY_API_URL_UPLOAD)
+                     .param("carId", String.valueOf(Long.MAX_VALUE))
+                     .param("title", DEFAULT_TITLE)
+                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                     .content(UPLOAD_DATA))
+        .andExpect(status().isBadRequest());
+
+    List<Document> documentList = documentRepository.findAll();
+    assertThat(documentList).hasSize(databaseSizeBeforeCreate);
+  }
+
+  @Test
+  void uploadSameDataTwiceSharesBlob() throws Exception {
+    Document first = uploadDocument();
+    String storageKey = findContent(first).getStorageKey();
+    int refCountBefore = contentBlobRepository.findRefCount(storageKey);
+
+    Document second = uploadDocument();
+
+    assertThat(second.getContent().getId())
+        .isNotEqualTo(first.getContent().getId());
+    assertThat(findContent(second).getStorageKey()).isEqualTo(storageKey);
+    assertThat(contentBlobRepository.findRefCount(storageKey))
+        .isEqualTo(refCountBefore + 1);
+  }
+
+  @Test
+  void deleteUploadedDocumentReleasesBlob() throws Exception {
+    Document uploaded = uploadDocument();
+    Long contentId = uploaded.getContent().getId();
+    String storageKey = findContent(uploaded).getStorageKey();
+    int refCountBefore = contentBlobRepository.findRefCount(storageKey);
+
+    restDocumentMockMvc
+        .perform(delete(ENTITY_API_URL_ID, uploaded.getId())
+                     .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNoContent());
+
+    assertThat(contentRepository.findById(contentId)).isEmpty();
+    assertThat(contentBlobRepository.findRefCount(storageKey))
+        .isEqualTo(refCountBefore - 1);
+  }
+
+  @Test
+  void downloadDocumentData() throws Exception {
+    Document uploaded = uploadDocument();
+
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", uploaded.getId()))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/pdf"))
+        .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+        .andExpect(header().string(HttpHeaders.ETAG, sha256Etag()))
+        .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+        .andExpect(content().bytes(UPLOAD_DATA));
+  }
+
+  @Test
+  void downloadUnmodifiedDocumentData() throws Exception {
+    Document uploaded = uploadDocument();
+
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", uploaded.getId())
+                     .header(HttpHeaders.IF_NONE_MATCH, sha256Etag()))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, sha256Etag()))
+        .andExpect(content().bytes(new byte[0]));
+  }
+
+  @Test
+  void downloadDocumentDataRange() throws Exception {
+    Document uploaded = uploadDocument();
+
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", uploaded.getId())
+                     .header(HttpHeaders.RANGE, "bytes=10-19")
+                     .header(HttpHeaders.IF_RANGE, sha256Etag()))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                                   "bytes 10-19/" + UPLOAD_DATA.length))
+        .andExpect(content().bytes(Arrays.copyOfRange(UPLOAD_DATA, 10, 20)));
+  }
+
+  @Test
+  void downloadDocumentDataRangeWithStaleIfRange() throws Exception {
+    Document uploaded = uploadDocument();
+
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", uploaded.getId())
+                     .header(HttpHeaders.RANGE, "bytes=10-19")
+                     .header(HttpHeaders.IF_RANGE, "\"stale\""))
+        .andExpect(status().isOk())
+        .andExpect(content().bytes(UPLOAD_DATA));
+  }
+
+  @Test
+  void downloadDocumentDataUnsatisfiableRange() throws Exception {
+    Document uploaded = uploadDocument();
+
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", uploaded.getId())
+                     .header(HttpHeaders.RANGE,
+                             "bytes=" + UPLOAD_DATA.length + "-"))
+        .andExpect(status().isRequestedRangeNotSatisfiable())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                                   "bytes */" + UPLOAD_DATA.length));
+  }
+
+  @Test
+  @Transactional
+  void getDocumentPreview() throws Exception {
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB),
+                  "png", png);
+    Document uploaded = contentStorageService.store(
+        document.getCar(), DEFAULT_TITLE, MediaType.IMAGE_PNG_VALUE,
+        contentStorageService.writeBlob(
+            MediaType.IMAGE_PNG_VALUE,
+            new ByteArrayInputStream(png.toByteArray())));
+
+    // only rendered once the document is committed
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/preview", uploaded.getId()))
+        .andExpect(status().isNotFound());
+
+    previewService.render(uploaded.getContent().getStorageKey(),
+                          MediaType.IMAGE_PNG_VALUE);
+
+    byte[] preview =
+        restDocumentMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/preview", uploaded.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+    BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(preview));
+    assertThat(thumbnail.getWidth()).isEqualTo(256);
+    assertThat(thumbnail.getHeight()).isEqualTo(128);
+  }
+
+  @Test
+  @Transactional
+  void downloadNonExistingDocumentData() throws Exception {
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL_ID + "/data", Long.MAX_VALUE))
+        .andExpect(status().isNotFound());
+  }
+
+  private Document uploadDocument() throws Exception {
+    restDocumentMockMvc
+        .perform(post(ENTITY_API_URL_UPLOAD)
+                     .param("carId", document.getCar().getId().toString())
+                     .param("title", DEFAULT_TITLE)
+                     .param("mimeType", "application/pdf")
+                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                     .content(UPLOAD_DATA))
+        .andExpect(status().isCreated());
+    List<Document> documentList = documentRepository.findAll();
+    Document uploaded = documentList.get(documentList.size() - 1);
+    documentIds.add(uploaded.getId());
+    return uploaded;
+  }
+
+  private Content findContent(Document uploaded) {
+    return contentRepository.findById(uploaded.getContent().getId()).get();
+  }
+
+  private static String sha256Etag() throws Exception {
+    return "\"" +
+        HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(UPLOAD_DATA)) +
+        "\"";
+  }
+
+  private void assertUploadedContent(Document testDocument) throws Exception {
+    assertThat(testDocument.getSize()).isEqualTo(UPLOAD_DATA.length);
+    Content testContent = findContent(testDocument);
+    assertThat(testContent.getDataSize()).isEqualTo(UPLOAD_DATA.length);
+    assertThat(testContent.getStorageKey())
+        .isEqualTo(testContent.getSha256());
+    assertThat(contentStorageService.loadData(testContent).getData())
+        .isEqualTo(UPLOAD_DATA);
+    assertThat(testContent.getSha256())
+        .isEqualTo(HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(UPLOAD_DATA)));
+  }
+
   @Test
   @Transactional
   void getAllDocuments() throws Exception {
@@ -205,6 +497,22 @@ class DocumentResourceIT {
             jsonPath("$.[*].mimeType").value(hasItem(DEFAULT_MIME_TYPE)));
   }
 
+  @Test
+  @Transactional
+  void getAllDocumentsAfterId() throws Exception {
+    // Initialize the database
+    documentRepository.saveAndFlush(document);
+    Document next = documentRepository.saveAndFlush(createEntity(em));
+
+    // Seek the document following the first one
+    restDocumentMockMvc
+        .perform(get(ENTITY_API_URL + "?afterId={id}&size=1", document.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Total-Count"))
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$.[0].id").value(next.getId().intValue()));
+  }
+
   @Test
   @Transactional
   void getDocument() throws Exception {
@@ -262,6 +570,57 @@ class DocumentResourceIT {
     assertThat(testDocument.getSize()).isEqualTo(UPDATED_SIZE);
     assertThat(testDocument.getMimeType()).isEqualTo(UPDATED_MIME_TYPE);
   }
+  @Test
+  @Transactional
+  void putDocumentWithOtherContent() throws Exception {
+    // Initialize the database
+    Content content = contentStorageService.save(
+        new Content().data(UPLOAD_DATA).dataContentType("application/pdf"));
+    documentRepository.saveAndFlush(document);
+
+    // Point the document at the content
+    Document updatedDocument =
+        documentRepository.findById(document.getId()).get();
+    em.detach(updatedDocument);
+    updatedDocument.content(new Content().id(content.getId()));
+
+    restDocumentMockMvc
+        .perform(
+            put(ENTITY_API_URL_ID, updatedDocument.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(updatedDocument)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.id").value(content.getId().intValue()));
+
+    Document testDocument = documentRepository.findById(document.getId()).get();
+    assertThat(testDocument.getContent().getId()).isEqualTo(content.getId());
+  }
+
+  @Test
+  @Transactional
+  void putDocumentWithContentOfAnotherDocument() throws Exception {
+    // Initialize the database
+    Content content = contentStorageService.save(
+        new Content().data(UPLOAD_DATA).dataContentType("application/pdf"));
+    documentRepository.saveAndFlush(createEntity(em).content(content));
+    documentRepository.saveAndFlush(document);
+
+    Document updatedDocument =
+        documentRepository.findById(document.getId()).get();
+    em.detach(updatedDocument);
+    updatedDocument.content(new Content().id(content.getId()));
+
+    restDocumentMockMvc
+        .perform(
+            put(ENTITY_API_URL_ID, updatedDocument.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(updatedDocument)))
+        .andExpect(status().isBadRequest());
+
+    Document testDocument = documentRepository.findById(document.getId()).get();
+    assertThat(testDocument.getContent()).isNull();
+  }
+
 
   @Test
   @Transactional
@@ -347,6 +706,39 @@ class DocumentResourceIT {
     assertThat(testDocument.getMimeType()).isEqualTo(UPDATED_MIME_TYPE);
   }
 
+  @Test
+  @Transactional
+  void partialUpdateDocumentLoadsItOnce() throws Exception {
+    // Initialize the database
+    documentRepository.saveAndFlush(document);
+    em.clear();
+
+    Document partialUpdatedDocument =
+        new Document().id(document.getId()).title(UPDATED_TITLE);
+
+    Statistics statistics = em.getEntityManagerFactory()
+                                .unwrap(SessionFactory.class)
+                                .getStatistics();
+    statistics.clear();
+    statistics.setStatisticsEnabled(true);
+    try {
+      restDocumentMockMvc
+          .perform(patch(ENTITY_API_URL_ID, partialUpdatedDocument.getId())
+                       .contentType("application/merge-patch+json")
+                       .content(TestUtil.convertObjectToJsonBytes(
+                           partialUpdatedDocument)))
+          .andExpect(status().isOk());
+      em.flush();
+
+      // one select and one update, where checking that the document exists
+      // before loading it took a third statement
+      assertThat(statistics.getPrepareStatementCount())
+          .isLessThanOrEqualTo(2);
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+  }
+
   @Test
   @Transactional
   void fullUpdateDocumentWithPatch() throws Exception {
@@ -433,6 +825,117 @@ class DocumentResourceIT {
     assertThat(documentList).hasSize(databaseSizeBeforeUpdate);
   }
 
+  @Test
+  @Transactional
+  void createDocumentsInBatch() throws Exception {
+    int databaseSizeBeforeCreate = documentRepository.findAll().size();
+    Document second = createEntity(em).title(UPDATED_TITLE);
+    Document withId = createEntity(em).id(Long.MAX_VALUE);
+    Document withoutTitle = createEntity(em).title(null);
+
+    restDocumentMockMvc
+        .perform(post(ENTITY_API_URL_BATCH)
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(
+                         List.of(document, second, withId, withoutTitle))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(4)))
+        .andExpect(jsonPath("$.[0].status").value("CREATED"))
+        .andExpect(jsonPath("$.[0].id").isNumber())
+        .andExpect(jsonPath("$.[1].status").value("CREATED"))
+        .andExpect(jsonPath("$.[2].status").value("INVALID"))
+        .andExpect(jsonPath("$.[3].status").value("INVALID"))
+        .andExpect(jsonPath("$.[3].index").value(3))
+        .andExpect(jsonPath("$.[3].message").value(startsWith("title ")));
+
+    List<Document> documentList = documentRepository.findAll();
+    assertThat(documentList).hasSize(databaseSizeBeforeCreate + 2);
+    assertThat(documentList)
+        .extracting(Document::getTitle)
+        .contains(DEFAULT_TITLE, UPDATED_TITLE);
+  }
+
+  @Test
+  @Transactional
+  void updateDocumentsInBatch() throws Exception {
+    // Initialize the database
+    documentRepository.saveAndFlush(document);
+    Document other = documentRepository.saveAndFlush(createEntity(em));
+    em.detach(document);
+    em.detach(other);
+
+    document.title(UPDATED_TITLE).size(UPDATED_SIZE).mimeType(null);
+    Document unknown = createEntity(em).id(Long.MAX_VALUE);
+
+    restDocumentMockMvc
+        .perform(put(ENTITY_API_URL_BATCH)
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(
+                         List.of(document, unknown, other.size(null)))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.[0].status").value("UPDATED"))
+        .andExpect(jsonPath("$.[1].status").value("NOT_FOUND"))
+        .andExpect(jsonPath("$.[2].status").value("INVALID"));
+
+    em.clear();
+    Document testDocument = documentRepository.findById(document.getId()).get();
+    assertThat(testDocument.getTitle()).isEqualTo(UPDATED_TITLE);
+    assertThat(testDocument.getSize()).isEqualTo(UPDATED_SIZE);
+    assertThat(testDocument.getMimeType()).isNull();
+    assertThat(documentRepository.findById(other.getId()).get().getSize())
+        .isEqualTo(DEFAULT_SIZE);
+  }
+
+  @Test
+  @Transactional
+  void partialUpdateDocumentsInBatch() throws Exception {
+    // Initialize the database
+    documentRepository.saveAndFlush(document);
+
+    Document partialUpdatedDocument =
+        new Document().id(document.getId()).title(UPDATED_TITLE);
+
+    restDocumentMockMvc
+        .perform(patch(ENTITY_API_URL_BATCH)
+                     .contentType("application/merge-patch+json")
+                     .content(TestUtil.convertObjectToJsonBytes(List.of(
+                         partialUpdatedDocument, partialUpdatedDocument))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.[0].status").value("UPDATED"))
+        .andExpect(jsonPath("$.[1].status").value("INVALID"));
+
+    em.clear();
+    Document testDocument = documentRepository.findById(document.getId()).get();
+    assertThat(testDocument.getTitle()).isEqualTo(UPDATED_TITLE);
+    assertThat(testDocument.getSize()).isEqualTo(DEFAULT_SIZE);
+    assertThat(testDocument.getMimeType()).isEqualTo(DEFAULT_MIME_TYPE);
+  }
+
+  @Test
+  void deleteDocumentsInBatch() throws Exception {
+    Document uploaded = uploadDocument();
+    Long contentId = uploaded.getContent().getId();
+    String storageKey = findContent(uploaded).getStorageKey();
+    int refCountBefore = contentBlobRepository.findRefCount(storageKey);
+    documentIds.add(documentRepository.saveAndFlush(document).getId());
+
+    restDocumentMockMvc
+        .perform(post(ENTITY_API_URL_BATCH + "/delete")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .content(TestUtil.convertObjectToJsonBytes(List.of(
+                         uploaded.getId(), document.getId(), Long.MAX_VALUE))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.[0].status").value("DELETED"))
+        .andExpect(jsonPath("$.[1].status").value("DELETED"))
+        .andExpect(jsonPath("$.[2].status").value("NOT_FOUND"));
+
+    assertThat(documentRepository.findById(uploaded.getId())).isEmpty();
+    assertThat(documentRepository.findById(document.getId())).isEmpty();
+    assertThat(contentRepository.findById(contentId)).isEmpty();
+    assertThat(contentBlobRepository.findRefCount(storageKey))
+        .isEqualTo(refCountBefore - 1);
+  }
+
   @Test
   @Transactional
   void deleteDocument() throws Exception {
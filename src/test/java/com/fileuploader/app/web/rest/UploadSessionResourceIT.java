@@ -0,0 +1,294 @@
+package com.fileuploader.app.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fileuploader.app.IntegrationTest;
+import com.fileuploader.app.domain.Car;
+import com.fileuploader.app.repository.CarRepository;
+import com.fileuploader.app.repository.DocumentRepository;
+import com.fileuploader.app.repository.UploadSessionRepository;
+import com.fileuploader.app.service.ContentStorageService;
+import com.fileuploader.app.service.UploadSessionService;
+import com.fileuploader.app.service.dto.StoredContentDTO;
+import com.fileuploader.app.service.dto.UploadSessionDTO;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link UploadSessionResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class UploadSessionResourceIT {
+
+  private static final String DEFAULT_TITLE = "AAAAAAAAAA";
+
+  private static final String DEFAULT_MIME_TYPE = "application/pdf";
+
+  private static final int CHUNK_SIZE = 4096;
+
+  private static final byte[] DATA = new byte[10_000];
+
+  static {
+    for (int i = 0; i < DATA.length; i++) {
+      DATA[i] = (byte)(i % 251);
+    }
+  }
+
+  private static final String ENTITY_API_URL = "/api/upload-sessions";
+  private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+  private static final String ENTITY_API_URL_CHUNK =
+      ENTITY_API_URL_ID + "/chunks/{index}";
+  private static final String ENTITY_API_URL_COMPLETE =
+      ENTITY_API_URL_ID + "/complete";
+
+  @Autowired private CarRepository carRepository;
+
+  @Autowired private DocumentRepository documentRepository;
+
+  @Autowired private UploadSessionRepository uploadSessionRepository;
+
+  @Autowired private UploadSessionService uploadSessionService;
+
+  @Autowired private ContentStorageService contentStorageService;
+
+  @Autowired private EntityManager em;
+
+  @Autowired private MockMvc restUploadSessionMockMvc;
+
+  private Car car;
+
+  private final List<String> uploadSessionIds = new ArrayList<>();
+
+  private final List<Long> documentIds = new ArrayList<>();
+
+  @BeforeEach
+  public void initTest() {
+    // committed, as the chunks are received outside of any transaction
+    car = carRepository.saveAndFlush(CarResourceIT.createEntity(em));
+  }
+
+  @AfterEach
+  public void cleanUp() throws Exception {
+    for (String id : uploadSessionIds) {
+      uploadSessionService.delete(id);
+    }
+    documentIds.forEach(contentStorageService::deleteDocument);
+    carRepository.deleteById(car.getId());
+  }
+
+  @Test
+  void resumableUpload() throws Exception {
+    int databaseSizeBeforeCreate = documentRepository.findAll().size();
+    String id = createUploadSession();
+
+    // chunks can be uploaded in any order
+    putChunk(id, 2);
+    putChunk(id, 0);
+    restUploadSessionMockMvc.perform(get(ENTITY_API_URL_ID, id))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.chunkCount").value(3))
+        .andExpect(jsonPath("$.receivedChunks").value(contains(0, 2)));
+    putChunk(id, 1);
+
+    String response =
+        restUploadSessionMockMvc
+            .perform(post(ENTITY_API_URL_COMPLETE, id)
+                         .header(UploadSessionResource.CHECKSUM_HEADER,
+                                 sha256(DATA)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.size").value(DATA.length))
+            .andExpect(jsonPath("$.mimeType").value(DEFAULT_MIME_TYPE))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    Long documentId = ((Number)JsonPath.read(response, "$.id")).longValue();
+    documentIds.add(documentId);
+
+    assertThat(documentRepository.findAll())
+        .hasSize(databaseSizeBeforeCreate + 1);
+    assertThat(contentStorageService.findDocumentContent(documentId))
+        .get()
+        .extracting(StoredContentDTO::getSha256)
+        .isEqualTo(sha256(DATA));
+    restUploadSessionMockMvc
+        .perform(get("/api/documents/{id}/data", documentId))
+        .andExpect(status().isOk())
+        .andExpect(content().bytes(DATA));
+    assertThat(uploadSessionRepository.findById(id)).isEmpty();
+  }
+
+  @Test
+  void putChunkWithWrongChecksum() throws Exception {
+    String id = createUploadSession();
+
+    restUploadSessionMockMvc
+        .perform(put(ENTITY_API_URL_CHUNK, id, 0)
+                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                     .header(UploadSessionResource.CHECKSUM_HEADER,
+                             sha256(new byte[0]))
+                     .content(chunk(0)))
+        .andExpect(status().isBadRequest());
+
+    restUploadSessionMockMvc.perform(get(ENTITY_API_URL_ID, id))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.receivedChunks").value(empty()));
+  }
+
+  @Test
+  void putChunkWithWrongSize() throws Exception {
+    String id = createUploadSession();
+
+    restUploadSessionMockMvc
+        .perform(put(ENTITY_API_URL_CHUNK, id, 0)
+                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                     .content(chunk(2)))
+        .andExpect(status().isBadRequest());
+    restUploadSessionMockMvc
+        .perform(put(ENTITY_API_URL_CHUNK, id, 3)
+                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                     .content(chunk(2)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void completeWithMissingChunks() throws Exception {
+    int databaseSizeBeforeCreate = documentRepository.findAll().size();
+    String id = createUploadSession();
+    putChunk(id, 0);
+    putChunk(id, 2);
+
+    restUploadSessionMockMvc.perform(post(ENTITY_API_URL_COMPLETE, id))
+        .andExpect(status().isBadRequest());
+
+    assertThat(documentRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    assertThat(uploadSessionRepository.findById(id)).isPresent();
+  }
+
+  @Test
+  @Transactional
+  void createUploadSessionForNonExistingCar() throws Exception {
+    UploadSessionDTO uploadSessionDTO = newUploadSession();
+    uploadSessionDTO.setCarId(Long.MAX_VALUE);
+
+    restUploadSessionMockMvc
+        .perform(
+            post(ENTITY_API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(uploadSessionDTO)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Transactional
+  void createUploadSessionTooLarge() throws Exception {
+    UploadSessionDTO uploadSessionDTO = newUploadSession();
+    uploadSessionDTO.setSize(Long.MAX_VALUE);
+
+    restUploadSessionMockMvc
+        .perform(
+            post(ENTITY_API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(uploadSessionDTO)))
+        .andExpect(status().isBadRequest());
+
+    // too many chunks for their count to be an int
+    uploadSessionDTO.setSize(4L * 1024 * 1024 * 1024);
+    uploadSessionDTO.setChunkSize(1);
+    restUploadSessionMockMvc
+        .perform(
+            post(ENTITY_API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestUtil.convertObjectToJsonBytes(uploadSessionDTO)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Transactional
+  void getNonExistingUploadSession() throws Exception {
+    restUploadSessionMockMvc
+        .perform(get(ENTITY_API_URL_ID, "00000000-0000-0000-0000-000000000000"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void deleteUploadSession() throws Exception {
+    String id = createUploadSession();
+    putChunk(id, 0);
+
+    restUploadSessionMockMvc.perform(delete(ENTITY_API_URL_ID, id))
+        .andExpect(status().isNoContent());
+
+    assertThat(uploadSessionRepository.findById(id)).isEmpty();
+    restUploadSessionMockMvc.perform(get(ENTITY_API_URL_ID, id))
+        .andExpect(status().isNotFound());
+  }
+
+  private UploadSessionDTO newUploadSession() {
+    UploadSessionDTO uploadSessionDTO = new UploadSessionDTO();
+    uploadSessionDTO.setCarId(car.getId());
+    uploadSessionDTO.setTitle(DEFAULT_TITLE);
+    uploadSessionDTO.setMimeType(DEFAULT_MIME_TYPE);
+    uploadSessionDTO.setSize((long)DATA.length);
+    uploadSessionDTO.setChunkSize(CHUNK_SIZE);
+    return uploadSessionDTO;
+  }
+
+  private String createUploadSession() throws Exception {
+    String response =
+        restUploadSessionMockMvc
+            .perform(post(ENTITY_API_URL)
+                         .contentType(MediaType.APPLICATION_JSON)
+                         .content(TestUtil.convertObjectToJsonBytes(
+                             newUploadSession())))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.chunkSize").value(CHUNK_SIZE))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String id = JsonPath.read(response, "$.id");
+    uploadSessionIds.add(id);
+    return id;
+  }
+
+  private void putChunk(String id, int index) throws Exception {
+    byte[] chunk = chunk(index);
+    restUploadSessionMockMvc
+        .perform(put(ENTITY_API_URL_CHUNK, id, index)
+                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                     .header(UploadSessionResource.CHECKSUM_HEADER,
+                             sha256(chunk))
+                     .content(chunk))
+        .andExpect(status().isOk());
+  }
+
+  private static byte[] chunk(int index) {
+    return Arrays.copyOfRange(DATA, index * CHUNK_SIZE,
+                              Math.min(DATA.length, (index + 1) * CHUNK_SIZE));
+  }
+
+  private static String sha256(byte[] bytes) throws Exception {
+    return HexFormat.of().formatHex(
+        MessageDigest.getInstance("SHA-256").digest(bytes));
+  }
+}